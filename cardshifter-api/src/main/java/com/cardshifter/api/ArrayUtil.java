@@ -21,4 +21,12 @@ public class ArrayUtil {
         return result;
     }
 
+    public static boolean[] copyOf(boolean[] array) {
+        boolean[] result = new boolean[array.length];
+        for (int i = 0; i < array.length; i++) {
+            result[i] = array[i];
+        }
+        return result;
+    }
+
 }
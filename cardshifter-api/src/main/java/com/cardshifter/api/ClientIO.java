@@ -9,7 +9,7 @@ public abstract class ClientIO implements IdObject {
 	private final ClientServerInterface server;
     private final LogInterface logger;
 	private int id;
-    private boolean disconnected;
+    private volatile boolean disconnected;
 
 	public ClientIO(ClientServerInterface server) {
 		this.server = server;
@@ -62,6 +62,13 @@ public abstract class ClientIO implements IdObject {
 		server.onDisconnected(this);
 	}
 	
+	/**
+	 * @return True if this client has disconnected, messages to it are then dropped
+	 */
+	public boolean isDisconnected() {
+		return disconnected;
+	}
+	
 	/**
 	 * Disconnect this client
 	 */
@@ -0,0 +1,38 @@
+package com.cardshifter.api.incoming;
+
+import com.cardshifter.api.messages.Message;
+
+/**
+ * Request all the actions that the client can currently use in a game.
+ * <p>
+ * The server answers with a reset {@link com.cardshifter.api.outgoing.UsableActionsChangeMessage} containing every usable action,
+ * so that a client that has lost track of the usable actions, for example after being reattached to a running game, is brought up to date again.
+ */
+public class RequestActionsMessage extends Message {
+	
+	private final int gameId;
+
+	/** Constructor. (no params) */
+	public RequestActionsMessage() {
+		this(0);
+	}
+	
+	/**
+	 * Constructor.
+	 * @param gameId  The Id of this game currently being played
+	 */
+	public RequestActionsMessage(int gameId) {
+		super("requestActions");
+		this.gameId = gameId;
+	}
+	
+	/** @return  The Id of this game currently being played */
+	public int getGameId() {
+		return gameId;
+	}
+	
+	@Override
+	public String toString() {
+		return "RequestActionsMessage [gameId=" + gameId + "]";
+	}
+}
@@ -11,6 +11,8 @@ public class TransformerMessage extends Message {
 
 	public static final int TRANSFORM_JSON = 0;
 	public static final int TRANSFORM_BYTE = 1;
+	/** Compact bytes with varints and UTF-8 strings, see {@link com.cardshifter.api.serial.ByteFormat#COMPACT} */
+	public static final int TRANSFORM_BYTE_COMPACT = 2;
 	
 	private final int type;
 	
@@ -8,6 +8,7 @@ import com.cardshifter.api.both.InviteRequest;
 import com.cardshifter.api.both.InviteResponse;
 import com.cardshifter.api.both.PlayerConfigMessage;
 import com.cardshifter.api.incoming.LoginMessage;
+import com.cardshifter.api.incoming.RequestActionsMessage;
 import com.cardshifter.api.incoming.RequestTargetsMessage;
 import com.cardshifter.api.incoming.ServerQueryMessage;
 import com.cardshifter.api.incoming.StartGameRequest;
@@ -37,6 +38,7 @@ public class MessageTypeIdResolver {
 		clazzes.put("startgame", StartGameRequest.class);
 		clazzes.put("use", UseAbilityMessage.class);
 		clazzes.put("requestTargets", RequestTargetsMessage.class);
+		clazzes.put("requestActions", RequestActionsMessage.class);
 		clazzes.put("zoneChange", ZoneChangeMessage.class);
 		clazzes.put("entityRemoved", EntityRemoveMessage.class);
 		clazzes.put("disconnect", ClientDisconnectedMessage.class);
@@ -52,6 +54,7 @@ public class MessageTypeIdResolver {
 		clazzes.put("zone", ZoneMessage.class);
 		clazzes.put("update", UpdateMessage.class);
 		clazzes.put("useable", UsableActionMessage.class);
+		clazzes.put("useableChange", UsableActionsChangeMessage.class);
 		clazzes.put("targets", AvailableTargetsMessage.class);
 		clazzes.put("availableMods", AvailableModsMessage.class);
         clazzes.put("elimination", PlayerEliminatedMessage.class);
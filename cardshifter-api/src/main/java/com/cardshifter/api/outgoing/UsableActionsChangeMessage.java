@@ -0,0 +1,91 @@
+package com.cardshifter.api.outgoing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.cardshifter.api.ArrayUtil;
+import com.cardshifter.api.messages.Message;
+
+/**
+ * Changes to the actions that a player can use, since the previous message of this kind.
+ * <p>
+ * An action is identified by the id of the entity that has it and the name of the action.
+ * When this message is a reset, all previously usable actions should be forgotten before the added actions are used.
+ * The message is sent after every action, even if nothing has changed.
+ */
+public class UsableActionsChangeMessage extends Message {
+
+	private boolean reset;
+	private int[] addedIds;
+	private String[] addedActions;
+	private boolean[] addedTargetRequired;
+	private int[] removedIds;
+	private String[] removedActions;
+
+	/** Constructor. (no params) */
+	public UsableActionsChangeMessage() {
+		this(false, new int[0], new String[0], new boolean[0], new int[0], new String[0]);
+	}
+	/**
+	 * Constructor.
+	 * @param reset  Whether or not all previously usable actions should be forgotten
+	 * @param addedIds  The entities of the actions that can now be used
+	 * @param addedActions  The names of the actions that can now be used
+	 * @param addedTargetRequired  Whether or not a target is required for each of the actions that can now be used
+	 * @param removedIds  The entities of the actions that can no longer be used
+	 * @param removedActions  The names of the actions that can no longer be used
+	 */
+	public UsableActionsChangeMessage(boolean reset, int[] addedIds, String[] addedActions, boolean[] addedTargetRequired,
+			int[] removedIds, String[] removedActions) {
+		super("useableChange");
+		this.reset = reset;
+		this.addedIds = ArrayUtil.copyOf(addedIds);
+		this.addedActions = ArrayUtil.copyOf(addedActions);
+		this.addedTargetRequired = ArrayUtil.copyOf(addedTargetRequired);
+		this.removedIds = ArrayUtil.copyOf(removedIds);
+		this.removedActions = ArrayUtil.copyOf(removedActions);
+	}
+	/** @return  Whether or not all previously usable actions should be forgotten */
+	public boolean isReset() {
+		return reset;
+	}
+	/** @return  The entities of the actions that can now be used */
+	public int[] getAddedIds() {
+		return ArrayUtil.copyOf(addedIds);
+	}
+	/** @return  The names of the actions that can now be used */
+	public String[] getAddedActions() {
+		return ArrayUtil.copyOf(addedActions);
+	}
+	/** @return  Whether or not a target is required for each of the actions that can now be used */
+	public boolean[] getAddedTargetRequired() {
+		return ArrayUtil.copyOf(addedTargetRequired);
+	}
+	/** @return  The entities of the actions that can no longer be used */
+	public int[] getRemovedIds() {
+		return ArrayUtil.copyOf(removedIds);
+	}
+	/** @return  The names of the actions that can no longer be used */
+	public String[] getRemovedActions() {
+		return ArrayUtil.copyOf(removedActions);
+	}
+	/** @return  A message for each of the actions that can now be used */
+	public List<UsableActionMessage> createAddedMessages() {
+		List<UsableActionMessage> result = new ArrayList<UsableActionMessage>(addedIds.length);
+		for (int i = 0; i < addedIds.length; i++) {
+			result.add(new UsableActionMessage(addedIds[i], addedActions[i], addedTargetRequired[i]));
+		}
+		return result;
+	}
+	/** @return  This message as converted to String */
+	@Override
+	public String toString() {
+		return "UsableActionsChangeMessage [reset=" + reset
+				+ ", addedIds=" + Arrays.toString(addedIds)
+				+ ", addedActions=" + Arrays.toString(addedActions)
+				+ ", removedIds=" + Arrays.toString(removedIds)
+				+ ", removedActions=" + Arrays.toString(removedActions) + "]";
+	}
+
+}
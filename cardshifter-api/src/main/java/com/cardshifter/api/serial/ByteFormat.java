@@ -0,0 +1,100 @@
+package com.cardshifter.api.serial;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.cardshifter.api.LogInterface;
+
+/**
+ * How the values of a message are written as bytes by a {@link ByteTransformer}.
+ * <p>
+ * The fields of a message are always written in the same order, the format decides how numbers, strings and types are written.
+ */
+public abstract class ByteFormat {
+
+	/**
+	 * Ints as four bytes, strings as UTF-16 and types by class name. Used by {@link com.cardshifter.api.incoming.TransformerMessage#TRANSFORM_BYTE}
+	 */
+	public static final ByteFormat ORIGINAL = new OriginalByteFormat();
+
+	/**
+	 * Ints as zig-zag varints, strings as UTF-8, types by small tags and map keys only once per message.
+	 * Used by {@link com.cardshifter.api.incoming.TransformerMessage#TRANSFORM_BYTE_COMPACT}
+	 */
+	public static final ByteFormat COMPACT = new CompactByteFormat();
+
+	/**
+	 * The fields of each class for this format, by the reflection that gathered them
+	 */
+	private final Map<ReflectionInterface, FieldsCache> fieldsCaches = new HashMap<ReflectionInterface, FieldsCache>();
+
+	/**
+	 * @param logger Used by the fields if they are gathered for the first time with this reflection
+	 * @param refl The reflection to gather the fields of classes with
+	 * @return The fields of each class written in this format, shared by all transformers that use the same reflection
+	 */
+	synchronized FieldsCache fieldsCache(LogInterface logger, ReflectionInterface refl) {
+		FieldsCache cache = fieldsCaches.get(refl);
+		if (cache == null) {
+			cache = new FieldsCache(logger, refl, this);
+			fieldsCaches.put(refl, cache);
+		}
+		return cache;
+	}
+
+	abstract void writeInt(DataOutputStream out, int value) throws IOException;
+
+	abstract int readInt(DataInputStream in) throws IOException;
+
+	/**
+	 * Write the number of bytes or elements that follow, which is never negative
+	 */
+	abstract void writeLength(DataOutputStream out, int length) throws IOException;
+
+	abstract int readLength(DataInputStream in) throws IOException;
+
+	/**
+	 * @return The number of bytes that {@link #writeLength(DataOutputStream, int)} writes for a length
+	 */
+	abstract int sizeOfLength(int length);
+
+	/**
+	 * Put a length in an array, in the same way as {@link #writeLength(DataOutputStream, int)} writes it
+	 */
+	abstract void putLength(byte[] buffer, int offset, int length);
+
+	/**
+	 * Read a length from an array that may not hold all of it yet
+	 *
+	 * @return The length, or -1 if the array does not hold all of the length
+	 */
+	abstract int peekLength(byte[] buffer, int offset, int available) throws IOException;
+
+	abstract void writeString(DataOutputStream out, String value) throws IOException;
+
+	abstract String readString(DataInputStream in) throws IOException;
+
+	/**
+	 * Write the type of a value whose type can not be known from the field that it is in
+	 */
+	abstract void writeType(DataOutputStream out, Class<?> type) throws IOException;
+
+	abstract Class<?> readType(DataInputStream in, ReflectionInterface refl) throws Exception;
+
+	/**
+	 * Write the key of a map
+	 *
+	 * @param written The keys that have already been written in the same message, and their indexes
+	 */
+	abstract void writeKey(DataOutputStream out, String key, Map<String, Integer> written) throws IOException;
+
+	/**
+	 * @param read The keys that have already been read in the same message
+	 */
+	abstract String readKey(DataInputStream in, List<String> read) throws IOException;
+
+}
@@ -1,11 +1,13 @@
 package com.cardshifter.api.serial;
 
-import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import com.cardshifter.api.CardshifterSerializationException;
 import com.cardshifter.api.LogInterface;
@@ -13,37 +15,88 @@ import com.cardshifter.api.LogInterface;
 import com.cardshifter.api.messages.Message;
 import com.cardshifter.api.messages.MessageTypeIdResolver;
 
+/**
+ * Sends and reads messages as bytes, in the {@link ByteFormat} that the connection has agreed on.
+ * <p>
+ * A transformer keeps one buffer for sending and one for reading, which are reused for every message,
+ * so a transformer should be used for one connection only. Messages can be sent and read from several threads,
+ * sending does not wait for a message to be read.
+ * The fields of each message class are gathered once per format and reflection, and shared by all transformers that use them.
+ */
 public class ByteTransformer implements CommunicationTransformer {
 
+    /**
+     * Receives the bytes of a message, which are only valid until the receiver returns
+     */
+    public interface FrameReceiver {
+        void receive(byte[] data, int offset, int length) throws IOException;
+    }
+
     private final LogInterface logger;
     private final ReflectionInterface refl;
+    private final ByteFormat format;
+    private final FieldsCache fields;
+
+    private final FrameOutput output = new FrameOutput();
+    private final Map<String, Integer> writtenKeys = new HashMap<String, Integer>();
+    private final FrameInput input = new FrameInput();
+    private final DataInputStream inputData = new DataInputStream(input);
+    private final List<String> readKeys = new ArrayList<String>();
+    private InputStream source;
+    private DataInputStream sourceData;
 
     public ByteTransformer(LogInterface logger, ReflectionInterface refl) {
+        this(logger, refl, ByteFormat.ORIGINAL);
+    }
+
+    /**
+     * @param format How values are written, which both ends of the connection must agree on, see {@link com.cardshifter.api.incoming.TransformerMessage}
+     */
+    public ByteTransformer(LogInterface logger, ReflectionInterface refl, ByteFormat format) {
         this.logger = logger;
         this.refl = refl;
+        this.format = format;
+        this.fields = format.fieldsCache(logger, refl);
     }
 
     public byte[] transform(Message message) throws CardshifterSerializationException {
-		FieldsCollection<Message> fields = FieldsCollection.gather(message, logger, refl);
-		fields = fields.orderByName().putFirst("command");
-		return fields.serialize(message);
+		synchronized (output) {
+			write(message);
+			return output.toByteArray();
+		}
+	}
+
+	/**
+	 * Serialize a message and give the bytes to a receiver, without copying them out of the buffer of this transformer
+	 */
+	public void transform(Message message, FrameReceiver receiver) throws CardshifterSerializationException {
+		synchronized (output) {
+			write(message);
+			try {
+				receiver.receive(output.array(), 0, output.length());
+			} catch (IOException e) {
+				throw new CardshifterSerializationException(e);
+			}
+		}
+	}
+
+	private void write(Message message) throws CardshifterSerializationException {
+		output.clear();
+		writtenKeys.clear();
+		fields.message(message.getClass()).write(message, output, writtenKeys);
 	}
 	
 	@Override
 	public void send(Message message, OutputStream out) throws CardshifterSerializationException {
-		// 1. find Fields to serialize
-		// 2. order Fields, pre-process
-		// 3. serialize
 		logger.info("byte send " + message);
-		FieldsCollection<Message> fields = FieldsCollection.gather(message, logger, refl);
-		fields = fields.orderByName().putFirst("command");
-		byte[] b = fields.serialize(message);
-		logger.info("byte send " + Arrays.toString(b));
-        try {
-            out.write(b);
-        } catch (IOException e) {
-            throw new CardshifterSerializationException(e);
-        }
+		synchronized (output) {
+			write(message);
+			try {
+				output.writeTo(out);
+			} catch (IOException e) {
+				throw new CardshifterSerializationException(e);
+			}
+		}
     }
 
 	@Override
@@ -61,49 +114,74 @@ public class ByteTransformer implements CommunicationTransformer {
 	}
 
 	public Message readOnce(InputStream in) throws CardshifterSerializationException {
-        try {
-            DataInputStream data = new DataInputStream(in);
-            int numBytes = data.readInt();
-            logger.info("bytes received " + numBytes);
-            byte[] actualData = new byte[numBytes];
-
-            int read = 0;
-            while (read < numBytes) {
-                read += data.read(actualData, read, numBytes - read);
+        synchronized (input) {
+            try {
+                if (in != source) {
+                    source = in;
+                    sourceData = new DataInputStream(in);
+                }
+                int numBytes = format.readLength(sourceData);
+                logger.info("bytes received " + numBytes);
+                input.fill(sourceData, numBytes);
+                return readFrame();
+            } catch (IOException ex) {
+                throw new CardshifterSerializationException(ex);
             }
+        }
+	}
 
-            logger.info("bytes data received " + Arrays.toString(actualData));
-            data = new DataInputStream(new ByteArrayInputStream(actualData));
-
-            int typeLength = data.readInt();
-            String str = readString(data, typeLength);
-            System.out.println(str);
-            Class<?> type = MessageTypeIdResolver.get(str);
-            Message message;
+	/**
+	 * Read a message from an array that holds the message, starting with its length, without copying the array
+	 */
+	public Message readOnce(byte[] data, int offset, int length) throws CardshifterSerializationException {
+        synchronized (input) {
             try {
-                message = (Message) refl.create(type);
-            } catch (Exception e) {
-                throw new CardshifterSerializationException(e);
+                input.use(data, offset, length);
+                int numBytes = format.readLength(inputData);
+                if (numBytes > input.available()) {
+                    throw new IOException("Message of " + numBytes + " bytes is longer than the " + input.available() + " bytes received");
+                }
+                return readFrame();
+            } catch (IOException ex) {
+                throw new CardshifterSerializationException(ex);
+            } finally {
+                input.release();
             }
-            FieldsCollection<Message> fields = FieldsCollection.gather(message, logger, refl);
-            fields = fields.orderByName().putFirst("command").skipFirst();
-            fields.read(message, data);
-            return message;
-        } catch (IOException ex) {
-            throw new CardshifterSerializationException(ex);
         }
 	}
 
-	private String readString(DataInputStream data, int numBytes) throws IOException {
-		StringBuilder str = new StringBuilder(numBytes);
-		for (int i = 0; i < numBytes; i++) {
-			str.append(data.readChar());
+	/**
+	 * Find how many bytes the next message takes, for reading messages as their bytes arrive
+	 *
+	 * @param data The bytes that have arrived, starting with the length of the message
+	 * @return The number of bytes of the message including its length, or -1 if not enough bytes have arrived to know
+	 */
+	public int frameLength(byte[] data, int offset, int available) throws CardshifterSerializationException {
+		try {
+			int length = format.peekLength(data, offset, available);
+			return length < 0 ? -1 : format.sizeOfLength(length) + length;
+		} catch (IOException ex) {
+			throw new CardshifterSerializationException(ex);
 		}
-		return str.toString();
+	}
 
-/*		byte[] bytes = new byte[numBytes * 2];
-		data.read(bytes);
-		return new String(bytes, StandardCharsets.UTF_16);*/
+	private Message readFrame() throws IOException, CardshifterSerializationException {
+        String str = format.readString(inputData);
+        Class<?> type = MessageTypeIdResolver.get(str);
+        Message message;
+        try {
+            message = (Message) refl.create(type);
+        } catch (Exception e) {
+            throw new CardshifterSerializationException(e);
+        }
+        readKeys.clear();
+        fields.received(type).read(message, inputData, readKeys);
+        return message;
+	}
+
+	@Override
+	public String toString() {
+		return "ByteTransformer [format=" + format + "]";
 	}
 
 }
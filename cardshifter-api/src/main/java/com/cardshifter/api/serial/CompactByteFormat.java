@@ -0,0 +1,181 @@
+package com.cardshifter.api.serial;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.cardshifter.api.config.DeckConfig;
+
+/**
+ * A smaller byte format for clients that ask for it.
+ * <p>
+ * Ints are written as zig-zag varints, so that small numbers use a single byte, and lengths as plain varints.
+ * Strings are written as UTF-8. The types that are sent the most are written as a tag from {@link #TAGGED}, other types by class name.
+ * A map key is written in full the first time it is used in a message, and after that as its index.
+ */
+class CompactByteFormat extends ByteFormat {
+
+	/**
+	 * Types that are written as their index. New types may only be added at the end, as the index is part of the format.
+	 * Index 0 means that the class name follows.
+	 */
+	private static final Class<?>[] TAGGED = { null, Integer.class, String.class, Boolean.class,
+		int[].class, String[].class, boolean[].class, DeckConfig.class };
+
+	private static final int MAX_VARINT_BYTES = 5;
+
+	@Override
+	void writeInt(DataOutputStream out, int value) throws IOException {
+		writeVarint(out, (value << 1) ^ (value >> 31));
+	}
+
+	@Override
+	int readInt(DataInputStream in) throws IOException {
+		int value = readVarint(in);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	@Override
+	void writeLength(DataOutputStream out, int length) throws IOException {
+		writeVarint(out, length);
+	}
+
+	@Override
+	int readLength(DataInputStream in) throws IOException {
+		int length = readVarint(in);
+		if (length < 0) {
+			throw new IOException("Negative length: " + length);
+		}
+		return length;
+	}
+
+	@Override
+	int sizeOfLength(int length) {
+		int size = 1;
+		while ((length & ~0x7F) != 0) {
+			length >>>= 7;
+			size++;
+		}
+		return size;
+	}
+
+	@Override
+	void putLength(byte[] buffer, int offset, int length) {
+		while ((length & ~0x7F) != 0) {
+			buffer[offset++] = (byte) ((length & 0x7F) | 0x80);
+			length >>>= 7;
+		}
+		buffer[offset] = (byte) length;
+	}
+
+	@Override
+	int peekLength(byte[] buffer, int offset, int available) throws IOException {
+		int length = 0;
+		for (int i = 0; i < MAX_VARINT_BYTES; i++) {
+			if (i >= available) {
+				return -1;
+			}
+			byte b = buffer[offset + i];
+			length |= (b & 0x7F) << (7 * i);
+			if ((b & 0x80) == 0) {
+				if (length < 0 || sizeOfLength(length) != i + 1) {
+					throw new IOException("Malformed length: " + length);
+				}
+				return length;
+			}
+		}
+		throw new IOException("Varint is longer than " + MAX_VARINT_BYTES + " bytes");
+	}
+
+	@Override
+	void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes("UTF-8");
+		writeVarint(out, bytes.length);
+		out.write(bytes);
+	}
+
+	@Override
+	String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[readLength(in)];
+		in.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+	@Override
+	void writeType(DataOutputStream out, Class<?> type) throws IOException {
+		for (int i = 1; i < TAGGED.length; i++) {
+			if (TAGGED[i] == type) {
+				writeVarint(out, i);
+				return;
+			}
+		}
+		writeVarint(out, 0);
+		writeString(out, type.getName());
+	}
+
+	@Override
+	Class<?> readType(DataInputStream in, ReflectionInterface refl) throws Exception {
+		int tag = readVarint(in);
+		if (tag == 0) {
+			return refl.forName(readString(in));
+		}
+		if (tag < 0 || tag >= TAGGED.length) {
+			throw new IOException("Unknown type tag: " + tag);
+		}
+		return TAGGED[tag];
+	}
+
+	@Override
+	void writeKey(DataOutputStream out, String key, Map<String, Integer> written) throws IOException {
+		Integer index = written.get(key);
+		if (index != null) {
+			writeVarint(out, index + 1);
+			return;
+		}
+		written.put(key, written.size());
+		writeVarint(out, 0);
+		writeString(out, key);
+	}
+
+	@Override
+	String readKey(DataInputStream in, List<String> read) throws IOException {
+		int index = readVarint(in);
+		if (index == 0) {
+			String key = readString(in);
+			read.add(key);
+			return key;
+		}
+		if (index < 0 || index > read.size()) {
+			throw new IOException("Unknown key index: " + index);
+		}
+		return read.get(index - 1);
+	}
+
+	private static void writeVarint(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarint(DataInputStream in) throws IOException {
+		int value = 0;
+		for (int i = 0; i < MAX_VARINT_BYTES; i++) {
+			byte b = in.readByte();
+			value |= (b & 0x7F) << (7 * i);
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Varint is longer than " + MAX_VARINT_BYTES + " bytes");
+	}
+
+	@Override
+	public String toString() {
+		return "COMPACT";
+	}
+
+}
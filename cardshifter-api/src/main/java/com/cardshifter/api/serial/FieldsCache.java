@@ -0,0 +1,79 @@
+package com.cardshifter.api.serial;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.cardshifter.api.LogInterface;
+
+/**
+ * Remembers the {@link FieldsCollection} of each class, so that the fields of a class are only gathered and ordered once.
+ * There is one for each format and reflection, see {@link ByteFormat#fieldsCache(LogInterface, ReflectionInterface)}.
+ */
+class FieldsCache {
+
+    private final LogInterface logger;
+    private final ReflectionInterface refl;
+    private final ByteFormat format;
+    private final Map<Class<?>, FieldsCollection<Object>> nested = new HashMap<Class<?>, FieldsCollection<Object>>();
+    private final Map<Class<?>, FieldsCollection<Object>> messages = new HashMap<Class<?>, FieldsCollection<Object>>();
+    private final Map<Class<?>, FieldsCollection<Object>> received = new HashMap<Class<?>, FieldsCollection<Object>>();
+
+    FieldsCache(LogInterface logger, ReflectionInterface refl, ByteFormat format) {
+        this.logger = logger;
+        this.refl = refl;
+        this.format = format;
+    }
+
+    /**
+     * @param type The class of an object inside a message
+     * @return The fields of the class, ordered by name
+     */
+    synchronized FieldsCollection<Object> nested(Class<?> type) {
+        FieldsCollection<Object> fields = nested.get(type);
+        if (fields == null) {
+            logger.info("Using recursive serialization for " + type);
+            fields = FieldsCollection.<Object>gather(type, this).orderByName();
+            nested.put(type, fields);
+        }
+        return fields;
+    }
+
+    /**
+     * @param type The class of a message
+     * @return The fields of the message, ordered by name with the command first
+     */
+    synchronized FieldsCollection<Object> message(Class<?> type) {
+        FieldsCollection<Object> fields = messages.get(type);
+        if (fields == null) {
+            fields = FieldsCollection.<Object>gather(type, this).orderByName().putFirst("command");
+            messages.put(type, fields);
+        }
+        return fields;
+    }
+
+    /**
+     * @param type The class of a message
+     * @return The fields of the message to read after the command has been read
+     */
+    synchronized FieldsCollection<Object> received(Class<?> type) {
+        FieldsCollection<Object> fields = received.get(type);
+        if (fields == null) {
+            fields = message(type).skipFirst();
+            received.put(type, fields);
+        }
+        return fields;
+    }
+
+    LogInterface getLogger() {
+        return logger;
+    }
+
+    ReflectionInterface getReflection() {
+        return refl;
+    }
+
+    ByteFormat getFormat() {
+        return format;
+    }
+
+}
@@ -1,8 +1,6 @@
 package com.cardshifter.api.serial;
 
-import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.*;
 
@@ -10,26 +8,48 @@ import com.cardshifter.api.CardshifterSerializationException;
 import com.cardshifter.api.LogInterface;
 import com.cardshifter.api.config.PlayerConfig;
 
+/**
+ * The fields of a class, in the order that they are serialized in.
+ * <p>
+ * Everything that only depends on the class, such as the type of each field, is found when the collection is created,
+ * and the fields of nested objects are looked up in a {@link FieldsCache}, so that a collection can be reused for every object of its class.
+ */
 public class FieldsCollection<T> {
 
 	private final List<ReflField> fields;
+	private final PlannedField[] planned;
     private final LogInterface logger;
     private final ReflectionInterface refl;
+    private final FieldsCache cache;
+    private final ByteFormat format;
 
     public FieldsCollection(List<ReflField> fields, LogInterface logger, ReflectionInterface refl) {
+        this(fields, new FieldsCache(logger, refl, ByteFormat.ORIGINAL));
+    }
+
+    FieldsCollection(List<ReflField> fields, FieldsCache cache) {
 		this.fields = Collections.unmodifiableList(fields);
-        this.logger = logger;
-        this.refl = refl;
+        this.logger = cache.getLogger();
+        this.refl = cache.getReflection();
+        this.cache = cache;
+        this.format = cache.getFormat();
+        this.planned = new PlannedField[fields.size()];
+        for (int i = 0; i < planned.length; i++) {
+            planned[i] = new PlannedField(fields.get(i));
+        }
 	}
 
 	public static <T> FieldsCollection<T> gather(T object, LogInterface logger, ReflectionInterface refl) {
+		return gather(object.getClass(), new FieldsCache(logger, refl, ByteFormat.ORIGINAL));
+	}
+
+	static <T> FieldsCollection<T> gather(Class<?> clazz, FieldsCache cache) {
 		List<ReflField> fields = new ArrayList<ReflField>();
-		Class<?> clazz = object.getClass();
 		while (clazz != null) {
-			addFields(refl, fields, clazz);
+			addFields(cache.getReflection(), fields, clazz);
 			clazz = clazz.getSuperclass();
 		}
-		return new FieldsCollection<T>(fields, logger, refl);
+		return new FieldsCollection<T>(fields, cache);
 	}
 
 	private static void addFields(ReflectionInterface refl, List<ReflField> fields, Class<?> clazz) {
@@ -39,50 +59,74 @@ public class FieldsCollection<T> {
 			}
 		}
 	}
+
+	/**
+	 * A field together with what is needed to read and write it, found once
+	 */
+	private static class PlannedField {
+		private final ReflField field;
+		private final Class<?> type;
+		private final Class<?>[] generics;
+
+		PlannedField(ReflField field) {
+			field.setAccessible(true);
+			this.field = field;
+			this.type = field.getType();
+			this.generics = type == Map.class ? new Class<?>[] { field.getGenericType(0), field.getGenericType(1) } : null;
+		}
+	}
 	
 	public byte[] serialize(T message) throws CardshifterSerializationException {
-		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		DataOutputStream out = new DataOutputStream(baos);
+		FrameOutput out = new FrameOutput();
+		write(message, out, new HashMap<String, Integer>());
+		return out.toByteArray();
+	}
+
+	/**
+	 * Write an object after its length, which is filled in when the object has been written
+	 *
+	 * @param keys The map keys that have been written in the same message
+	 */
+	void write(Object message, FrameOutput out, Map<String, Integer> keys) throws CardshifterSerializationException {
 		try {
-			for (ReflField field : fields) {
-				serialize(field, message, out);
+			int frame = out.beginFrame(format);
+			for (PlannedField field : planned) {
+				serialize(field.type, field.field.get(message), out, field.generics, keys);
 			}
+			out.endFrame(frame, format);
 		} catch (CardshifterSerializationException e) {
             throw e;
         } catch (Exception e) {
 			throw new CardshifterSerializationException(e);
 		}
-		byte[] data = baos.toByteArray();
-		
-		baos = new ByteArrayOutputStream();
-		out = new DataOutputStream(baos);
-        try {
-            out.writeInt(data.length);
-            baos.write(data);
-        } catch (IOException e) {
-            throw new CardshifterSerializationException(e);
-        }
-		return baos.toByteArray();
 	}
 
-	private Object deserialize(Class<?> type, DataInputStream data, ReflField field) throws IOException, CardshifterSerializationException {
+	private Object deserialize(Class<?> type, DataInputStream data, Class<?>[] generics, List<String> keys) throws IOException, CardshifterSerializationException {
 		if (type == int.class || type == Integer.class) {
-			int value = data.readInt();
+			int value = format.readInt(data);
 			return value;
 		}
 		else if (type == String[].class) {
-			int count = data.readInt();
+			int count = format.readLength(data);
 			String[] str = new String[count];
 			for (int i = 0; i < str.length; i++) {
-				str[i] = (String) deserialize(String.class, data, null);
+				str[i] = (String) deserialize(String.class, data, null, keys);
 			}
 			return str;
 		}
 		else if (type == int[].class) {
-			int count = data.readInt();
+			int count = format.readLength(data);
 			int[] array = new int[count];
 			for (int i = 0; i < array.length; i++) {
-				array[i] = (Integer) deserialize(Integer.class, data, null);
+				array[i] = (Integer) deserialize(Integer.class, data, null, keys);
+			}
+			return array;
+		}
+		else if (type == boolean[].class) {
+			int count = format.readLength(data);
+			boolean[] array = new boolean[count];
+			for (int i = 0; i < array.length; i++) {
+				array[i] = (Boolean) deserialize(boolean.class, data, null, keys);
 			}
 			return array;
 		}
@@ -99,40 +143,34 @@ public class FieldsCollection<T> {
 			return boolValue == 1;
 		}
 		else if (type == String.class) {
-			int length = data.readInt();
-			StringBuilder str = new StringBuilder(length);
-			for (int i = 0; i < length; i++) {
-				str.append(data.readChar());
-			}
-			return str.toString();
+			return format.readString(data);
 		}
 		else if (refl.isEnum(type)) {
 			Object[] values = type.getEnumConstants();
-			int ordinal = data.readInt();
+			int ordinal = format.readInt(data);
 			return values[ordinal];
 		}
 		else if (type == Map.class) {
-			if (field == null) {
+			if (generics == null) {
 				throw new NullPointerException("Field cannot be null when deserializing Map");
 			}
 
-            Class<?> keyClass = field.getGenericType(0);
-            Class<?> valueClass = field.getGenericType(1);
+            Class<?> keyClass = generics[0];
+            Class<?> valueClass = generics[1];
 
 			Map<Object, Object> map = new HashMap<Object, Object>();
-			int size = data.readInt();
+			int size = format.readLength(data);
 			for (int i = 0; i < size; i++) {
-				Object key = deserialize(keyClass, data, null);
-				Object value = deserialize(valueClass, data, null);
+				Object key = keyClass == String.class ? format.readKey(data, keys) : deserialize(keyClass, data, null, keys);
+				Object value = deserialize(valueClass, data, null, keys);
 				map.put(key, value);
 			}
 			return map;
 		}
 		else if (typeNameRequired(type)) {
-			String clazzName = (String) deserialize(String.class, data, null);
 			try {
-				Class<?> clazz = refl.forName(clazzName);
-				Object obj = deserialize(clazz, data, field);
+				Class<?> clazz = format.readType(data, refl);
+				Object obj = deserialize(clazz, data, generics, keys);
 //				logger.debug("Deserialized object: " + obj);
 				return obj;
 			} catch (Exception e) {
@@ -140,13 +178,11 @@ public class FieldsCollection<T> {
 			}
 		}
 		else {
-			logger.info("Using recursive deserialization for " + type);
 			try {
                 Object obj = refl.create(type);
-				FieldsCollection<Object> fields = FieldsCollection.gather(obj, logger, refl);
-				fields = fields.orderByName();
-				data.readInt(); // length of upcoming data, ignored on recursive deserialization
-				fields.read(obj, data);
+				FieldsCollection<Object> fields = cache.nested(type);
+				format.readLength(data); // length of upcoming data, ignored on recursive deserialization
+				fields.read(obj, data, keys);
 				return obj;
 			} catch (Exception e) {
 				throw new CardshifterSerializationException(e);
@@ -154,24 +190,13 @@ public class FieldsCollection<T> {
 		}
 	}
 	
-	private void deserialize(ReflField field, Object message, DataInputStream data) throws Exception {
-//		logger.debug("read field " + field + " for " + message);
-		field.setAccessible(true);
-		Class<?> type = field.getType();
-		field.set(message, deserialize(type, data, field));
-	}
-
-	private void serialize(Class<?> type, Object value, DataOutputStream out, ReflField field)
+	private void serialize(Class<?> type, Object value, FrameOutput out, Class<?>[] generics, Map<String, Integer> keys)
 			throws IOException, CardshifterSerializationException, IllegalArgumentException, IllegalAccessException {
 		if (type == int.class || type == Integer.class) {
-			out.writeInt((Integer) value);
+			format.writeInt(out, (Integer) value);
 		}
 		else if (type == String.class) {
-			String str = (String) value;
-			out.writeInt(str.length());
-            for (int i = 0; i < str.length(); i++) {
-                out.writeChar(str.charAt(i));
-            }
+			format.writeString(out, (String) value);
 		}
 		else if (type == Boolean.class) {
 			Boolean bool = (Boolean) value;
@@ -185,48 +210,55 @@ public class FieldsCollection<T> {
 		}
 		else if (type == String[].class) {
 			String[] arr = (String[]) value;
-			out.writeInt(arr.length);
+			format.writeLength(out, arr.length);
 			for (int i = 0; i < arr.length; i++) {
-				serialize(String.class, arr[i], out, null);
+				serialize(String.class, arr[i], out, null, keys);
 			}
 		}
 		else if (type == int[].class) {
 			int[] array = (int[]) value;
-			out.writeInt(array.length);
+			format.writeLength(out, array.length);
 			for (int i = 0; i < array.length; i++) {
-				serialize(int.class, array[i], out, null);
+				serialize(int.class, array[i], out, null, keys);
+			}
+		}
+		else if (type == boolean[].class) {
+			boolean[] array = (boolean[]) value;
+			format.writeLength(out, array.length);
+			for (int i = 0; i < array.length; i++) {
+				serialize(boolean.class, array[i], out, null, keys);
 			}
 		}
 		else if (refl.isEnum(type)) {
 			Enum<?> enumValue = (Enum<?>) value;
-			out.writeInt(enumValue.ordinal());
+			format.writeInt(out, enumValue.ordinal());
 		}
 		else if (type == Map.class) {
-			if (field == null) {
+			if (generics == null) {
 				throw new NullPointerException("Field cannot be null when serializing Map");
 			}
 
-			Class<?> keyClass = field.getGenericType(0);
-			Class<?> valueClass = field.getGenericType(1);
+			Class<?> keyClass = generics[0];
+			Class<?> valueClass = generics[1];
 
 			Map<Object, Object> map = (Map<Object, Object>) value;
-			out.writeInt(map.size());
+			format.writeLength(out, map.size());
 			for (Map.Entry<Object, Object> ee : map.entrySet()) {
-				serialize(keyClass, ee.getKey(), out, null);
-				serialize(valueClass, ee.getValue(), out, null);
+				if (keyClass == String.class) {
+					format.writeKey(out, (String) ee.getKey(), keys);
+				}
+				else {
+					serialize(keyClass, ee.getKey(), out, null, keys);
+				}
+				serialize(valueClass, ee.getValue(), out, null, keys);
 			}
 		}
 		else if (typeNameRequired(type)) {
-			String clazzName = (String) value.getClass().getName();
-			serialize(String.class, clazzName, out, null);
-			serialize(value.getClass(), value, out, null);
+			format.writeType(out, value.getClass());
+			serialize(value.getClass(), value, out, null, keys);
 		}
 		else {
-			logger.info("Using recursive serialization for " + type);
-			FieldsCollection<Object> fields = FieldsCollection.gather(value, logger, refl);
-			fields = fields.orderByName();
-			byte[] b = fields.serialize(value);
-			out.write(b);
+			cache.nested(value.getClass()).write(value, out, keys);
 		}
 	}
 
@@ -235,13 +267,6 @@ public class FieldsCollection<T> {
         return type == Object.class || type == PlayerConfig.class;
     }
 
-    private void serialize(ReflField field, T obj, DataOutputStream out) throws Exception {
-		field.setAccessible(true);
-		Class<?> type = field.getType();
-		Object value = field.get(obj);
-		serialize(type, value, out, field);
-	}
-
 	public FieldsCollection<T> orderByName() {
 		List<ReflField> myFields = new ArrayList<ReflField>(fields);
 		Collections.sort(myFields, new Comparator<ReflField>() {
@@ -250,7 +275,7 @@ public class FieldsCollection<T> {
 				return o1.getName().compareTo(o2.getName());
 			}
 		});
-		return new FieldsCollection<T>(myFields, logger, refl);
+		return new FieldsCollection<T>(myFields, cache);
 	}
 
 	public FieldsCollection<T> putFirst(String fieldName) {
@@ -259,16 +284,23 @@ public class FieldsCollection<T> {
 			if (field.getName().equals(fieldName)) {
 				myFields.remove(field);
 				myFields.add(0, field);
-				return new FieldsCollection<T>(myFields, logger, refl);
+				return new FieldsCollection<T>(myFields, cache);
 			}
 		}
 		throw new IllegalArgumentException("Field name not found: " + fieldName);
 	}
 
 	public void read(Object message, DataInputStream data) throws CardshifterSerializationException {
+		read(message, data, new ArrayList<String>());
+	}
+
+	/**
+	 * @param keys The map keys that have been read in the same message
+	 */
+	void read(Object message, DataInputStream data, List<String> keys) throws CardshifterSerializationException {
 		try {
-			for (ReflField field : fields) {
-				deserialize(field, message, data);
+			for (PlannedField field : planned) {
+				field.field.set(message, deserialize(field.type, data, field.generics, keys));
 			}
 		}
 		catch (Exception ex) {
@@ -279,7 +311,7 @@ public class FieldsCollection<T> {
 	public FieldsCollection<T> skipFirst() {
 		List<ReflField> myFields = new ArrayList<ReflField>(fields);
 		myFields.remove(0);
-		return new FieldsCollection<T>(myFields, logger, refl);
+		return new FieldsCollection<T>(myFields, cache);
 	}
 
 }
@@ -0,0 +1,55 @@
+package com.cardshifter.api.serial;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+/**
+ * The bytes of the message that is being read, in a buffer that is reused for each message
+ */
+class FrameInput extends ByteArrayInputStream {
+
+	/**
+	 * The largest buffer that is kept between messages, a larger buffer is dropped after the message that needed it
+	 */
+	private static final int RETAINED_CAPACITY = 64 * 1024;
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private byte[] owned = new byte[INITIAL_CAPACITY];
+
+	FrameInput() {
+		super(new byte[0]);
+	}
+
+	/**
+	 * Read the bytes of a message from a stream
+	 *
+	 * @param in The stream to read from
+	 * @param length The number of bytes in the message
+	 */
+	void fill(DataInputStream in, int length) throws IOException {
+		if (owned.length < length || (owned.length > RETAINED_CAPACITY && length <= RETAINED_CAPACITY)) {
+			owned = new byte[Math.max(length, INITIAL_CAPACITY)];
+		}
+		in.readFully(owned, 0, length);
+		use(owned, 0, length);
+	}
+
+	/**
+	 * Read the bytes of a message from an array, without copying them
+	 */
+	void use(byte[] data, int offset, int length) {
+		buf = data;
+		pos = offset;
+		count = offset + length;
+		mark = offset;
+	}
+
+	/**
+	 * Stop referring to an array that was given to {@link #use(byte[], int, int)}
+	 */
+	void release() {
+		use(owned, 0, 0);
+	}
+
+}
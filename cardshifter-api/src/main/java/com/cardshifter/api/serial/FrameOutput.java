@@ -0,0 +1,110 @@
+package com.cardshifter.api.serial;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A buffer that messages are written to, which is reused for each message.
+ * <p>
+ * The length of a message or a nested object is written in front of it, by reserving room for the length and filling it in
+ * when the length is known, so that the bytes do not have to be copied to another buffer.
+ */
+class FrameOutput extends DataOutputStream {
+
+	/**
+	 * The largest buffer that is kept between messages, a larger buffer is dropped after the message that needed it
+	 */
+	private static final int RETAINED_CAPACITY = 64 * 1024;
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final Buffer buffer;
+
+	FrameOutput() {
+		this(new Buffer());
+	}
+
+	private FrameOutput(Buffer buffer) {
+		super(buffer);
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Reserve room for the length of a frame
+	 *
+	 * @return The position of the frame, to pass to {@link #endFrame(int, ByteFormat)}
+	 */
+	int beginFrame(ByteFormat format) throws IOException {
+		int mark = buffer.size();
+		for (int i = format.sizeOfLength(0); i > 0; i--) {
+			write(0);
+		}
+		return mark;
+	}
+
+	/**
+	 * Fill in the length of a frame, which is everything written since it began
+	 */
+	void endFrame(int mark, ByteFormat format) {
+		int reserved = format.sizeOfLength(0);
+		int start = mark + reserved;
+		int length = buffer.size() - start;
+		int needed = format.sizeOfLength(length);
+		if (needed > reserved) {
+			buffer.shift(start, needed - reserved);
+		}
+		format.putLength(buffer.array(), mark, length);
+	}
+
+	/**
+	 * Forget what has been written, to start on a new message
+	 */
+	void clear() {
+		buffer.clear();
+	}
+
+	byte[] array() {
+		return buffer.array();
+	}
+
+	int length() {
+		return buffer.size();
+	}
+
+	byte[] toByteArray() {
+		return buffer.toByteArray();
+	}
+
+	void writeTo(OutputStream out) throws IOException {
+		buffer.writeTo(out);
+	}
+
+	private static class Buffer extends ByteArrayOutputStream {
+
+		Buffer() {
+			super(INITIAL_CAPACITY);
+		}
+
+		byte[] array() {
+			return buf;
+		}
+
+		void shift(int from, int distance) {
+			if (count + distance > buf.length) {
+				buf = Arrays.copyOf(buf, Math.max(count + distance, buf.length * 2));
+			}
+			System.arraycopy(buf, from, buf, from + distance, count - from);
+			count += distance;
+		}
+
+		void clear() {
+			if (buf.length > RETAINED_CAPACITY) {
+				buf = new byte[INITIAL_CAPACITY];
+			}
+			count = 0;
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.cardshifter.api.serial;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The byte format that the byte transformer has always used, kept for clients that do not know any other format
+ */
+class OriginalByteFormat extends ByteFormat {
+
+	@Override
+	void writeInt(DataOutputStream out, int value) throws IOException {
+		out.writeInt(value);
+	}
+
+	@Override
+	int readInt(DataInputStream in) throws IOException {
+		return in.readInt();
+	}
+
+	@Override
+	void writeLength(DataOutputStream out, int length) throws IOException {
+		out.writeInt(length);
+	}
+
+	@Override
+	int readLength(DataInputStream in) throws IOException {
+		return in.readInt();
+	}
+
+	@Override
+	int sizeOfLength(int length) {
+		return 4;
+	}
+
+	@Override
+	void putLength(byte[] buffer, int offset, int length) {
+		buffer[offset] = (byte) (length >>> 24);
+		buffer[offset + 1] = (byte) (length >>> 16);
+		buffer[offset + 2] = (byte) (length >>> 8);
+		buffer[offset + 3] = (byte) length;
+	}
+
+	@Override
+	int peekLength(byte[] buffer, int offset, int available) throws IOException {
+		if (available < 4) {
+			return -1;
+		}
+		int length = ((buffer[offset] & 0xFF) << 24) | ((buffer[offset + 1] & 0xFF) << 16)
+				| ((buffer[offset + 2] & 0xFF) << 8) | (buffer[offset + 3] & 0xFF);
+		if (length < 0) {
+			throw new IOException("Negative length: " + length);
+		}
+		return length;
+	}
+
+	@Override
+	void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeInt(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			out.writeChar(value.charAt(i));
+		}
+	}
+
+	@Override
+	String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		StringBuilder str = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			str.append(in.readChar());
+		}
+		return str.toString();
+	}
+
+	@Override
+	void writeType(DataOutputStream out, Class<?> type) throws IOException {
+		writeString(out, type.getName());
+	}
+
+	@Override
+	Class<?> readType(DataInputStream in, ReflectionInterface refl) throws Exception {
+		return refl.forName(readString(in));
+	}
+
+	@Override
+	void writeKey(DataOutputStream out, String key, Map<String, Integer> written) throws IOException {
+		writeString(out, key);
+	}
+
+	@Override
+	String readKey(DataInputStream in, List<String> read) throws IOException {
+		return readString(in);
+	}
+
+	@Override
+	public String toString() {
+		return "ORIGINAL";
+	}
+
+}
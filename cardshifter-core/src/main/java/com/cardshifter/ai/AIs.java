@@ -12,6 +12,9 @@ import net.zomis.cardshifter.ecs.usage.CyborgChroniclesGame;
 import com.cardshifter.ai.phrancis.AttackAnalyze;
 import com.cardshifter.modapi.actions.ECSAction;
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.PlayerComponent;
+import com.cardshifter.modapi.players.Players;
+import com.cardshifter.modapi.resources.ResourceRetriever;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -21,6 +24,7 @@ import java.util.function.BiConsumer;
 public class AIs {
 	
 	private static FScorer<Entity, ECSAction> playActionScorer = new PredicateScorer<>(action -> action.getName().equals(CyborgChroniclesGame.PLAY_ACTION));
+	private static final ResourceRetriever health = ResourceRetriever.forResource(CyborgChroniclesGame.CyborgChroniclesResources.HEALTH);
 
 	public static ScoreConfigFactory<Entity, ECSAction> loser() {
 		ScoreConfigFactory<Entity, ECSAction> config = new ScoreConfigFactory<>();
@@ -56,6 +60,25 @@ public class AIs {
 		return config;
 	}
 
+	/**
+	 * Evaluate a game for a player by how much of the total health of all the players that the player has.
+	 * A player that has won gets 1 and a player that has lost gets 0.
+	 * 
+	 * @param player The player to evaluate the game for
+	 * @return A value between 0 and 1, higher is better for the player
+	 */
+	public static double healthShare(Entity player) {
+		PlayerComponent playerData = player.getComponent(PlayerComponent.class);
+		if (playerData.isEliminated()) {
+			return Boolean.TRUE.equals(playerData.getWinnerDeclaration()) ? 1 : 0;
+		}
+		int total = Players.getPlayersInGame(player.getGame()).stream().mapToInt(health::getFor).sum();
+		if (total <= 0) {
+			return 0.5;
+		}
+		return (double) health.getFor(player) / total;
+	}
+
 	public static void mediumDeck(Entity entity, ConfigComponent config) {
 		DeckConfig deck = config.getConfig(DeckConfig.class);
 		if (!cardExists(deck, "spareparts")) {
@@ -0,0 +1,361 @@
+package com.cardshifter.ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.ToDoubleFunction;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import net.zomis.cardshifter.ecs.config.ConfigComponent;
+
+import com.cardshifter.modapi.actions.Actions;
+import com.cardshifter.modapi.actions.ECSAction;
+import com.cardshifter.modapi.actions.TargetSet;
+import com.cardshifter.modapi.ai.CardshifterAI;
+import com.cardshifter.modapi.base.ComponentRetriever;
+import com.cardshifter.modapi.base.ECSGame;
+import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.phase.PhaseController;
+
+/**
+ * AI that plays ahead on forks of the game using Monte Carlo Tree Search.
+ * <p>
+ * Each worker on a ForkJoin pool searches its own tree, starting from its own fork of the game.
+ * When deciding within a time budget, such as on an {@link com.cardshifter.modapi.ai.AIComputePool}, a single tree is searched
+ * on the calling thread instead, as the threads of the compute pool are already shared between all AIs.
+ * Random playouts that do not reach the end of the game are judged by an evaluation function.
+ * When the budget of iterations or time is used up, the visits of the moves at the roots are added together
+ * and the move with the most visits is chosen.
+ */
+public class MonteCarloAI implements CardshifterAI {
+
+	private static final Logger logger = LogManager.getLogger(MonteCarloAI.class);
+
+	private static final double EXPLORATION = Math.sqrt(2);
+	private static final int[] NO_TARGETS = new int[0];
+	/**
+	 * The share of a time budget that is used for searching, the rest is left for forking the game and choosing the move
+	 */
+	private static final double BUDGET_SEARCH_SHARE = 0.9;
+
+	private final Random random = new Random();
+	private final ToDoubleFunction<Entity> evaluation;
+	private final BiConsumer<Entity, ConfigComponent> entityConfigurer;
+	private final int iterations;
+	private final long timeLimit;
+	private final int rolloutDepth;
+	private final ForkJoinPool pool;
+
+	/**
+	 * @param evaluation How good the state of a game is for a player, from 0 for a lost game to 1 for a won game
+	 * @param configuration How to configure the entity of this AI, such as choosing a deck
+	 * @param iterations Maximum number of iterations to search, in total for all workers
+	 * @param timeLimit Maximum number of milliseconds to search
+	 * @param rolloutDepth Maximum number of random actions to perform in a playout before evaluating the game
+	 * @param pool The pool to run the search on when deciding without a time budget, one worker is used for each level of parallelism of the pool
+	 */
+	public MonteCarloAI(ToDoubleFunction<Entity> evaluation, BiConsumer<Entity, ConfigComponent> configuration,
+			int iterations, long timeLimit, int rolloutDepth, ForkJoinPool pool) {
+		this.evaluation = evaluation;
+		this.entityConfigurer = configuration;
+		this.iterations = iterations;
+		this.timeLimit = timeLimit;
+		this.rolloutDepth = rolloutDepth;
+		this.pool = pool;
+	}
+
+	public MonteCarloAI(ToDoubleFunction<Entity> evaluation, BiConsumer<Entity, ConfigComponent> configuration) {
+		this(evaluation, configuration, 10000, 2000, 40, ForkJoinPool.commonPool());
+	}
+
+	@Override
+	public ECSAction getAction(Entity player) {
+		return getAction(player, timeLimit, Math.max(1, pool.getParallelism()));
+	}
+
+	@Override
+	public ECSAction getAction(Entity player, long timeBudget) {
+		return getAction(player, Math.min(timeLimit, (long) (timeBudget * BUDGET_SEARCH_SHARE)), 1);
+	}
+
+	/**
+	 * @param player The player to decide an action for
+	 * @param searchTime The number of milliseconds to search
+	 * @param workers The number of trees to search, more than one are searched on the pool
+	 * @return The chosen action, or null if there is no action to perform
+	 */
+	private ECSAction getAction(Entity player, long searchTime, int workers) {
+		ECSGame game = player.getGame();
+		List<Move> moves = possibleMoves(player);
+		if (moves.isEmpty()) {
+			return null;
+		}
+		if (moves.size() == 1) {
+			return moves.get(0).resolve(game);
+		}
+
+		long deadline = System.currentTimeMillis() + searchTime;
+		Map<Move, Integer> visits;
+		if (workers == 1) {
+			visits = search(game.fork(), player.getId(), iterations, deadline, new Random(random.nextLong()));
+		}
+		else {
+			visits = searchInParallel(game, player.getId(), deadline, workers);
+		}
+		Move best = moves.stream().max(Comparator.comparingInt(move -> visits.getOrDefault(move, 0))).get();
+		logger.info(player + " chooses " + best + " with visits " + visits);
+		return best.resolve(game);
+	}
+
+	private Map<Move, Integer> searchInParallel(ECSGame game, int playerId, long deadline, int workers) {
+		List<ForkJoinTask<Map<Move, Integer>>> tasks = new ArrayList<>(workers);
+		for (int i = 0; i < workers; i++) {
+			// forks are taken here, while the game can not change, workers only use their own fork
+			ECSGame fork = game.fork();
+			Random workerRandom = new Random(random.nextLong());
+			int budget = iterations / workers + (i < iterations % workers ? 1 : 0);
+			tasks.add(pool.submit(() -> search(fork, playerId, budget, deadline, workerRandom)));
+		}
+
+		Map<Move, Integer> visits = new HashMap<>();
+		for (ForkJoinTask<Map<Move, Integer>> task : tasks) {
+			task.join().forEach((move, count) -> visits.merge(move, count, Integer::sum));
+		}
+		return visits;
+	}
+
+	private Map<Move, Integer> search(ECSGame rootState, int playerId, int budget, long deadline, Random random) {
+		Node root = new Node(null, null);
+		for (int i = 0; i < budget && System.currentTimeMillis() < deadline; i++) {
+			iterate(root, rootState, playerId, random);
+		}
+		Map<Move, Integer> result = new HashMap<>();
+		for (Node child : root.children) {
+			result.put(child.move, child.visits);
+		}
+		return result;
+	}
+
+	private void iterate(Node root, ECSGame rootState, int playerId, Random random) {
+		ECSGame state = rootState.fork();
+		state.setRandomSeed(random.nextLong());
+		Node node = root;
+		double value;
+		try {
+			while (!state.isGameOver()) {
+				if (node.untried == null) {
+					Entity current = currentPlayer(state);
+					if (current == null) {
+						break;
+					}
+					node.mover = current.getId();
+					node.untried = possibleMoves(current);
+					Collections.shuffle(node.untried, random);
+				}
+				if (!node.untried.isEmpty()) {
+					Move move = node.untried.remove(node.untried.size() - 1);
+					Node child = new Node(node, move);
+					node.children.add(child);
+					node = child;
+					move.perform(state);
+					break;
+				}
+				if (node.children.isEmpty()) {
+					break;
+				}
+				node = node.select(playerId);
+				if (!node.move.perform(state)) {
+					// the random parts of the game went another way in this fork
+					break;
+				}
+			}
+			value = rollout(state, playerId, random);
+		}
+		catch (RuntimeException ex) {
+			logger.debug("Error in search iteration", ex);
+			value = 0.5;
+		}
+		for (Node visited = node; visited != null; visited = visited.parent) {
+			visited.visits++;
+			visited.reward += value;
+		}
+	}
+
+	private double rollout(ECSGame state, int playerId, Random random) {
+		for (int depth = 0; depth < rolloutDepth && !state.isGameOver(); depth++) {
+			Entity current = currentPlayer(state);
+			if (current == null) {
+				break;
+			}
+			List<Move> moves = possibleMoves(current);
+			if (moves.isEmpty()) {
+				break;
+			}
+			if (!moves.get(random.nextInt(moves.size())).perform(state)) {
+				break;
+			}
+		}
+		return evaluation.applyAsDouble(state.getEntity(playerId));
+	}
+
+	private static Entity currentPlayer(ECSGame game) {
+		PhaseController phases = ComponentRetriever.singletonOptional(game, PhaseController.class);
+		return phases == null ? null : phases.getCurrentEntity();
+	}
+
+	/**
+	 * Find the moves that a player can make, without changing the game. Actions with more than one target set are not supported,
+	 * and for a target set only no target or a single target is tried.
+	 *
+	 * @param player The player to find moves for
+	 * @return All the moves that the player can make
+	 */
+	private static List<Move> possibleMoves(Entity player) {
+		List<Move> moves = new ArrayList<>();
+		for (ECSAction action : Actions.getPossibleActionsFor(player)) {
+			List<TargetSet> targetSets = action.getTargetSets();
+			if (targetSets.isEmpty()) {
+				moves.add(new Move(player, action, NO_TARGETS));
+				continue;
+			}
+			if (targetSets.size() > 1) {
+				continue;
+			}
+			TargetSet targets = targetSets.get(0);
+			if (targets.getMin() == 0) {
+				moves.add(new Move(player, action, NO_TARGETS));
+			}
+			if (targets.getMin() <= 1 && targets.getMax() >= 1) {
+				for (int target : firstTargets(action)) {
+					moves.add(new Move(player, action, new int[] { target }));
+				}
+			}
+		}
+		return moves;
+	}
+
+	/**
+	 * @param action An action with one target set
+	 * @return The ids of the entities that can be chosen as the first target of the action
+	 */
+	private static int[] firstTargets(ECSAction action) {
+		TargetSet targets = action.getTargetSets().get(0);
+		if (targets.selectedTargets() > 0) {
+			// targets that have already been chosen can change what is targetable, look without them on a fork
+			ECSGame fork = action.getOwner().getGame().fork();
+			targets = Actions.getAction(fork.getEntity(action.getOwner().getId()), action.getName()).getTargetSets().get(0);
+			targets.clearTargets();
+		}
+		return targets.findPossibleTargets().stream().mapToInt(Entity::getId).toArray();
+	}
+
+	@Override
+	public void configure(Entity entity, ConfigComponent config) {
+		this.entityConfigurer.accept(entity, config);
+	}
+
+	/**
+	 * An action with its targets, referring to entities by id so that it can be used on any fork of a game
+	 */
+	private static final class Move {
+		private final int performer;
+		private final int owner;
+		private final String name;
+		/**
+		 * The ids of the targets chosen for the first target set, moves are only made for actions with at most one target set
+		 */
+		private final int[] targets;
+
+		Move(Entity performer, ECSAction action, int[] targets) {
+			this.performer = performer.getId();
+			this.owner = action.getOwner().getId();
+			this.name = action.getName();
+			this.targets = targets;
+		}
+
+		/**
+		 * Find the action in a game and choose the targets of this move on it
+		 *
+		 * @param game The game to find the action in
+		 * @return The action ready to be performed, or null if it can not be used in the game
+		 */
+		ECSAction resolve(ECSGame game) {
+			return Actions.resolve(game, owner, name, new int[][] { targets });
+		}
+
+		boolean perform(ECSGame game) {
+			ECSAction action = resolve(game);
+			Entity performingEntity = game.getEntity(performer);
+			return action != null && performingEntity != null && action.perform(performingEntity);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Move)) {
+				return false;
+			}
+			Move other = (Move) obj;
+			return performer == other.performer && owner == other.owner
+					&& name.equals(other.name) && Arrays.equals(targets, other.targets);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(performer, owner, name, Arrays.hashCode(targets));
+		}
+
+		@Override
+		public String toString() {
+			return name + " for entity #" + owner + " targets " + Arrays.toString(targets);
+		}
+	}
+
+	private static final class Node {
+		private final Node parent;
+		private final Move move;
+		private final List<Node> children = new ArrayList<>();
+		private List<Move> untried;
+		private int mover;
+		private int visits;
+		/**
+		 * Total reward of the visits, from the perspective of the player of the AI
+		 */
+		private double reward;
+
+		Node(Node parent, Move move) {
+			this.parent = parent;
+			this.move = move;
+		}
+
+		/**
+		 * Select the child with the best upper confidence bound, for the player choosing in this node
+		 */
+		Node select(int playerId) {
+			boolean maximize = mover == playerId;
+			double logVisits = Math.log(visits);
+			Node best = null;
+			double bestValue = Double.NEGATIVE_INFINITY;
+			for (Node child : children) {
+				double mean = child.reward / child.visits;
+				double value = (maximize ? mean : 1 - mean) + EXPLORATION * Math.sqrt(logVisits / child.visits);
+				if (value > bestValue) {
+					best = child;
+					bestValue = value;
+				}
+			}
+			return best;
+		}
+	}
+
+}
@@ -1,11 +1,16 @@
 package com.cardshifter.ai;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import net.zomis.aiscores.FieldScore;
 import net.zomis.aiscores.FieldScoreProducer;
 import net.zomis.aiscores.FieldScores;
 import net.zomis.aiscores.ScoreConfig;
@@ -17,43 +22,183 @@ import net.zomis.aiscores.extra.ScoreUtils;
 import net.zomis.cardshifter.ecs.config.ConfigComponent;
 
 import com.cardshifter.modapi.actions.ActionComponent;
+import com.cardshifter.modapi.actions.Actions;
 import com.cardshifter.modapi.actions.ECSAction;
+import com.cardshifter.modapi.actions.TargetSelection;
+import com.cardshifter.modapi.actions.TargetSet;
 import com.cardshifter.modapi.ai.CardshifterAI;
 import com.cardshifter.modapi.base.ECSGame;
 import com.cardshifter.modapi.base.Entity;
 
+/**
+ * AI that scores all actions that it can perform and chooses the action with the best score.
+ * <p>
+ * Scorers choose targets on the side, see {@link ScoringCache#select}, and only the targets of the chosen action are applied to it.
+ * <p>
+ * When given a pool, the actions are split between the workers of the pool. Each worker scores its actions on its own fork of the game,
+ * and the best action of all the workers is chosen.
+ */
 public class ScoringAI implements CardshifterAI, ScoreStrategy<Entity, ECSAction> {
-	
+
+	/**
+	 * The smallest number of actions that is worth giving to a worker of its own
+	 */
+	private static final int MIN_ACTIONS_PER_WORKER = 8;
+
 	private final Random random = new Random(42);
 	private final ScoreConfig<Entity, ECSAction> config;
 	private final BiConsumer<Entity, ConfigComponent> entityConfigurer;
-	
-	public ScoringAI(ScoreConfigFactory<Entity, ECSAction> config, BiConsumer<Entity, ConfigComponent> configuration) {
+	private final FieldScoreProducer<Entity, ECSAction> producer;
+	private final ForkJoinPool pool;
+
+	/**
+	 * @param config The scorers to use
+	 * @param configuration How to configure the entity of this AI, such as choosing a deck
+	 * @param pool The pool to score actions in parallel on, or null to score them on the calling thread
+	 */
+	public ScoringAI(ScoreConfigFactory<Entity, ECSAction> config, BiConsumer<Entity, ConfigComponent> configuration, ForkJoinPool pool) {
 		this.config = config.build();
 		this.entityConfigurer = configuration;
+		this.producer = new FieldScoreProducer<Entity, ECSAction>(this.config, this);
+		this.pool = pool;
 	}
-	
+
+	public ScoringAI(ScoreConfigFactory<Entity, ECSAction> config, BiConsumer<Entity, ConfigComponent> configuration) {
+		this(config, configuration, null);
+	}
+
 	public ScoringAI(ScoreConfigFactory<Entity, ECSAction> config) {
-		this.config = config.build();
-		this.entityConfigurer = (e, comp) -> {};
+		this(config, (e, comp) -> {}, null);
 	}
-	
+
 	public FieldScores<Entity, ECSAction> calculateFullScore(Entity player) {
 		FieldScoreProducer<Entity, ECSAction> prod = new FieldScoreProducer<Entity, ECSAction>(config, this);
 		prod.setDetailed(true);
-		return prod.analyzeAndScore(player);
+		return ScoringCache.using(() -> prod.analyzeAndScore(player));
 	}
-	
+
 	@Override
 	public ECSAction getAction(Entity player) {
-		FieldScoreProducer<Entity, ECSAction> prod = new FieldScoreProducer<Entity, ECSAction>(config, this);
-		ParamAndField<Entity, ECSAction> best = ScoreUtils.pickBest(prod, player, random);
-		if (best != null) {
-			return best.getField();
+		if (pool != null && pool.getParallelism() > 1) {
+			List<ECSAction> actions = new ArrayList<>(getFieldsToScore(player));
+			int workers = Math.min(pool.getParallelism(), actions.size() / MIN_ACTIONS_PER_WORKER);
+			if (workers > 1) {
+				return getActionInParallel(player, actions, workers);
+			}
 		}
+		return ScoringCache.using(() -> {
+			ParamAndField<Entity, ECSAction> best = ScoreUtils.pickBest(producer, player, random);
+			if (best != null) {
+				return withChosenTargets(best.getField());
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Apply the targets that scorers chose for an action during the current decision
+	 *
+	 * @param action The chosen action
+	 * @return The chosen action, or null if the chosen targets could not be applied to it
+	 */
+	private static ECSAction withChosenTargets(ECSAction action) {
+		return withTargets(action, ScoringCache.selectionFor(action));
+	}
+
+	/**
+	 * @param action The chosen action, or null
+	 * @param selection The targets to choose on the action, or null to leave the action as it is
+	 * @return The action, or null if the targets could not be chosen on it
+	 */
+	private static ECSAction withTargets(ECSAction action, TargetSelection selection) {
+		if (action == null || selection == null || selection.applyTo(action)) {
+			return action;
+		}
+		action.getTargetSets().forEach(TargetSet::clearTargets);
 		return null;
 	}
-	
+
+	private ECSAction getActionInParallel(Entity player, List<ECSAction> actions, int workers) {
+		ECSGame game = player.getGame();
+		List<ForkJoinTask<List<Choice>>> tasks = new ArrayList<>(workers);
+		for (int i = 0; i < workers; i++) {
+			// forks are taken here, scorers may read and choose targets, which is not safe to do on the same game from several threads
+			ECSGame fork = game.fork();
+			List<ECSAction> part = new ArrayList<>();
+			for (int index = i; index < actions.size(); index += workers) {
+				ECSAction action = Actions.getAction(fork.getEntity(actions.get(index).getOwner().getId()), actions.get(index).getName());
+				if (action != null) {
+					part.add(action);
+				}
+			}
+			Entity forkPlayer = fork.getEntity(player.getId());
+			tasks.add(pool.submit(() -> ScoringCache.using(() -> bestScores(forkPlayer, part))));
+		}
+
+		List<Choice> best = new ArrayList<>();
+		for (ForkJoinTask<List<Choice>> task : tasks) {
+			List<Choice> choices = task.join();
+			if (choices.isEmpty()) {
+				continue;
+			}
+			double compare = best.isEmpty() ? Double.NEGATIVE_INFINITY : best.get(0).score;
+			if (choices.get(0).score > compare) {
+				best.clear();
+			}
+			if (choices.get(0).score >= compare) {
+				best.addAll(choices);
+			}
+		}
+		if (best.isEmpty()) {
+			return null;
+		}
+		Choice chosen = best.get(random.nextInt(best.size()));
+		return withTargets(Actions.resolve(game, chosen.action), chosen.targets);
+	}
+
+	/**
+	 * An action with its score and the targets that the scorers chose for it, on the fork of a worker
+	 */
+	private static class Choice {
+		private final ECSAction action;
+		private final double score;
+		private final TargetSelection targets;
+
+		Choice(FieldScore<ECSAction> score) {
+			this.action = score.getField();
+			this.score = score.getScore();
+			this.targets = ScoringCache.selectionFor(action);
+		}
+	}
+
+	/**
+	 * @return The actions that share the best score
+	 */
+	private List<Choice> bestScores(Entity player, List<ECSAction> actions) {
+		ScoreStrategy<Entity, ECSAction> strategy = new ScoreStrategy<Entity, ECSAction>() {
+			@Override
+			public boolean canScoreField(ScoreParameters<Entity> params, ECSAction action) {
+				return ScoringAI.this.canScoreField(params, action);
+			}
+
+			@Override
+			public Collection<ECSAction> getFieldsToScore(Entity params) {
+				return actions;
+			}
+		};
+		FieldScores<Entity, ECSAction> scores = new FieldScoreProducer<Entity, ECSAction>(config, strategy).analyzeAndScore(player);
+		List<Choice> best = new ArrayList<>();
+		for (FieldScore<ECSAction> score : scores.getScores().values()) {
+			if (!best.isEmpty() && score.getScore() > best.get(0).score) {
+				best.clear();
+			}
+			if (best.isEmpty() || score.getScore() == best.get(0).score) {
+				best.add(new Choice(score));
+			}
+		}
+		return best;
+	}
+
 	@Override
 	public boolean canScoreField(ScoreParameters<Entity> params, ECSAction action) {
 		return action.isAllowed(params.getParameters());
@@ -63,17 +208,17 @@ public class ScoringAI implements CardshifterAI, ScoreStrategy<Entity, ECSAction
 	public Collection<ECSAction> getFieldsToScore(Entity entity) {
 		return getAllActions(entity.getGame()).collect(Collectors.toList());
 	}
-	
+
 	private static Stream<ECSAction> getAllActions(ECSGame game) {
-		return game.getEntitiesWithComponent(ActionComponent.class)
+		return game.getFamily(ActionComponent.class)
 			.stream()
 			.flatMap(entity -> entity.getComponent(ActionComponent.class)
 				.getECSActions().stream());
 	}
-	
+
 	@Override
 	public void configure(Entity entity, ConfigComponent config) {
 		this.entityConfigurer.accept(entity, config);
 	}
-	
+
 }
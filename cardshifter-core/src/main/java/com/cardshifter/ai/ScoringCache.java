@@ -0,0 +1,109 @@
+package com.cardshifter.ai;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.cardshifter.modapi.actions.ECSAction;
+import com.cardshifter.modapi.actions.TargetSelection;
+import com.cardshifter.modapi.actions.TargetSet;
+import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.resources.ResourceRetriever;
+
+/**
+ * Remembers possible targets, resource values and chosen targets while a {@link ScoringAI} scores the actions of a decision.
+ * <p>
+ * Scoring does not change the game, so scorers that are called for many actions can read the same values over and over.
+ * Targets that scorers choose are kept here instead of on the actions, and are only applied to the action that is chosen.
+ * A cache is only used on the thread that it was started on, and only for one decision.
+ */
+public final class ScoringCache {
+
+	private static final ThreadLocal<ScoringCache> current = new ThreadLocal<>();
+
+	private final Map<TargetSet, List<Entity>> targets = new IdentityHashMap<>();
+	private final Map<ResourceRetriever, Map<Entity, Integer>> resources = new IdentityHashMap<>();
+	private final Map<ECSAction, TargetSelection> selections = new IdentityHashMap<>();
+
+	private ScoringCache() {
+	}
+
+	/**
+	 * Run the scoring of a decision with a new cache
+	 *
+	 * @param scoring The scoring to run
+	 * @return The result of the scoring
+	 */
+	static <T> T using(Supplier<T> scoring) {
+		ScoringCache previous = current.get();
+		current.set(new ScoringCache());
+		try {
+			return scoring.get();
+		}
+		finally {
+			if (previous == null) {
+				current.remove();
+			}
+			else {
+				current.set(previous);
+			}
+		}
+	}
+
+	/**
+	 * @param targetSet The targets of an action
+	 * @return A new list of the possible targets, see {@link TargetSet#findPossibleTargets()}
+	 */
+	public static List<Entity> findPossibleTargets(TargetSet targetSet) {
+		ScoringCache cache = current.get();
+		if (cache == null) {
+			return targetSet.findPossibleTargets();
+		}
+		return new ArrayList<>(cache.targets.computeIfAbsent(targetSet, TargetSet::findPossibleTargets));
+	}
+
+	/**
+	 * @param resource The resource to read
+	 * @param entity The entity to read the resource of
+	 * @return The value of the resource, or 0 if the entity does not have it
+	 */
+	public static int get(ResourceRetriever resource, Entity entity) {
+		ScoringCache cache = current.get();
+		if (cache == null) {
+			return resource.getOrDefault(entity, 0);
+		}
+		return cache.resources.computeIfAbsent(resource, r -> new IdentityHashMap<>())
+			.computeIfAbsent(entity, e -> resource.getOrDefault(e, 0));
+	}
+
+	/**
+	 * Choose targets for an action, or get the targets that were already chosen for it during this decision.
+	 * When no decision is being scored, the targets are applied to the action directly.
+	 *
+	 * @param action The action to choose targets for
+	 * @param chooser How to choose the targets, which must not change the action
+	 * @return The chosen targets
+	 */
+	public static TargetSelection select(ECSAction action, Function<ECSAction, TargetSelection> chooser) {
+		ScoringCache cache = current.get();
+		if (cache == null) {
+			TargetSelection selection = chooser.apply(action);
+			selection.applyTo(action);
+			return selection;
+		}
+		return cache.selections.computeIfAbsent(action, chooser);
+	}
+
+	/**
+	 * @param action An action that has been scored during the current decision
+	 * @return The targets that were chosen for the action, or null if no targets were chosen
+	 */
+	static TargetSelection selectionFor(ECSAction action) {
+		ScoringCache cache = current.get();
+		return cache == null ? null : cache.selections.get(action);
+	}
+
+}
@@ -7,7 +7,9 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import com.cardshifter.ai.ScoringCache;
 import com.cardshifter.modapi.actions.ECSAction;
+import com.cardshifter.modapi.actions.TargetSelection;
 import com.cardshifter.modapi.actions.TargetSet;
 import com.cardshifter.modapi.base.ComponentRetriever;
 import com.cardshifter.modapi.base.Entity;
@@ -34,32 +36,35 @@ public class AttackAnalyze {
 			return 0;
 		}
 		
+		Entity chosenTarget = ScoringCache.select(action, AttackAnalyze::chooseAttackTarget).getTargets(0).get(0);
+		if (chosenTarget.hasComponent(PlayerComponent.class)) {
+			// attacking a player is really the best option there is
+			return 100;
+		}
+		return attackVS(action.getOwner(), chosenTarget);
+	}
+
+	private static TargetSelection chooseAttackTarget(ECSAction action) {
 		TargetSet targets = action.getTargetSets().get(0);
-		targets.clearTargets();
-		List<Entity> possibleTargets = targets.findPossibleTargets();
+		List<Entity> possibleTargets = ScoringCache.findPossibleTargets(targets);
 		Optional<Entity> player = possibleTargets.stream().filter(e -> e.hasComponent(PlayerComponent.class)).findAny();
 		if (player.isPresent()) {
-			// attacking a player is really the best option there is
-			targets.addTarget(player.get());
-			return 100;
+			return TargetSelection.of(player.get());
 		}
 		if (possibleTargets.isEmpty()) {
 			throw new RuntimeException("Attack action has no targets: " + action);
 		}
 		
 		possibleTargets.sort(Comparator.comparingInt(e -> attackVS(action.getOwner(), e)));
-		Entity chosenTarget = possibleTargets.get(possibleTargets.size() - 1);
-		targets.addTarget(chosenTarget);
-
-		return attackVS(action.getOwner(), chosenTarget);
+		return TargetSelection.of(possibleTargets.get(possibleTargets.size() - 1));
 	}
 
 	private static int attackVS(Entity attacker, Entity target) {
 		int score = 0;
-		boolean attackerDies = attack.getFor(target) >= health.getFor(attacker);
-		boolean targetDies = attack.getFor(attacker) >= health.getFor(target);
-		int trampleDamage = attack.getFor(attacker) - health.getFor(target);
-		int additionalDamageBack = attack.getFor(target) - health.getFor(attacker);
+		boolean attackerDies = ScoringCache.get(attack, target) >= ScoringCache.get(health, attacker);
+		boolean targetDies = ScoringCache.get(attack, attacker) >= ScoringCache.get(health, target);
+		int trampleDamage = ScoringCache.get(attack, attacker) - ScoringCache.get(health, target);
+		int additionalDamageBack = ScoringCache.get(attack, target) - ScoringCache.get(health, attacker);
 		if (attackerDies && !targetDies) {
 			// this is really the worst option there is
 			return -10;
@@ -85,7 +90,7 @@ public class AttackAnalyze {
 		ComponentRetriever<CardComponent> card = Retrievers.component(CardComponent.class);
 		Entity owner = card.get(entity).getOwner();
 		HandComponent hand = owner.getComponent(HandComponent.class);
-		return hand.stream().mapToInt(e -> scrapCost.getOrDefault(e, 0)).sum();
+		return hand.stream().mapToInt(e -> ScoringCache.get(scrapCost, e)).sum();
 	}
 	
 	public static double scrapIfCanGetKilled(ECSAction action, ScoreParameters<Entity> params) {
@@ -100,16 +105,16 @@ public class AttackAnalyze {
 		Entity opponent = players.stream().filter(pl -> pl.getComponent(PlayerComponent.class).getIndex() != owner.getComponent(PlayerComponent.class).getIndex()).findAny().get();
 		
 		ZoneComponent battlefield = opponent.getComponent(BattlefieldComponent.class);
-		int myHealth = health.getFor(entity);
-		int myAttack = attack.getFor(entity);
+		int myHealth = ScoringCache.get(health, entity);
+		int myAttack = ScoringCache.get(attack, entity);
 		
-		List<Entity> creaturesCanKill = battlefield.stream().filter(e -> attack.getOrDefault(e, 0) >= myHealth).collect(Collectors.toList());
+		List<Entity> creaturesCanKill = battlefield.stream().filter(e -> ScoringCache.get(attack, e) >= myHealth).collect(Collectors.toList());
 		if (creaturesCanKill.isEmpty()) {
 			// This creature cannot die from any opponent creature, then it is safe
 			return -10;
 		}
 		
-		Stream<Entity> creaturesCanNotDie = creaturesCanKill.stream().filter(e -> health.getOrDefault(e, 0) > myAttack);
+		Stream<Entity> creaturesCanNotDie = creaturesCanKill.stream().filter(e -> ScoringCache.get(health, e) > myAttack);
 		if (creaturesCanNotDie.findAny().isPresent()) {
 			// If I stay here, then I am toast.
 			return 1;
@@ -131,23 +136,23 @@ public class AttackAnalyze {
 		
 		List<Entity> creatures = battlefield.getCards();
 		if (creatures.size() <= 3) {
-			return -health.getFor(entity);
+			return -ScoringCache.get(health, entity);
 		}
 		
-		creatures.sort(Comparator.comparingInt(e -> health.getFor(e) + attack.getFor(e)));
+		creatures.sort(Comparator.comparingInt(e -> ScoringCache.get(health, e) + ScoringCache.get(attack, e)));
 		if (entity == creatures.get(0)) {
 			// Only consider scrapping the creature with lowest health
-			return 4 - health.getFor(entity);
+			return 4 - ScoringCache.get(health, entity);
 		}
 		return -1;
 	}
 	
 	public static double health(ECSAction action, ScoreParameters<Entity> params) {
-		return health.getOrDefault(action.getOwner(), 0);
+		return ScoringCache.get(health, action.getOwner());
 	}
 	
 	public static double attack(ECSAction action, ScoreParameters<Entity> params) {
-		return attack.getOrDefault(action.getOwner(), 0);
+		return ScoringCache.get(attack, action.getOwner());
 	}
 	
 	public static double enchantScore(ECSAction action, ScoreParameters<Entity> params) {
@@ -155,27 +160,33 @@ public class AttackAnalyze {
 			return 0;
 		}
 		
+		List<Entity> chosen = ScoringCache.select(action, AttackAnalyze::chooseEnchantTarget).getTargets(0);
+		if (chosen.isEmpty()) {
+			return -1;
+		}
+		
+		Entity enchantment = action.getOwner();
+		return enchantScore(chosen.get(0), ScoringCache.get(attack, enchantment), ScoringCache.get(health, enchantment));
+	}
+
+	private static TargetSelection chooseEnchantTarget(ECSAction action) {
 		TargetSet targets = action.getTargetSets().get(0);
-		targets.clearTargets();
-		List<Entity> possibleTargets = targets.findPossibleTargets();
+		List<Entity> possibleTargets = ScoringCache.findPossibleTargets(targets);
 		
 		if (possibleTargets.isEmpty()) {
-			return -1;
+			return TargetSelection.NONE;
 		}
 		
 		Entity enchantment = action.getOwner();
-		int attackBonus = attack.getFor(enchantment);
-		int healthBonus = health.getFor(enchantment);
+		int attackBonus = ScoringCache.get(attack, enchantment);
+		int healthBonus = ScoringCache.get(health, enchantment);
 		
 		possibleTargets.sort(Comparator.comparingDouble(e -> enchantScore(e, attackBonus, healthBonus)));
-		Entity chosenTarget = possibleTargets.get(possibleTargets.size() - 1);
-		targets.addTarget(chosenTarget);
-
-		return enchantScore(chosenTarget, attackBonus, healthBonus);
+		return TargetSelection.of(possibleTargets.get(possibleTargets.size() - 1));
 	}
 
 	private static double enchantScore(Entity e, int attackBonus, int healthBonus) {
-		return 1.5*(health.getFor(e) + healthBonus) + attack.getFor(e) + attackBonus;
+		return 1.5*(ScoringCache.get(health, e) + healthBonus) + ScoringCache.get(attack, e) + attackBonus;
 	}
 
 }
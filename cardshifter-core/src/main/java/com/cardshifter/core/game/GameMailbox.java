@@ -0,0 +1,155 @@
+package com.cardshifter.core.game;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+/**
+ * Runs the tasks of one game one at a time, in the order they were submitted.
+ * <p>
+ * Tasks are run on a pool of worker threads that is shared by all games, but never more than one task of the same game at once.
+ * Everything that changes a game, such as moves from clients, AI actions and scheduled events, should be submitted to the mailbox of the game,
+ * then the game itself does not need any locks.
+ */
+public final class GameMailbox implements Executor {
+
+	private static final Logger logger = LogManager.getLogger(GameMailbox.class);
+
+	/**
+	 * The maximum number of tasks to run before letting the tasks of other games use the worker thread
+	 */
+	private static final int BATCH_SIZE = 64;
+
+	private static final ExecutorService SHARED_WORKERS = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new WorkerThreadFactory());
+
+	private final Executor workers;
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	private volatile Thread running;
+
+	/**
+	 * Create a mailbox that runs its tasks on the worker pool shared by all games, which has one thread per available processor
+	 */
+	public GameMailbox() {
+		this(SHARED_WORKERS);
+	}
+
+	/**
+	 * @param workers The executor to run the tasks on
+	 */
+	public GameMailbox(Executor workers) {
+		this.workers = Objects.requireNonNull(workers);
+	}
+
+	/**
+	 * Add a task to run after all tasks that have already been added. Exceptions thrown by the task are logged.
+	 *
+	 * @param task The task to run
+	 */
+	@Override
+	public void execute(Runnable task) {
+		tasks.add(Objects.requireNonNull(task));
+		schedule();
+	}
+
+	/**
+	 * Run a task after all tasks that have already been added, and wait for it to finish.
+	 * If called from a task of this mailbox, the task is run directly.
+	 *
+	 * @param task The task to run
+	 * @throws RuntimeException If the task throws an exception
+	 */
+	public void executeAndWait(Runnable task) {
+		if (isMailboxThread()) {
+			task.run();
+			return;
+		}
+		FutureTask<Void> future = new FutureTask<>(task, null);
+		execute(future);
+		try {
+			future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for " + task, e);
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+	/**
+	 * @return True if the current thread is running a task of this mailbox
+	 */
+	public boolean isMailboxThread() {
+		return running == Thread.currentThread();
+	}
+
+	private void schedule() {
+		if (tasks.isEmpty() || !scheduled.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			workers.execute(this::drain);
+		}
+		catch (RejectedExecutionException e) {
+			scheduled.set(false);
+			throw e;
+		}
+	}
+
+	private void drain() {
+		running = Thread.currentThread();
+		try {
+			for (int i = 0; i < BATCH_SIZE; i++) {
+				Runnable task = tasks.poll();
+				if (task == null) {
+					break;
+				}
+				try {
+					task.run();
+				}
+				catch (Throwable ex) {
+					logger.error("Error running game task " + task, ex);
+				}
+			}
+		}
+		finally {
+			running = null;
+			scheduled.set(false);
+			// tasks may have been added after the last poll, or the batch may have been full
+			schedule();
+		}
+	}
+
+	private static class WorkerThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "game-worker-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
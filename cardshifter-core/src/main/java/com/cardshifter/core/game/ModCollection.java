@@ -11,6 +11,7 @@ import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
 import com.cardshifter.ai.AIs;
+import com.cardshifter.ai.MonteCarloAI;
 import com.cardshifter.ai.ScoringAI;
 import com.cardshifter.modapi.ai.CardshifterAI;
 import com.cardshifter.modapi.base.ECSMod;
@@ -42,6 +43,7 @@ public class ModCollection {
 		ais.put("Idiot", new ScoringAI(AIs.idiot(), AIs.randomDeck(new Random())));
 		ais.put("Medium", new ScoringAI(AIs.medium(), AIs::mediumDeck));
 		ais.put("Fighter", new ScoringAI(AIs.fighter(), AIs::fighterDeck));
+		ais.put("Hard", new MonteCarloAI(AIs::healthShare, AIs::fighterDeck));
 	}
 
     public static ModCollection defaultMods() {
@@ -5,6 +5,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.cardshifter.api.outgoing.ClientDisconnectedMessage;
 import org.apache.log4j.LogManager;
@@ -26,11 +27,14 @@ public abstract class ServerGame {
 	private static final Logger logger = LogManager.getLogger(ServerGame.class);
 
 	private final List<ClientIO> players;
+	private int nextPlayerIndex;
 	private final int id;
+	private final AtomicBoolean started = new AtomicBoolean();
 
 	private Instant active;
 
 	protected final ECSGame game;
+	private final GameMailbox mailbox;
 //	private final Set<ClientIO> observers;
 //	private final ChatArea chat;
 	
@@ -41,7 +45,19 @@ public abstract class ServerGame {
 	 * @param game ECS Game object
 	 */
 	public ServerGame(int id, ECSGame game) {
+		this(id, game, new GameMailbox());
+	}
+
+	/**
+	 * Initializes the player collection, sets the initial game state
+	 * 
+	 * @param id ID of the game
+	 * @param game ECS Game object
+	 * @param mailbox The mailbox that runs everything that changes the game
+	 */
+	public ServerGame(int id, ECSGame game, GameMailbox mailbox) {
 		this.id = id;
+		this.mailbox = mailbox;
 		this.players = Collections.synchronizedList(new ArrayList<>());
 		this.active = Instant.now();
 		this.game = game;
@@ -66,20 +82,41 @@ public abstract class ServerGame {
 	}
 	
 	/**
-	 * This is where the players are added to the ServerGame, also sets the game state
+	 * This is where the players are added to the ServerGame. The game itself is started in the mailbox of the game,
+	 * this method does not wait for it, tasks that are added afterwards are run after the game has started.
 	 * 
 	 * @param players The players to add to the game
 	 */
 	public void start(List<ClientIO> players) {
-		if (game.getGameState() != ECSGameState.NOT_STARTED) {
+		if (game.getGameState() != ECSGameState.NOT_STARTED || !started.compareAndSet(false, true)) {
 			throw new IllegalStateException("Game can only be started once");
 		}
 		players.forEach(this::addPlayer);
 		for (ClientIO player : players) {
 			player.sendToClient(new NewGameMessage(this.id, players.indexOf(player)));
 		}
-		this.onStart();
-		this.active = Instant.now();
+		execute(() -> {
+			onStart();
+			this.active = Instant.now();
+		});
+	}
+
+	/**
+	 * Run a task after all other tasks of this game. Everything that changes the game should be done this way,
+	 * the tasks of a game are never run at the same time.
+	 * 
+	 * @param task The task to run
+	 */
+	public void execute(Runnable task) {
+		mailbox.execute(task);
+	}
+
+	/**
+	 * 
+	 * @return The mailbox that runs the tasks of this game
+	 */
+	public GameMailbox getMailbox() {
+		return mailbox;
 	}
 
 	/**
@@ -141,12 +178,32 @@ public abstract class ServerGame {
 		return players.contains(client);
 	}
 
+	/**
+	 * Add a client to the game, controlling the player with the next index
+	 * 
+	 * @param client The client to add
+	 */
 	public void addPlayer(ClientIO client) {
-		 this.players.add(client);
+		synchronized (players) {
+			game.getPlayerRegistry().bindClient(client, nextPlayerIndex++);
+			this.players.add(client);
+		}
 	}
 
+	/**
+	 * Tells the other players that a client has left, and removes it from the game in the mailbox of the game.
+	 * The player that the client controlled stays in the game.
+	 * 
+	 * @param client The client that has disconnected
+	 */
     public void disconnect(ClientIO client) {
         ClientDisconnectedMessage data = new ClientDisconnectedMessage(client.getName(), this.getPlayers().indexOf(client));
         players.stream().filter(player -> player != client).forEach(player -> player.sendToClient(data));
+        execute(() -> {
+            synchronized (players) {
+                players.remove(client);
+                game.getPlayerRegistry().unbindClient(client);
+            }
+        });
     }
 }
@@ -4,7 +4,11 @@ import java.io.File;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -12,7 +16,6 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Supplier;
-import java.util.stream.Stream;
 
 import com.cardshifter.api.config.PlayerConfig;
 import com.cardshifter.api.outgoing.*;
@@ -31,12 +34,12 @@ import com.cardshifter.api.both.PlayerConfigMessage;
 import com.cardshifter.api.incoming.RequestTargetsMessage;
 import com.cardshifter.api.incoming.UseAbilityMessage;
 import com.cardshifter.core.replays.ReplayRecordSystem;
-import com.cardshifter.modapi.actions.ActionComponent;
 import com.cardshifter.modapi.actions.ActionPerformEvent;
 import com.cardshifter.modapi.actions.Actions;
 import com.cardshifter.modapi.actions.ECSAction;
 import com.cardshifter.modapi.actions.TargetSet;
 import com.cardshifter.modapi.ai.AIComponent;
+import com.cardshifter.modapi.ai.AIComputePool;
 import com.cardshifter.modapi.ai.AISystem;
 import com.cardshifter.modapi.ai.CardshifterAI;
 import com.cardshifter.modapi.cards.CardComponent;
@@ -64,8 +67,21 @@ public class TCGGame extends ServerGame {
 	 */
 	private final ECSMod mod;
 	private final Supplier<ScheduledExecutorService> aiExecutor;
+	private final AIComputePool aiComputePool;
 	private final String modName;
 	
+	/**
+	 * The last value of each resource that has changed while an action is being performed, sent when the action is done.
+	 * Null when no action is being performed, then changes are sent immediately.
+	 */
+	private Map<Entity, Map<String, Integer>> pendingUpdates;
+	private int actionDepth;
+	
+	/**
+	 * The actions that each client was last told that it can use
+	 */
+	private final Map<ClientIO, Set<ECSAction>> usableActions = new HashMap<>();
+	
 	/**
 	 * 
 	 * @param aiExecutor AI action scheduler
@@ -74,9 +90,22 @@ public class TCGGame extends ServerGame {
 	 * @param mod The mod that the game will run
 	 */
 	public TCGGame(Supplier<ScheduledExecutorService> aiExecutor, String name, int id, ECSMod mod) {
+		this(aiExecutor, null, name, id, mod);
+	}
+	
+	/**
+	 * 
+	 * @param aiExecutor AI action scheduler
+	 * @param aiComputePool The pool that AIs decide their actions on, or null to let AIs decide in the game
+	 * @param name Mod name
+	 * @param id The game id
+	 * @param mod The mod that the game will run
+	 */
+	public TCGGame(Supplier<ScheduledExecutorService> aiExecutor, AIComputePool aiComputePool, String name, int id, ECSMod mod) {
 		super(id, new ECSGame());
 		this.modName = name;
 		this.aiExecutor = aiExecutor;
+		this.aiComputePool = aiComputePool;
 		this.mod = mod;
 	}
 	
@@ -161,10 +190,71 @@ public class TCGGame extends ServerGame {
         }
 
         Entity entity = event.getEntity();
+        if (pendingUpdates != null) {
+            pendingUpdates.computeIfAbsent(entity, e -> new LinkedHashMap<>()).put(event.getResource().toString(), event.getNewValue());
+            return;
+        }
         UpdateMessage updateEvent = new UpdateMessage(entity.getId(), event.getResource().toString(), event.getNewValue());
         broadcast(entity, updateEvent);
     }
 
+    /**
+     * Start collecting resource updates instead of sending them, until the outermost action has been performed.
+     *
+     * @param event The ActionPerformEvent that is about to be performed
+     */
+    private void actionStarting(ActionPerformEvent event) {
+        if (actionDepth++ == 0) {
+            pendingUpdates = new LinkedHashMap<>();
+        }
+    }
+
+    /**
+     * Send the final values of the resources that have changed during the outermost action.
+     *
+     * @param event The ActionPerformEvent that has been performed
+     */
+    private void actionPerformed(ActionPerformEvent event) {
+        if (actionDepth == 0 || --actionDepth > 0) {
+            return;
+        }
+        sendPendingUpdates();
+    }
+
+    /**
+     * Run a task that performs actions. If an action fails half-way its after-perform handlers are never called,
+     * so the resource updates that have been collected are sent here instead of waiting for an action that does not end.
+     *
+     * @param task The task to run
+     */
+    private void performing(Runnable task) {
+        try {
+            task.run();
+        }
+        finally {
+            if (actionDepth > 0) {
+                logger.warn("Action was not completed in " + this + ", sending its updates");
+                actionDepth = 0;
+                sendPendingUpdates();
+                sendAvailableActions();
+            }
+        }
+    }
+
+    private void sendPendingUpdates() {
+        Map<Entity, Map<String, Integer>> updates = pendingUpdates;
+        pendingUpdates = null;
+        for (Entry<Entity, Map<String, Integer>> entityUpdates : updates.entrySet()) {
+            Entity entity = entityUpdates.getKey();
+            if (entity.isRemoved()) {
+                continue;
+            }
+            for (Entry<String, Integer> update : entityUpdates.getValue().entrySet()) {
+                broadcast(entity, new UpdateMessage(entity.getId(), update.getKey(), update.getValue()));
+            }
+        }
+    }
+
     /**
 	 * If the event is a for a player, zone, or game, an UpdateMessage is sent to all players.
 	 * For cards it is only sent to players who have knowledge of the card zone
@@ -237,12 +327,12 @@ public class TCGGame extends ServerGame {
 		}
 
         Entity performer = playerFor(client);
-		boolean allowed = action.perform(performer);
-		if (!allowed) {
-			client.sendToClient(ErrorMessage.client("Action not allowed: " + action));
-		}
-		
-		sendAvailableActions();
+		performing(() -> {
+			boolean allowed = action.perform(performer);
+			if (!allowed) {
+				client.sendToClient(ErrorMessage.client("Action not allowed: " + action));
+			}
+		});
 	}
 	
 	/**
@@ -251,7 +341,7 @@ public class TCGGame extends ServerGame {
 	 * @return The index of the client in this object
 	 */
 	public Entity playerFor(ClientIO io) {
-		int index = this.getPlayers().indexOf(io);
+		int index = game.getPlayerRegistry().indexOf(io);
 		if (index < 0) {
 			throw new IllegalArgumentException(io + " is not a valid player in this game");
 		}
@@ -264,11 +354,11 @@ public class TCGGame extends ServerGame {
 	 * @return The player at that index
 	 */
 	private Entity getPlayer(int index) {
-		List<Entity> players = game.findEntities(entity -> entity.hasComponent(PlayerComponent.class) && entity.getComponent(PlayerComponent.class).getIndex() == index);
-		if (players.size() != 1) {
-			throw new IllegalStateException("Found " + players.size() + " results for entities with Player index " + index);
+		Entity player = game.getPlayerRegistry().getPlayer(index);
+		if (player == null) {
+			throw new IllegalStateException("Found no entity with Player index " + index);
 		}
-		return players.get(0);
+		return player;
 	}
 	
 	/**
@@ -342,12 +432,17 @@ public class TCGGame extends ServerGame {
 		
 		game.getEvents().registerHandlerAfter(this, ResourceValueChange.class, this::broadcast);
         game.getEvents().registerHandlerAfter(this, ResourceViewUpdate.class, this::broadcast);
+		game.getEvents().registerHandlerBefore(this, ActionPerformEvent.class, this::actionStarting);
 		game.getEvents().registerHandlerAfter(this, ZoneChangeEvent.class, this::zoneChange);
 		game.getEvents().registerHandlerAfter(this, EntityRemoveEvent.class, this::remove);
 		game.getEvents().registerHandlerAfter(this, PlayerEliminatedEvent.class, this::playerEliminated);
 		game.getEvents().registerHandlerAfter(this, GameOverEvent.class, event -> this.endGame());
-		AISystem.setup(game, aiExecutor.get());
-		game.addSystem(game -> game.getEvents().registerHandlerAfter(this, ActionPerformEvent.class, event -> this.sendAvailableActions()));
+		AISystem.setup(game, aiExecutor.get(), task -> execute(() -> performing(task)), aiComputePool);
+		game.addSystem(game -> {
+			// added last, so that changes made by the systems of the mod after an action are sent together with the action
+			game.getEvents().registerHandlerAfter(this, ActionPerformEvent.class, this::actionPerformed);
+			game.getEvents().registerHandlerAfter(this, ActionPerformEvent.class, event -> this.sendAvailableActions());
+		});
 		
 		game.startGame();
 		this.getPlayers().stream().forEach(pl -> {
@@ -369,7 +464,7 @@ public class TCGGame extends ServerGame {
 	 * @return True if a request for player-specific configuration has been sent, false if no additional configuration is required.
 	 */
 	private boolean requestPlayerConfig() {
-		Set<Entity> configEntities = game.getEntitiesWithComponent(ConfigComponent.class);
+		EntityFamily configEntities = game.getFamily(ConfigComponent.class);
 		boolean sent = false;
 		for (ClientIO io : getPlayers()) {
 			Entity playerEntity = playerFor(io);
@@ -410,32 +505,69 @@ public class TCGGame extends ServerGame {
 	}
 
 	/**
-	 * Looks at all Clients, resets their actions, then gets all actions for each and sends them.
+	 * Looks at all Clients, gets all actions for each and sends the changes since the actions that were last sent.
 	 */
 	private void sendAvailableActions() {
 		for (ClientIO io : this.getPlayers()) {
-			io.sendToClient(new ResetAvailableActionsMessage());
-			if (game.isGameOver()) {
-				continue;
+			if (!io.isDisconnected()) {
+				sendAvailableActions(io);
 			}
-			Entity player = playerFor(io);
-			getAllActions(game).filter(action -> action.isAllowed(player))
-				.forEach(action -> io.sendToClient(new UsableActionMessage(action.getOwner().getId(), action.getName(), !action.getTargetSets().isEmpty())));
+		}
+	}
+	
+	@Override
+	public void disconnect(ClientIO client) {
+		super.disconnect(client);
+		synchronized (usableActions) {
+			usableActions.remove(client);
 		}
 	}
 
 	/**
+	 * Sends all the actions that a client can use, instead of only the changes. Used when a client needs to be brought up to date again.
 	 * 
-	 * @param game The game to search for actions
-	 * @return A stream of action components for all entities in the game
+	 * @param io The client to send the actions to
 	 */
-	private static Stream<ECSAction> getAllActions(ECSGame game) {
-		return game.getEntitiesWithComponent(ActionComponent.class)
-			.stream()
-			.flatMap(entity -> entity.getComponent(ActionComponent.class)
-					.getECSActions().stream());
+	public void resendAvailableActions(ClientIO io) {
+		synchronized (usableActions) {
+			usableActions.remove(io);
+			sendAvailableActions(io);
+		}
 	}
-	
+
+	private void sendAvailableActions(ClientIO io) {
+		Set<ECSAction> usable = new LinkedHashSet<>();
+		if (!game.isGameOver()) {
+			usable.addAll(Actions.getPossibleActionsFor(playerFor(io)));
+		}
+		synchronized (usableActions) {
+			Set<ECSAction> previous = usableActions.put(io, usable);
+			List<ECSAction> added = new ArrayList<>();
+			List<ECSAction> removed = new ArrayList<>();
+			for (ECSAction action : usable) {
+				if (previous == null || !previous.contains(action)) {
+					added.add(action);
+				}
+			}
+			if (previous != null) {
+				for (ECSAction action : previous) {
+					if (!usable.contains(action)) {
+						removed.add(action);
+					}
+				}
+			}
+			boolean[] targetRequired = new boolean[added.size()];
+			for (int i = 0; i < targetRequired.length; i++) {
+				targetRequired[i] = !added.get(i).getTargetSets().isEmpty();
+			}
+			io.sendToClient(new UsableActionsChangeMessage(previous == null,
+					added.stream().mapToInt(action -> action.getOwner().getId()).toArray(),
+					added.stream().map(ECSAction::getName).toArray(String[]::new), targetRequired,
+					removed.stream().mapToInt(action -> action.getOwner().getId()).toArray(),
+					removed.stream().map(ECSAction::getName).toArray(String[]::new)));
+		}
+	}
+
 	/**
 	 * Sends the zone to all players. If the zone is known, also sends the cards.
 	 * 
@@ -459,8 +591,13 @@ public class TCGGame extends ServerGame {
 	 * @return A zone message constructed based on the zone component object properties.
 	 */
 	private ZoneMessage constructZoneMessage(ZoneComponent zone, Entity player) {
+		List<Entity> cards = zone.getCardsView();
+		int[] cardIds = new int[cards.size()];
+		for (int i = 0; i < cardIds.length; i++) {
+			cardIds[i] = cards.get(i).getId();
+		}
 		return new ZoneMessage(zone.getZoneId(), zone.getName(), 
-				zone.getOwner().getId(), zone.size(), zone.isKnownTo(player), zone.stream().mapToInt(e -> e.getId()).toArray());
+				zone.getOwner().getId(), cardIds.length, zone.isKnownTo(player), cardIds);
 	}
 	
 	/**
@@ -512,8 +649,12 @@ public class TCGGame extends ServerGame {
 	 * @return Returns true if any of the ConfigComponents are not configured
 	 */
 	public boolean isConfigNeeded() {
-		Set<Entity> configEntities = game.getEntitiesWithComponent(ConfigComponent.class);
-		return configEntities.stream().map(e -> e.getComponent(ConfigComponent.class)).anyMatch(config -> !config.isConfigured());
+		for (Entity entity : game.getFamily(ConfigComponent.class)) {
+			if (!entity.getComponent(ConfigComponent.class).isConfigured()) {
+				return true;
+			}
+		}
+		return false;
 	}
 	
 }
\ No newline at end of file
@@ -57,13 +57,14 @@ class ActionDelegate {
     }
 
     void requires(Closure closure) {
-        def delegate = new RequiresDelegate()
-        def requirements = closure.rehydrate(delegate, closure.owner, closure.thisObject)
         game.addSystem(new ECSSystem() {
             @Override
             void startGame(ECSGame game) {
                 game.getEvents().registerHandlerAfter(this, ActionAllowedCheckEvent, {
                     if (it.action.name == name) {
+                        // a new delegate for each check, as the handler is shared with forks of the game that may run on other threads
+                        def delegate = new RequiresDelegate()
+                        def requirements = closure.rehydrate(delegate, closure.owner, closure.thisObject)
                         delegate.setup(it)
                         requirements.call(it)
                         it.setAllowed(delegate.allowed)
@@ -36,10 +36,10 @@ public class PlayerDelegate {
     }
 
     def endTurnAction() {
-        PhaseController phaseController = ComponentRetriever.singleton(entity.game, PhaseController)
+        // look up the phases from the owner of the action, as the action is also used in forks of the game
         entity.getComponent(ActionComponent).addAction(new ECSAction(entity, "End Turn",
-                {act -> phaseController.currentPhase.owner == entity},
-                {act -> phaseController.nextPhase()}))
+                {act -> ComponentRetriever.singleton(act.owner.game, PhaseController).currentPhase.owner == act.owner},
+                {act -> ComponentRetriever.singleton(act.owner.game, PhaseController).nextPhase()}))
     }
 
     def hand() {
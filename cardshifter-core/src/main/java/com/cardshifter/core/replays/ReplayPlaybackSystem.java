@@ -23,6 +23,7 @@ import com.cardshifter.modapi.ai.AISystem;
 import com.cardshifter.modapi.base.ECSGame;
 import com.cardshifter.modapi.base.ECSSystem;
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.GameFork;
 import com.cardshifter.modapi.base.PlayerComponent;
 import com.cardshifter.modapi.events.StartGameEvent;
 
@@ -65,6 +66,11 @@ public class ReplayPlaybackSystem implements ECSSystem {
 		players.forEach(this::giveReplayControls);
 	}
 	
+	@Override
+	public ECSSystem fork(GameFork fork) {
+		return null;
+	}
+	
 	private void setPlayerName(Entity playerEntity) {
 		PlayerComponent playerInfo = playerEntity.getComponent(PlayerComponent.class);
 		int index = playerInfo.getIndex();
@@ -22,6 +22,7 @@ import com.cardshifter.modapi.actions.ActionPerformEvent;
 import com.cardshifter.modapi.base.ECSGame;
 import com.cardshifter.modapi.base.ECSSystem;
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.GameFork;
 import com.cardshifter.modapi.base.PlayerComponent;
 import com.cardshifter.modapi.events.GameOverEvent;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -69,6 +70,14 @@ public class ReplayRecordSystem implements ECSSystem {
 		}
 	}
 
+	/**
+	 * Replays are only recorded for the real game, not for forks of it
+	 */
+	@Override
+	public ECSSystem fork(GameFork fork) {
+		return null;
+	}
+
 	@Override
 	public void startGame(ECSGame game) {
 		if (file == null) {
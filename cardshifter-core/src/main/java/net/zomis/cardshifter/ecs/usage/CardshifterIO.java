@@ -6,6 +6,7 @@ import com.cardshifter.api.config.DeckConfig;
 import com.cardshifter.api.messages.Message;
 import com.cardshifter.api.outgoing.CardInfoMessage;
 import com.cardshifter.api.outgoing.ErrorMessage;
+import com.cardshifter.api.serial.ByteFormat;
 import com.cardshifter.api.serial.ByteTransformer;
 import com.cardshifter.serialization.NormalReflection;
 import com.cardshifter.core.Log4jAdapter;
@@ -17,6 +18,11 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 
 public class CardshifterIO {
 
+	/**
+	 * Shared by all byte transformers, so that they also share the fields of each message class
+	 */
+	private static final NormalReflection REFLECTION = new NormalReflection();
+
 	public static void configureMapper(ObjectMapper mapper) {
 		mapper.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
 		mapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
@@ -38,6 +44,10 @@ public class CardshifterIO {
 	}
 	
     public static ByteTransformer createByteTransformer() {
-        return new ByteTransformer(new Log4jAdapter(), new NormalReflection());
+        return createByteTransformer(ByteFormat.ORIGINAL);
+    }
+
+    public static ByteTransformer createByteTransformer(ByteFormat format) {
+        return new ByteTransformer(new Log4jAdapter(), REFLECTION, format);
     }
 }
@@ -37,7 +37,9 @@ public class TestMod implements ECSMod {
             ActionComponent actions = new ActionComponent();
             player.addComponent(actions);
 
-            ECSAction endTurnAction = new ECSAction(player, END_TURN_ACTION, act -> phaseController.getCurrentPhase() == playerPhase, act -> phaseController.nextPhase());
+            // the phase controller is looked up from the owner of the action, as the action is also used in forks of the game
+            ECSAction endTurnAction = new ECSAction(player, END_TURN_ACTION,
+                    act -> phases(act).getCurrentEntity() == act.getOwner(), act -> phases(act).nextPhase());
             actions.addAction(endTurnAction);
 
             ECSResourceMap.createFor(player)
@@ -68,6 +70,10 @@ public class TestMod implements ECSMod {
         game.addSystem(new PerformerMustBeCurrentPlayer());
     }
 
+    private static PhaseController phases(ECSAction action) {
+        return ComponentRetriever.singleton(action.getOwner().getGame(), PhaseController.class);
+    }
+
     private void createCards(ZoneComponent hand) {
         for (int i = 0; i < 5; i++) {
             Entity entity = hand.getOwner().getGame().newEntity();
@@ -92,9 +98,10 @@ public class TestMod implements ECSMod {
     private ECSAction damageAction(Entity entity) {
         ResourceRetriever health = ResourceRetriever.forResource(CyborgChroniclesGame.CyborgChroniclesResources.HEALTH);
         return new ECSAction(entity, "Damage", act -> true, act -> {
-            health.resFor(entity).change(-1);
-            if (health.getFor(entity) == 0) {
-                entity.destroy();
+            Entity owner = act.getOwner();
+            health.resFor(owner).change(-1);
+            if (health.getFor(owner) == 0) {
+                owner.destroy();
             }
         });
     }
@@ -105,7 +112,7 @@ public class TestMod implements ECSMod {
             Entity player = Players.findOwnerFor(act.getOwner());
             final Entity origPlayer = player;
             if (switchPlayer) {
-                Set<Entity> players = entity.getGame().getEntitiesWithComponent(PlayerComponent.class);
+                Set<Entity> players = act.getOwner().getGame().getEntitiesWithComponent(PlayerComponent.class);
                 player = players.stream().filter(pl -> pl != origPlayer).findAny().get();
             }
             card.moveToBottom(player.getComponent(zone));
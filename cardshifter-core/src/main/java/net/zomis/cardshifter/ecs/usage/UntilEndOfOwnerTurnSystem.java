@@ -38,8 +38,10 @@ public class UntilEndOfOwnerTurnSystem implements ECSSystem {
 	 * @param event The PhaseEndEvent object
 	 */
 	private void phaseEnd(PhaseEndEvent event) {
-		if (owner == event.getOldPhase().getOwner()) {
-			owner.getGame().removeSystem(system);
+		// compared by id as the system is shared with forks of the game
+		Entity phaseOwner = event.getOldPhase().getOwner();
+		if (owner != null && phaseOwner != null && owner.getId() == phaseOwner.getId()) {
+			event.getGame().removeSystem(system);
 		}
 	}
 
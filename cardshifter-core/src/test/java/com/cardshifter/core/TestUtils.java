@@ -2,6 +2,7 @@ package com.cardshifter.core;
 
 import com.cardshifter.ai.AIs;
 import com.cardshifter.ai.ScoringAI;
+import com.cardshifter.core.game.GameMailbox;
 import com.cardshifter.core.game.ModCollection;
 import com.cardshifter.core.modloader.ECSModTest;
 import com.cardshifter.core.modloader.GroovyMod;
@@ -127,16 +128,20 @@ public class TestUtils {
                 mod.setupGame(game);
                 game.startGame();
 
+                // the game is only changed through its mailbox, moves from several threads are done one at a time
+                GameMailbox mailbox = new GameMailbox();
                 List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
                 List<Thread> threads = new ArrayList<>();
                 for (Entity player : players) {
                     Thread thread = new Thread(() -> {
                         try {
                             while (!game.isGameOver()) {
-                                ECSAction action = ai.getAction(player);
-                                if (action != null && action.perform(player)) {
-                                    System.out.println(player + " performed " + action);
-                                }
+                                mailbox.executeAndWait(() -> {
+                                    ECSAction action = ai.getAction(player);
+                                    if (action != null && action.perform(player)) {
+                                        System.out.println(player + " performed " + action);
+                                    }
+                                });
                             }
                         } catch (Exception ex) {
                             ex.printStackTrace();
@@ -0,0 +1,90 @@
+package com.cardshifter.core.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class GameMailboxTest {
+
+	@Test(timeout = 20000)
+	public void tasksRunOneAtATimeInOrder() throws InterruptedException {
+		ExecutorService workers = Executors.newFixedThreadPool(4);
+		GameMailbox mailbox = new GameMailbox(workers);
+		int senders = 4;
+		int tasksPerSender = 2000;
+		List<List<Integer>> received = new ArrayList<>();
+		AtomicInteger running = new AtomicInteger();
+		AtomicBoolean overlapped = new AtomicBoolean();
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < senders; i++) {
+			List<Integer> list = new ArrayList<>();
+			received.add(list);
+			threads.add(new Thread(() -> {
+				for (int task = 0; task < tasksPerSender; task++) {
+					int value = task;
+					mailbox.execute(() -> {
+						if (running.incrementAndGet() != 1) {
+							overlapped.set(true);
+						}
+						list.add(value);
+						running.decrementAndGet();
+					});
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		mailbox.executeAndWait(() -> {});
+		workers.shutdown();
+		assertTrue(workers.awaitTermination(10, TimeUnit.SECONDS));
+
+		assertFalse(overlapped.get());
+		for (List<Integer> list : received) {
+			assertEquals(tasksPerSender, list.size());
+			for (int i = 0; i < tasksPerSender; i++) {
+				assertEquals(i, (int) list.get(i));
+			}
+		}
+	}
+
+	@Test(timeout = 20000)
+	public void executeAndWaitRethrows() {
+		GameMailbox mailbox = new GameMailbox();
+		try {
+			mailbox.executeAndWait(() -> {
+				throw new IllegalStateException("expected");
+			});
+		}
+		catch (IllegalStateException e) {
+			assertEquals("expected", e.getMessage());
+			return;
+		}
+		throw new AssertionError("exception was not rethrown");
+	}
+
+	@Test(timeout = 20000)
+	public void executeAndWaitFromMailboxRunsDirectly() {
+		GameMailbox mailbox = new GameMailbox();
+		AtomicBoolean inner = new AtomicBoolean();
+		mailbox.executeAndWait(() -> {
+			assertTrue(mailbox.isMailboxThread());
+			mailbox.executeAndWait(() -> inner.set(true));
+			assertTrue(inner.get());
+		});
+		assertTrue(inner.get());
+		assertFalse(mailbox.isMailboxThread());
+	}
+
+}
@@ -0,0 +1,147 @@
+package com.cardshifter.core.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.cardshifter.api.ClientIO;
+import com.cardshifter.api.ClientServerInterface;
+import com.cardshifter.api.LogInterface;
+import com.cardshifter.api.messages.Message;
+import com.cardshifter.api.outgoing.UsableActionsChangeMessage;
+import com.cardshifter.modapi.actions.Actions;
+import com.cardshifter.modapi.actions.ECSAction;
+import com.cardshifter.modapi.base.ECSGameState;
+import com.cardshifter.modapi.base.Entity;
+
+import net.zomis.cardshifter.ecs.usage.TestMod;
+
+public class TCGGameTest {
+
+	private final ClientServerInterface server = new ClientServerInterface() {
+		private int clientId;
+
+		@Override
+		public void handleMessage(ClientIO clientIO, String message) {
+		}
+
+		@Override
+		public void performIncoming(Message message, ClientIO clientIO) {
+		}
+
+		@Override
+		public void onDisconnected(ClientIO clientIO) {
+		}
+
+		@Override
+		public synchronized int newClientId() {
+			return ++clientId;
+		}
+
+		@Override
+		public LogInterface getLogger() {
+			return new LogInterface() {
+				@Override
+				public void info(String obj) {
+				}
+
+				@Override
+				public void error(String obj, Throwable throwable) {
+				}
+			};
+		}
+	};
+
+	@Test(timeout = 20000)
+	public void allActionsAreResentToRejoiningClient() {
+		List<UsableActionsChangeMessage> received = new CopyOnWriteArrayList<>();
+		FakeClient client = new FakeClient(server, message -> {
+			if (message instanceof UsableActionsChangeMessage) {
+				received.add((UsableActionsChangeMessage) message);
+			}
+		});
+		TCGGame game = new TCGGame(Executors::newSingleThreadScheduledExecutor, "TestMod", 1, new TestMod());
+		List<ClientIO> clients = Arrays.asList(client, new FakeClient(server, message -> {}));
+		game.start(clients);
+		GameMailbox mailbox = game.getMailbox();
+		mailbox.executeAndWait(() -> {});
+		assertFalse(received.isEmpty());
+		assertTrue(received.get(0).isReset());
+
+		List<String> expected = new ArrayList<>();
+		mailbox.executeAndWait(() -> {
+			for (ClientIO io : clients) {
+				Entity player = game.playerFor(io);
+				List<ECSAction> actions = Actions.getPossibleActionsFor(player);
+				if (!actions.isEmpty()) {
+					assertTrue(actions.get(0).perform(player));
+					break;
+				}
+			}
+			Actions.getPossibleActionsFor(game.playerFor(client)).forEach(usable -> expected.add(usable.getOwner().getId() + " " + usable.getName()));
+		});
+		received.clear();
+
+		mailbox.executeAndWait(() -> game.resendAvailableActions(client));
+		assertEquals(1, received.size());
+		UsableActionsChangeMessage message = received.get(0);
+		assertTrue(message.isReset());
+		assertEquals(0, message.getRemovedIds().length);
+		assertEquals(expected, message.createAddedMessages().stream()
+			.map(usable -> usable.getId() + " " + usable.getAction())
+			.collect(Collectors.toList()));
+	}
+
+	@Test(timeout = 20000)
+	public void startDoesNotWaitForTheMailbox() throws InterruptedException {
+		FakeClient client = new FakeClient(server, message -> {});
+		FakeClient other = new FakeClient(server, message -> {});
+		TCGGame game = new TCGGame(Executors::newSingleThreadScheduledExecutor, "TestMod", 1, new TestMod());
+		CountDownLatch busy = new CountDownLatch(1);
+		game.execute(() -> {
+			try {
+				busy.await();
+			}
+			catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		});
+
+		game.start(Arrays.asList(client, other));
+		assertTrue(game.hasPlayer(client));
+		assertEquals(ECSGameState.NOT_STARTED, game.getState());
+
+		busy.countDown();
+		game.getMailbox().executeAndWait(() -> {});
+		assertEquals(ECSGameState.RUNNING, game.getState());
+	}
+
+	@Test(timeout = 20000)
+	public void disconnectedClientIsUnbound() {
+		FakeClient client = new FakeClient(server, message -> {});
+		FakeClient other = new FakeClient(server, message -> {});
+		TCGGame game = new TCGGame(Executors::newSingleThreadScheduledExecutor, "TestMod", 1, new TestMod());
+		game.start(Arrays.asList(client, other));
+		game.getMailbox().executeAndWait(() -> {});
+		assertEquals(0, game.getGameModel().getPlayerRegistry().indexOf(client));
+		assertEquals(1, game.getGameModel().getPlayerRegistry().indexOf(other));
+
+		game.disconnect(client);
+		game.getMailbox().executeAndWait(() -> {});
+		assertFalse(game.hasPlayer(client));
+		assertEquals(-1, game.getGameModel().getPlayerRegistry().indexOf(client));
+		assertEquals(1, game.getGameModel().getPlayerRegistry().indexOf(other));
+		assertEquals(Arrays.asList(other), game.getPlayers());
+	}
+
+}
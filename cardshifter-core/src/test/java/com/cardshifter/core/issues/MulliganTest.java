@@ -60,6 +60,11 @@ public class MulliganTest {
 		assertHandCards(player0, new int[]{ 0, 1, 2, 3 });
 		assertHandCards(player1, new int[]{ 0, 1, 2, 3 });
 		
+		TargetSet mulliganTargets = actionFor(player0).getTargetSets().get(0);
+		List<Entity> possibleTargets = mulliganTargets.findPossibleTargets();
+		assertEquals(game.findEntities(mulliganTargets::isTargetable), possibleTargets);
+		assertEquals(player0.get(hand).getCards(), possibleTargets);
+		
 		performMulligan(player0, new int[]{ 0, 2, 3 });
 		assertNull(actionFor(player0));
 		performMulligan(player1, new int[]{ 1 });
@@ -0,0 +1,107 @@
+package net.zomis.cardshifter.ecs;
+
+import com.cardshifter.core.game.GameMailbox;
+import com.cardshifter.modapi.actions.ActionPerformEvent;
+import com.cardshifter.modapi.actions.Actions;
+import com.cardshifter.modapi.actions.ECSAction;
+import com.cardshifter.modapi.ai.AIComponent;
+import com.cardshifter.modapi.ai.AIComputePool;
+import com.cardshifter.modapi.ai.AISystem;
+import com.cardshifter.modapi.base.*;
+import net.zomis.cardshifter.ecs.usage.TestMod;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class AIComputePoolTest extends GameTest {
+
+	@Override
+	protected void setupGame(ECSGame game) {
+		ECSMod mod = new TestMod();
+		mod.declareConfiguration(game);
+		mod.setupGame(game);
+	}
+	
+	@Override
+	protected void onAfterGameStart() {
+		assertNotNull(phase.getCurrentEntity());
+	}
+	
+	@Test(timeout = 20000)
+	public void aiDecidesOnForkInComputePool() throws InterruptedException {
+		AIComputePool pool = new AIComputePool(1, 1000);
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		GameMailbox mailbox = new GameMailbox();
+		Entity player = currentPlayer();
+		List<ECSGame> decidedOn = new CopyOnWriteArrayList<>();
+		CountDownLatch performed = new CountDownLatch(1);
+		AIComponent ai = new AIComponent(entity -> {
+			decidedOn.add(entity.getGame());
+			List<ECSAction> actions = Actions.getPossibleActionsFor(entity);
+			return actions.isEmpty() ? null : actions.get(0);
+		});
+		ai.setDelay(0);
+		mailbox.executeAndWait(() -> {
+			game.getEvents().registerHandlerAfter(this, ActionPerformEvent.class, event -> {
+				if (event.getPerformer() == player) {
+					performed.countDown();
+				}
+			});
+			player.addComponent(ai);
+			AISystem.setup(game, scheduler, mailbox, pool);
+		});
+		
+		assertTrue(performed.await(10, TimeUnit.SECONDS));
+		mailbox.executeAndWait(() -> ai.setPaused(true));
+		pool.shutdown();
+		scheduler.shutdownNow();
+		assertFalse(decidedOn.isEmpty());
+		assertFalse(decidedOn.contains(game));
+		assertTrue(pool.getCompletedCount() > 0);
+	}
+	
+	@Test(timeout = 20000)
+	public void decisionIsCancelledWhenGameIsOver() throws InterruptedException {
+		AIComputePool pool = new AIComputePool(1, 1000);
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		GameMailbox mailbox = new GameMailbox();
+		Entity player = currentPlayer();
+		CountDownLatch deciding = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		AtomicInteger performed = new AtomicInteger();
+		AIComponent ai = new AIComponent(entity -> {
+			deciding.countDown();
+			try {
+				Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+			}
+			catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+			return Actions.getPossibleActionsFor(entity).get(0);
+		});
+		ai.setDelay(0);
+		mailbox.executeAndWait(() -> {
+			game.getEvents().registerHandlerAfter(this, ActionPerformEvent.class, event -> performed.incrementAndGet());
+			player.addComponent(ai);
+			AISystem.setup(game, scheduler, mailbox, pool);
+		});
+		
+		assertTrue(deciding.await(10, TimeUnit.SECONDS));
+		mailbox.executeAndWait(game::endGame);
+		assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+		mailbox.executeAndWait(() -> {});
+		pool.shutdown();
+		scheduler.shutdownNow();
+		assertEquals(1, pool.getCancelledCount());
+		assertEquals(0, performed.get());
+	}
+	
+}
@@ -1,6 +1,8 @@
 package net.zomis.cardshifter.ecs;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
@@ -9,6 +11,7 @@ import com.cardshifter.modapi.base.Component;
 import com.cardshifter.modapi.base.ComponentRetriever;
 import com.cardshifter.modapi.base.ECSGame;
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.EntityFamily;
 
 public class ECSTest {
 
@@ -22,6 +25,9 @@ public class ECSTest {
 		
 	}
 	
+	private static class OtherComponent extends Component {
+	}
+	
 	@Test
 	public void entityWithHealth() {
 		ECSGame game = new ECSGame();
@@ -33,4 +39,42 @@ public class ECSTest {
 		assertEquals(5, retreiver.get(entity).value);
 	}
 	
+	@Test
+	public void removeMissingComponent() {
+		ECSGame game = new ECSGame();
+		Entity entity = game.newEntity().addComponent(new TestComponent(1));
+		EntityFamily tests = game.getFamily(TestComponent.class);
+		entity.removeComponent(OtherComponent.class);
+		assertTrue(tests.contains(entity));
+		
+		entity.removeComponent(TestComponent.class);
+		assertFalse(tests.contains(entity));
+		assertFalse(entity.hasComponent(TestComponent.class));
+	}
+	
+	@Test
+	public void familiesFollowComponentChanges() {
+		ECSGame game = new ECSGame();
+		Entity both = game.newEntity().addComponent(new TestComponent(1)).addComponent(new OtherComponent());
+		Entity single = game.newEntity().addComponent(new TestComponent(2));
+		
+		EntityFamily tests = game.getFamily(TestComponent.class);
+		EntityFamily family = game.getFamily(TestComponent.class, OtherComponent.class);
+		assertSame(family, game.getFamily(OtherComponent.class, TestComponent.class));
+		assertEquals(2, tests.size());
+		assertEquals(1, family.size());
+		assertTrue(family.contains(both));
+		
+		single.addComponent(new OtherComponent());
+		assertEquals(2, family.size());
+		assertEquals(2, game.getEntitiesWithComponent(OtherComponent.class).size());
+		
+		both.destroy();
+		assertFalse(tests.contains(both));
+		assertFalse(family.contains(both));
+		assertEquals(1, family.size());
+		assertSame(single, family.first());
+		assertEquals(1, game.getEntitiesWithComponent(TestComponent.class).size());
+	}
+	
 }
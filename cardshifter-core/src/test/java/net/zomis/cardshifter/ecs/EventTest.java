@@ -4,11 +4,14 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
 
+import com.cardshifter.modapi.base.CancellableEvent;
 import com.cardshifter.modapi.base.ECSGame;
+import com.cardshifter.modapi.events.GameOverEvent;
 import com.cardshifter.modapi.events.IEvent;
 
 public class EventTest {
@@ -47,4 +50,34 @@ public class EventTest {
 		assertEquals("Test1", pre.get(0).data);
 	}
 	
+	@Test
+	public void removeHandlersDuringEvent() {
+		List<String> calls = new ArrayList<>();
+		game.getEvents().registerHandlerAfter(this, TestEvent.class, event -> {
+			calls.add("first " + event.data);
+			game.getEvents().removeListenersWithIdentifier(this);
+		});
+		game.getEvents().registerHandlerAfter(this, TestEvent.class, event -> calls.add("second " + event.data));
+		game.getEvents().registerHandlerBefore(game, TestEvent.class, event -> calls.add("before " + event.data));
+		
+		game.executeEvent(new TestEvent("A"), () -> {});
+		game.executeEvent(new TestEvent("B"), () -> {});
+		assertEquals(Arrays.asList("before A", "first A", "second A", "before B"), calls);
+	}
+	
+	@Test
+	public void handleEventSupertypes() {
+		List<String> calls = new ArrayList<>();
+		game.executeEvent(new TestEvent("ignored"), () -> {});
+		game.getEvents().registerHandlerAfter(this, IEvent.class, event -> calls.add("any " + event.getClass().getSimpleName()));
+		game.getEvents().registerHandlerAfter(this, TestEvent.class, event -> calls.add("test " + event.data));
+		game.getEvents().registerHandlerBefore(this, CancellableEvent.class, event -> event.setCancelled(true));
+		
+		game.executeEvent(new TestEvent("A"), () -> {});
+		game.executeCancellableEvent(new GameOverEvent(game), () -> calls.add("not cancelled"));
+		game.getEvents().removeListenersWithIdentifier(this);
+		game.executeEvent(new TestEvent("B"), () -> {});
+		assertEquals(Arrays.asList("any TestEvent", "test A"), calls);
+	}
+	
 }
@@ -0,0 +1,98 @@
+package net.zomis.cardshifter.ecs;
+
+import com.cardshifter.modapi.actions.ActionComponent;
+import com.cardshifter.modapi.actions.ECSAction;
+import com.cardshifter.modapi.attributes.AttributeRetriever;
+import com.cardshifter.modapi.attributes.Attributes;
+import com.cardshifter.modapi.base.*;
+import com.cardshifter.modapi.cards.HandComponent;
+import com.cardshifter.modapi.events.EntityRemoveEvent;
+import com.cardshifter.modapi.phase.PhaseController;
+import com.cardshifter.modapi.phase.PhaseStartEvent;
+import com.cardshifter.modapi.players.Players;
+import com.cardshifter.modapi.resources.ResourceRetriever;
+import net.zomis.cardshifter.ecs.effects.Effects;
+import net.zomis.cardshifter.ecs.usage.CyborgChroniclesGame.CyborgChroniclesResources;
+import net.zomis.cardshifter.ecs.usage.TestMod;
+import org.junit.Test;
+
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+public class GameForkTest extends GameTest {
+
+	private final Predicate<Entity> hasName(String str) {
+		AttributeRetriever name = AttributeRetriever.forAttribute(Attributes.NAME);
+		return e -> name.getOrDefault(e, "").equals(str);
+	}
+
+	@Override
+	protected void setupGame(ECSGame game) {
+		ECSMod mod = new TestMod();
+		mod.declareConfiguration(game);
+		mod.setupGame(game);
+	}
+	
+	@Override
+	protected void onAfterGameStart() {
+		assertNotNull(phase.getCurrentEntity());
+	}
+	
+	@Test
+	public void forkIsIndependent() {
+		Entity entity = cardToHand(hasName("Test"));
+		Entity player = currentPlayer();
+		HandComponent myHand = hand.get(player);
+		
+		ECSGame fork = game.fork();
+		Entity forkedCard = fork.getEntity(entity.getId());
+		Entity forkedPlayer = fork.getEntity(player.getId());
+		HandComponent forkedHand = hand.get(forkedPlayer);
+		assertNotSame(entity, forkedCard);
+		assertEquals(5, forkedHand.size());
+		assertSame(forkedPlayer, ComponentRetriever.singleton(fork, PhaseController.class).getCurrentEntity());
+		
+		ECSAction action = forkedCard.getComponent(ActionComponent.class).getAction("2-Hand");
+		assertTrue(action.perform(forkedPlayer));
+		assertEquals(4, forkedHand.size());
+		assertEquals(5, myHand.size());
+		assertFalse(myHand.stream().anyMatch(card -> card.getGame() == fork));
+		
+		useAction(entity, "2-Hand");
+		assertEquals(4, myHand.size());
+	}
+	
+	@Test
+	public void triggersFollowFork() {
+		ResourceRetriever health = ResourceRetriever.forResource(CyborgChroniclesResources.HEALTH);
+		Effects effects = new Effects();
+		Entity player = currentPlayer();
+		Entity startOfTurn = hand.get(player).getCards().get(0);
+		Entity onDeath = hand.get(player).getCards().get(1);
+		game.addSystem(new Effects.InGameSystem(startOfTurn, effects.triggerSystem(PhaseStartEvent.class,
+				(source, event) -> Players.findOwnerFor(source) == event.getNewPhase().getOwner(),
+				(source, event) -> health.resFor(source).change(1)).apply(startOfTurn)));
+		game.addSystem(new Effects.InGameSystem(onDeath, effects.triggerSystemBefore(EntityRemoveEvent.class,
+				(source, event) -> source == event.getEntity(),
+				(source, event) -> health.resFor(Players.findOwnerFor(source)).change(5)).apply(onDeath)));
+		
+		ECSGame fork = game.fork();
+		PhaseController forkedPhases = ComponentRetriever.singleton(fork, PhaseController.class);
+		forkedPhases.nextPhase();
+		forkedPhases.nextPhase();
+		assertEquals(4, health.getFor(fork.getEntity(startOfTurn.getId())));
+		assertEquals(3, health.getFor(startOfTurn));
+		
+		fork.getEntity(onDeath.getId()).destroy();
+		assertEquals(35, health.getFor(fork.getEntity(player.getId())));
+		assertEquals(30, health.getFor(player));
+		
+		nextPhase();
+		nextPhase();
+		assertEquals(4, health.getFor(startOfTurn));
+		onDeath.destroy();
+		assertEquals(35, health.getFor(player));
+	}
+	
+}
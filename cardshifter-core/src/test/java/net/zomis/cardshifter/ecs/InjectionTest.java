@@ -58,4 +58,20 @@ public class InjectionTest {
 		assertEquals("Main", phases.getCurrentPhase().getName());
 	}
 	
+	@Test
+	public void injectSameClassForAnotherGame() {
+		for (int index = 0; index < 3; index++) {
+			ECSGame game = new ECSGame();
+			PhaseController phase = new PhaseController();
+			phase.addPhase(new Phase(null, "Phase " + index));
+			game.newEntity().addComponent(phase);
+			Entity player = game.newEntity().addComponent(new PlayerComponent(index, "Tester"));
+			
+			Retrievers.inject(this, game);
+			
+			assertSame(phase, phases);
+			assertEquals(index, playerData.get(player).getIndex());
+		}
+	}
+	
 }
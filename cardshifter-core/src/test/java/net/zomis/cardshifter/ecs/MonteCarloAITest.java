@@ -0,0 +1,65 @@
+package net.zomis.cardshifter.ecs;
+
+import com.cardshifter.ai.MonteCarloAI;
+import com.cardshifter.modapi.actions.ECSAction;
+import com.cardshifter.modapi.actions.TargetSet;
+import com.cardshifter.modapi.ai.AIComputePool;
+import com.cardshifter.modapi.base.*;
+import net.zomis.cardshifter.ecs.usage.TestMod;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class MonteCarloAITest extends GameTest {
+
+	@Override
+	protected void setupGame(ECSGame game) {
+		ECSMod mod = new TestMod();
+		mod.declareConfiguration(game);
+		mod.setupGame(game);
+	}
+	
+	@Override
+	protected void onAfterGameStart() {
+		assertNotNull(phase.getCurrentEntity());
+	}
+	
+	@Test
+	public void monteCarloChoosesAllowedAction() {
+		MonteCarloAI ai = new MonteCarloAI(player -> 0.5, (player, config) -> {}, 40, 10000, 5, ForkJoinPool.commonPool());
+		ECSAction action = ai.getAction(currentPlayer());
+		assertNotNull(action);
+		assertSame(game, action.getOwner().getGame());
+		assertTrue(action.isAllowed(currentPlayer()));
+	}
+	
+	@Test
+	public void monteCarloKeepsChosenTargets() {
+		Entity player = currentPlayer();
+		ECSAction targeted = new ECSAction(player, "Target", act -> true, act -> {}).addTargetSet(2, 2);
+		actions.get(player).addAction(targeted);
+		TargetSet targets = targeted.getTargetSets().get(0);
+		assertTrue(targets.addTarget(getOpponent()));
+		MonteCarloAI ai = new MonteCarloAI(entity -> 0.5, (entity, config) -> {}, 40, 10000, 5, ForkJoinPool.commonPool());
+		assertNotNull(ai.getAction(player));
+		assertEquals(Collections.singletonList(getOpponent()), targets.getChosenTargets());
+	}
+	
+	@Test(timeout = 20000)
+	public void monteCarloDecidesWithinBudget() throws Exception {
+		AIComputePool pool = new AIComputePool(1, 1000);
+		MonteCarloAI ai = new MonteCarloAI(player -> 0.5, (player, config) -> {}, Integer.MAX_VALUE, 10000, 5, ForkJoinPool.commonPool());
+		ECSGame fork = game.fork();
+		Entity player = fork.getEntity(currentPlayer().getId());
+		ECSAction action = pool.decide(ai, player, decision -> {}).get();
+		pool.shutdown();
+		assertNotNull("Unlimited playouts should stop when the budget is used", action);
+		assertSame(fork, action.getOwner().getGame());
+		assertTrue(action.isAllowed(player));
+		assertEquals(1, pool.getCompletedCount());
+	}
+	
+}
@@ -2,6 +2,10 @@ package net.zomis.cardshifter.ecs;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -9,6 +13,7 @@ import com.cardshifter.modapi.base.ECSGame;
 import com.cardshifter.modapi.base.Entity;
 import com.cardshifter.modapi.phase.Phase;
 import com.cardshifter.modapi.phase.PhaseController;
+import com.cardshifter.modapi.phase.TurnStartSystem;
 
 public class PhaseControllerTest {
 
@@ -24,6 +29,18 @@ public class PhaseControllerTest {
 		owner.addComponent(controller);
 	}
 	
+	@Test
+	public void turnStartOncePerPhase() {
+		List<String> started = new ArrayList<>();
+		game.addSystem(new TurnStartSystem(phase -> started.add(phase.getName())));
+		controller.addPhase(new Phase(owner, "a"));
+		controller.addPhase(new Phase(owner, "b"));
+		game.startGame();
+		controller.nextPhase();
+		controller.nextPhase();
+		assertEquals(Arrays.asList("b", "a"), started);
+	}
+	
 	@Test
 	public void insertTemporaryAfterEnd() {
 		controller.addPhase(new Phase(owner, "a"));
@@ -1,10 +1,18 @@
 package net.zomis.cardshifter.ecs;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import com.cardshifter.modapi.actions.ActionComponent;
+import com.cardshifter.modapi.actions.ECSAction;
 import com.cardshifter.modapi.base.ComponentRetriever;
 import com.cardshifter.modapi.base.ECSGame;
 import com.cardshifter.modapi.base.Entity;
@@ -14,7 +22,11 @@ import com.cardshifter.modapi.phase.PhaseStartEvent;
 import com.cardshifter.modapi.resources.ECSResource;
 import com.cardshifter.modapi.resources.ECSResourceData;
 import com.cardshifter.modapi.resources.ECSResourceMap;
+import com.cardshifter.modapi.resources.EntityModifier;
+import com.cardshifter.modapi.resources.ResourceModifierComponent;
+import com.cardshifter.modapi.resources.ResourceRecountSystem;
 import com.cardshifter.modapi.resources.ResourceValueChange;
+import com.cardshifter.modapi.resources.ResourceViewUpdate;
 
 public class ResourceTest {
 
@@ -94,6 +106,90 @@ public class ResourceTest {
 		assertEquals("Resource B turn 4", 7, resB.get());
 	}
 	
+	@Test
+	public void copiedResourcesAreIndependent() {
+		Entity copy = entity.copy();
+		ECSResourceMap copyMap = resMapper.get(copy);
+		copyMap.set(TestResource.TEST_A, 3);
+		assertEquals(3, copyMap.getOrDefault(TestResource.TEST_A, -1));
+		assertEquals(10, resMapper.get(entity).getOrDefault(TestResource.TEST_A, -1));
+		assertEquals(5, copyMap.getResource(TestResource.TEST_B).get());
+	}
+	
+	@Test
+	public void missingResourceUsesDefault() {
+		Entity other = game.newEntity();
+		ECSResourceMap map = ECSResourceMap.createFor(other);
+		assertFalse(map.has(TestResource.TEST_A));
+		assertEquals(-1, map.getOrDefault(TestResource.TEST_A, -1));
+		assertEquals(0, TestResource.TEST_A.getFor(other));
+		map.getResource(TestResource.TEST_B).change(2);
+		assertTrue(map.has(TestResource.TEST_B));
+		assertEquals(2, TestResource.TEST_B.getFor(other));
+	}
+	
+	@Test
+	public void modifierResultsAreCachedUntilSomethingChanges() {
+		Entity holder = game.newEntity();
+		ResourceModifierComponent modifiers = new ResourceModifierComponent();
+		holder.addComponent(modifiers);
+		Entity target = game.newEntity();
+		ECSResourceMap map = ECSResourceMap.createFor(target).set(TestResource.TEST_A, 1);
+		AtomicInteger evaluations = new AtomicInteger();
+		modifiers.addModifier(TestResource.TEST_A, new EntityModifier(holder, 1, source -> true, (source, t) -> true,
+				(source, t, res, value) -> {
+					evaluations.incrementAndGet();
+					return value + 2;
+				}));
+		game.addSystem(new ResourceRecountSystem());
+		game.startGame();
+		
+		assertEquals(3, map.getOrDefault(TestResource.TEST_A, 0));
+		int evaluated = evaluations.get();
+		assertEquals(3, map.getOrDefault(TestResource.TEST_A, 0));
+		assertEquals(evaluated, evaluations.get());
+		
+		map.set(TestResource.TEST_A, 5);
+		assertEquals(7, map.getOrDefault(TestResource.TEST_A, 0));
+		evaluated = evaluations.get();
+		ECSResourceMap.createFor(holder).set(TestResource.TEST_B, 1);
+		assertEquals(7, map.getOrDefault(TestResource.TEST_A, 0));
+		assertEquals(evaluated + 1, evaluations.get());
+	}
+	
+	@Test
+	public void modifierDependingOnOtherEntitiesIsRecounted() {
+		Entity holder = game.newEntity();
+		ResourceModifierComponent modifiers = new ResourceModifierComponent();
+		holder.addComponent(modifiers);
+		Entity target = game.newEntity();
+		ECSResourceMap.createFor(target).set(TestResource.TEST_A, 1);
+		Entity creature = game.newEntity();
+		ECSResourceMap creatureMap = ECSResourceMap.createFor(creature);
+		// one more for each entity with a positive TEST_B, such as "+1 per creature on the battlefield"
+		modifiers.addModifier(TestResource.TEST_A, new EntityModifier(holder, 1, source -> true, (source, t) -> t == target,
+				(source, t, res, value) -> value + (int) game.getEntitiesWithComponent(ECSResourceMap.class).stream()
+					.filter(e -> TestResource.TEST_B.getFor(e) > 0).count()));
+		ECSAction summon = new ECSAction(creature, "Summon", act -> true, act -> creatureMap.set(TestResource.TEST_B, 1));
+		ECSAction pass = new ECSAction(creature, "Pass", act -> true, act -> {});
+		creature.addComponent(new ActionComponent().addAction(summon).addAction(pass));
+		game.addSystem(new ResourceRecountSystem());
+		game.startGame();
+		// everything is recounted after the first action
+		assertTrue(pass.perform(creature));
+		
+		List<Integer> updates = new ArrayList<>();
+		game.getEvents().registerHandlerAfter(this, ResourceViewUpdate.class, event -> {
+			if (event.getEntity() == target && event.getResource() == TestResource.TEST_A) {
+				updates.add(event.getNewValue());
+			}
+		});
+		int before = TestResource.TEST_A.getFor(target);
+		assertTrue(summon.perform(creature));
+		assertFalse("Target was not recounted", updates.isEmpty());
+		assertEquals(before + 1, (int) updates.get(updates.size() - 1));
+	}
+	
 	private void addResources(PhaseStartEvent event) {
 		ECSResource resource = event.getNewPhase().getName().equals("A") ? TestResource.TEST_A : TestResource.TEST_B;
 		entity.getComponent(ECSResourceMap.class).getResource(resource).change(1);
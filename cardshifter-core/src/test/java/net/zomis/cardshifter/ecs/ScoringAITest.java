@@ -0,0 +1,91 @@
+package net.zomis.cardshifter.ecs;
+
+import com.cardshifter.ai.ScoringAI;
+import com.cardshifter.ai.ScoringCache;
+import com.cardshifter.modapi.actions.Actions;
+import com.cardshifter.modapi.actions.ECSAction;
+import com.cardshifter.modapi.actions.TargetSelection;
+import com.cardshifter.modapi.base.*;
+import net.zomis.aiscores.ScoreConfigFactory;
+import net.zomis.aiscores.scorers.SimpleScorer;
+import net.zomis.cardshifter.ecs.usage.TestMod;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class ScoringAITest extends GameTest {
+
+	@Override
+	protected void setupGame(ECSGame game) {
+		ECSMod mod = new TestMod();
+		mod.declareConfiguration(game);
+		mod.setupGame(game);
+	}
+	
+	@Override
+	protected void onAfterGameStart() {
+		assertNotNull(phase.getCurrentEntity());
+	}
+	
+	@Test
+	public void parallelScoringChoosesBestAction() {
+		assertTrue("Not enough actions to score in parallel", Actions.getAllActions(game).size() >= 16);
+		ScoreConfigFactory<Entity, ECSAction> config = new ScoreConfigFactory<>();
+		config.withScorer(new SimpleScorer<Entity, ECSAction>((action, params) -> action.getOwner().getId()));
+		ForkJoinPool pool = new ForkJoinPool(2);
+		ScoringAI ai = new ScoringAI(config, (player, comp) -> {}, pool);
+		Entity player = currentPlayer();
+		int best = Actions.getPossibleActionsFor(player).stream().mapToInt(action -> action.getOwner().getId()).max().getAsInt();
+		ECSAction action = ai.getAction(player);
+		pool.shutdown();
+		assertNotNull(action);
+		assertSame(game, action.getOwner().getGame());
+		assertTrue(action.isAllowed(player));
+		assertEquals(best, action.getOwner().getId());
+	}
+	
+	@Test
+	public void scorersChooseTargetsOncePerActionWithoutChangingActions() {
+		Entity player = currentPlayer();
+		List<ECSAction> possible = Actions.getPossibleActionsFor(player);
+		Entity opponent = getOpponent();
+		AtomicInteger chosen = new AtomicInteger();
+		Function<ECSAction, TargetSelection> chooser = action -> {
+			chosen.incrementAndGet();
+			return action == possible.get(0) ? TargetSelection.of(opponent) : TargetSelection.NONE;
+		};
+		ScoreConfigFactory<Entity, ECSAction> config = new ScoreConfigFactory<>();
+		config.withScorer(new SimpleScorer<Entity, ECSAction>((action, params) -> ScoringCache.select(action, chooser).getTargets(0).size()));
+		config.withScorer(new SimpleScorer<Entity, ECSAction>((action, params) -> ScoringCache.select(action, chooser).getTargets(0).size()));
+		ScoringAI ai = new ScoringAI(config);
+		ECSAction action = ai.getAction(player);
+		
+		assertEquals(possible.size(), chosen.get());
+		assertSame(possible.get(0), action);
+		for (ECSAction other : Actions.getAllActions(game)) {
+			if (other != action) {
+				assertTrue(other.getTargetSets().stream().allMatch(targets -> targets.getChosenTargets().isEmpty()));
+			}
+		}
+	}
+	
+	@Test
+	public void scoringChoosesNoActionWhenTargetsCanNotBeApplied() {
+		Entity removed = game.newEntity();
+		removed.destroy();
+		ScoreConfigFactory<Entity, ECSAction> config = new ScoreConfigFactory<>();
+		config.withScorer(new SimpleScorer<Entity, ECSAction>((action, params) -> {
+			ScoringCache.select(action, chosen -> TargetSelection.of(removed));
+			return action.getTargetSets().size();
+		}));
+		Entity player = currentPlayer();
+		actions.get(player).addAction(new ECSAction(player, "Target", act -> true, act -> {}).addTargetSet(1, 1));
+		assertNull(new ScoringAI(config).getAction(player));
+	}
+	
+}
@@ -40,6 +40,7 @@ import com.cardshifter.api.outgoing.PlayerMessage;
 import com.cardshifter.api.outgoing.ResetAvailableActionsMessage;
 import com.cardshifter.api.outgoing.UpdateMessage;
 import com.cardshifter.api.outgoing.UsableActionMessage;
+import com.cardshifter.api.outgoing.UsableActionsChangeMessage;
 import com.cardshifter.api.outgoing.WelcomeMessage;
 import com.cardshifter.api.outgoing.ZoneChangeMessage;
 import com.cardshifter.api.outgoing.ZoneMessage;
@@ -165,6 +166,8 @@ public class GameClientController {
 		} else if (message instanceof UsableActionMessage) {
 			this.savedMessages.add((UsableActionMessage)message);
 			this.processUseableActionMessage((UsableActionMessage)message);
+		} else if (message instanceof UsableActionsChangeMessage) {
+			this.processUsableActionsChangeMessage((UsableActionsChangeMessage)message);
 		} else if (message instanceof UpdateMessage) {
 			this.processUpdateMessage((UpdateMessage)message);
 		} else if (message instanceof ZoneChangeMessage) {
@@ -303,6 +306,23 @@ public class GameClientController {
 		
 	}
 	
+	private void processUsableActionsChangeMessage(UsableActionsChangeMessage message) {
+		if (message.isReset()) {
+			this.savedMessages.clear();
+		}
+		int[] removedIds = message.getRemovedIds();
+		String[] removedActions = message.getRemovedActions();
+		for (int i = 0; i < removedIds.length; i++) {
+			int id = removedIds[i];
+			String action = removedActions[i];
+			this.savedMessages.removeIf(saved -> saved.getId() == id && saved.getAction().equals(action));
+		}
+		this.savedMessages.addAll(message.createAddedMessages());
+		
+		//The actions are cleared when an action is sent, so show all of them again
+		this.cancelAction();
+	}
+	
 	private void processUpdateMessage(UpdateMessage message) {
 		if (message.getId() == this.playerId) {
 			this.processUpdateMessageForPlayer(playerStatBox, message, playerStatBoxMap);
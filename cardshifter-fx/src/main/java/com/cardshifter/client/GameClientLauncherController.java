@@ -5,6 +5,7 @@ import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.prefs.Preferences;
 
 import com.cardshifter.api.LogInterface;
@@ -41,7 +42,6 @@ import com.cardshifter.core.game.ModCollection;
 import com.cardshifter.core.game.TCGGame;
 import com.cardshifter.modapi.ai.AIComponent;
 import com.cardshifter.modapi.base.ECSMod;
-import com.cardshifter.modapi.base.Entity;
 import com.cardshifter.modapi.base.PlayerComponent;
 
 public final class GameClientLauncherController implements Initializable {
@@ -153,15 +153,15 @@ public final class GameClientLauncherController implements Initializable {
 			public void performIncoming(Message message, ClientIO clientIO) {
 				if (message instanceof UseAbilityMessage) {
 					UseAbilityMessage msg = (UseAbilityMessage) message;
-					game.handleMove(msg, clientIO);
+					game.execute(() -> game.handleMove(msg, clientIO));
 				}
 				if (message instanceof RequestTargetsMessage) {
 					RequestTargetsMessage msg = (RequestTargetsMessage) message;
-					game.informAboutTargets(msg, clientIO);
+					game.execute(() -> game.informAboutTargets(msg, clientIO));
 				}
 				if (message instanceof PlayerConfigMessage) {
 					PlayerConfigMessage msg = (PlayerConfigMessage) message;
-					game.incomingPlayerConfig(msg, clientIO);
+					game.execute(() -> game.incomingPlayerConfig(msg, clientIO));
 				}
 			}
 			
@@ -193,9 +193,10 @@ public final class GameClientLauncherController implements Initializable {
 			human = new FakeClient(singlePlayerHandler, msg -> handleMessage(msg, controller));
 			ClientIO ai = new FakeAIClientTCG(singlePlayerHandler, this.aiChoice.getAI());
 			game.start(Arrays.asList(human, ai));
-			Entity humanPlayer = game.playerFor(human);
-			PlayerComponent playerInfo = humanPlayer.getComponent(PlayerComponent.class);
-			controller.acceptConnectionSettings(new NewGameMessage(0, playerInfo.getIndex()), e -> human.sentToServer(e));
+			// the game starts in its mailbox, so look up the player there once it has started
+			AtomicInteger playerIndex = new AtomicInteger();
+			game.getMailbox().executeAndWait(() -> playerIndex.set(game.playerFor(human).getComponent(PlayerComponent.class).getIndex()));
+			controller.acceptConnectionSettings(new NewGameMessage(0, playerIndex.get()), e -> human.sentToServer(e));
 			
 			Scene scene = new Scene(root);
 			Stage gameStage = new Stage();
@@ -10,8 +10,10 @@ import java.util.Set;
 import com.cardshifter.modapi.base.Component;
 import com.cardshifter.modapi.base.CopyableComponent;
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.ForkableComponent;
+import com.cardshifter.modapi.base.GameFork;
 
-public class ActionComponent extends Component implements CopyableComponent {
+public class ActionComponent extends Component implements CopyableComponent, ForkableComponent {
 
 	private final Map<String, ECSAction> actions = new HashMap<>();
 
@@ -48,6 +50,15 @@ public class ActionComponent extends Component implements CopyableComponent {
 		return copy;
 	}
 
+	@Override
+	public Component fork(GameFork fork) {
+		ActionComponent copy = new ActionComponent();
+		for (ECSAction action : actions.values()) {
+			copy.addAction(action.fork(fork));
+		}
+		return copy;
+	}
+
 	@Override
 	public String toString() {
 		return "ActionComponent [actions=" + actions + "]";
@@ -20,7 +20,7 @@ public class Actions {
 	}
 	
 	public static List<ECSAction> getAllActions(ECSGame game) {
-		return game.getEntitiesWithComponent(ActionComponent.class)
+		return game.getFamily(ActionComponent.class)
 			.stream()
 			.flatMap(entity -> entity.getComponent(ActionComponent.class)
 					.getECSActions().stream())
@@ -36,4 +36,56 @@ public class Actions {
 		return actionComponent.getAction(actionName);
 	}
 	
+	/**
+	 * Find the same action in another game, such as an action that was chosen on a fork of the game, with the same targets chosen
+	 * 
+	 * @param game The game to find the action in
+	 * @param action An action in a fork of the game, or in the game itself
+	 * @return The action in the game, or null if it could not be found or the targets could not be chosen
+	 */
+	public static ECSAction resolve(ECSGame game, ECSAction action) {
+		Entity owner = game.getEntity(action.getOwner().getId());
+		ECSAction result = owner == null ? null : getAction(owner, action.getName());
+		if (result == null || result == action) {
+			return result;
+		}
+		List<TargetSet> chosenSets = action.getTargetSets();
+		int[][] targets = new int[chosenSets.size()][];
+		for (int i = 0; i < targets.length; i++) {
+			targets[i] = chosenSets.get(i).getChosenTargets().stream().mapToInt(Entity::getId).toArray();
+		}
+		return chooseTargets(result, targets);
+	}
+	
+	/**
+	 * Find an action in a game by the id of its owner, with targets chosen by their ids. Used when only the ids of an action are known.
+	 * 
+	 * @param game The game to find the action in
+	 * @param ownerId The id of the entity that has the action
+	 * @param actionName The name of the action
+	 * @param targets The ids of the targets to choose, for each target set
+	 * @return The action in the game, or null if it could not be found or the targets could not be chosen
+	 */
+	public static ECSAction resolve(ECSGame game, int ownerId, String actionName, int[][] targets) {
+		Entity owner = game.getEntity(ownerId);
+		ECSAction result = owner == null ? null : getAction(owner, actionName);
+		return result == null ? null : chooseTargets(result, targets);
+	}
+	
+	private static ECSAction chooseTargets(ECSAction action, int[][] targets) {
+		ECSGame game = action.getOwner().getGame();
+		List<TargetSet> targetSets = action.getTargetSets();
+		for (int i = 0; i < targetSets.size() && i < targets.length; i++) {
+			TargetSet targetSet = targetSets.get(i);
+			targetSet.clearTargets();
+			for (int targetId : targets[i]) {
+				Entity target = game.getEntity(targetId);
+				if (target == null || !targetSet.addTarget(target)) {
+					return null;
+				}
+			}
+		}
+		return action;
+	}
+	
 }
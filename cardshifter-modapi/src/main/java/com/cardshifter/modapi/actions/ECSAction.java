@@ -7,6 +7,7 @@ import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.GameFork;
 
 public class ECSAction {
 
@@ -46,33 +47,43 @@ public class ECSAction {
 		return action;
 	}
 	
+	/**
+	 * Copy this action to a forked game, keeping any chosen targets
+	 * 
+	 * @param fork The fork that is being created
+	 * @return The action for the forked owner
+	 */
+	public ECSAction fork(GameFork fork) {
+		ECSAction action = new ECSAction(fork.entity(owner), this.name, this.allowed, this.perform);
+		for (TargetSet set : targetSets) {
+			action.targetSets.add(set.fork(action, fork));
+		}
+		return action;
+	}
+	
 	public boolean perform(Entity performer) {
-        synchronized (performer.getGame()) {
-            if (!this.isAllowed(performer)) {
-                return false;
-            }
-            if (!this.targetSets.stream().allMatch(targets -> targets.hasEnoughTargets())) {
-                return false;
-            }
+        if (!this.isAllowed(performer)) {
+            return false;
+        }
+        if (!this.targetSets.stream().allMatch(targets -> targets.hasEnoughTargets())) {
+            return false;
+        }
 
-            try {
-                this.owner.getGame().executeEvent(new ActionPerformEvent(owner, this, performer), () -> this.perform.accept(this));
-            } catch (RuntimeException ex) {
-                throw new RuntimeException("Error performing action " + this, ex);
-            }
-            this.targetSets.forEach(TargetSet::clearTargets);
-            return true;
+        try {
+            this.owner.getGame().executeEvent(new ActionPerformEvent(owner, this, performer), () -> this.perform.accept(this));
+        } catch (RuntimeException ex) {
+            throw new RuntimeException("Error performing action " + this, ex);
         }
+        this.targetSets.forEach(TargetSet::clearTargets);
+        return true;
 	}
 
 	public boolean isAllowed(Entity performer) {
-        synchronized (performer.getGame()) {
-            ActionAllowedCheckEvent event = new ActionAllowedCheckEvent(owner, this, performer);
-            if (!owner.getGame().getEvents().executePostEvent(event).isAllowed()) {
-                return false;
-            }
-            return this.allowed.test(this);
+        ActionAllowedCheckEvent event = new ActionAllowedCheckEvent(owner, this, performer);
+        if (!owner.getGame().getEvents().executePostEvent(event).isAllowed()) {
+            return false;
         }
+        return this.allowed.test(this);
 	}
 
 	public List<TargetSet> getTargetSets() {
@@ -0,0 +1,48 @@
+package com.cardshifter.modapi.actions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.cardshifter.modapi.events.IEvent;
+
+/**
+ * Executed when looking for the possible targets of a target set, before {@link TargetableCheckEvent} is executed for each candidate.
+ * Systems that check targets for an action can restrict the candidates to a {@link TargetDomain},
+ * entities outside of all restricted domains will not be checked.
+ */
+public class TargetCandidatesEvent implements IEvent {
+
+	private final ECSAction action;
+	private final TargetSet targetSet;
+	private final List<TargetDomain> domains = new ArrayList<>(1);
+
+	public TargetCandidatesEvent(ECSAction action, TargetSet targetSet) {
+		this.action = action;
+		this.targetSet = targetSet;
+	}
+	
+	public ECSAction getAction() {
+		return action;
+	}
+	
+	public TargetSet getTargetSet() {
+		return targetSet;
+	}
+	
+	/**
+	 * Only entities in the domain can be targets. When called more than once, only entities that are in all domains can be targets.
+	 * 
+	 * @param domain The entities that the target must be one of
+	 */
+	public void restrictTo(TargetDomain domain) {
+		domains.add(domain);
+	}
+	
+	/**
+	 * @return The domains that targets have been restricted to, empty if any entity in the game can be a target
+	 */
+	public List<TargetDomain> getDomains() {
+		return domains;
+	}
+	
+}
@@ -0,0 +1,60 @@
+package com.cardshifter.modapi.actions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.cardshifter.modapi.base.Component;
+import com.cardshifter.modapi.base.ECSGame;
+import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.cards.ZoneComponent;
+
+/**
+ * The entities that can possibly be targeted by an action, found from an index instead of checking every entity in the game.
+ * 
+ * @see TargetCandidatesEvent
+ */
+@FunctionalInterface
+public interface TargetDomain {
+
+	/**
+	 * @param game The game to find candidates in
+	 * @return All entities that may be targetable. It is fine to include entities that are not targetable, but not to miss any that are.
+	 */
+	Collection<Entity> candidates(ECSGame game);
+	
+	/**
+	 * @param other Another domain
+	 * @return A domain with the candidates of both domains
+	 */
+	default TargetDomain or(TargetDomain other) {
+		return game -> {
+			Set<Entity> result = new LinkedHashSet<>(this.candidates(game));
+			result.addAll(other.candidates(game));
+			return result;
+		};
+	}
+	
+	/**
+	 * @param type A component type
+	 * @return A domain of all entities that have the component
+	 */
+	static TargetDomain withComponent(Class<? extends Component> type) {
+		return game -> game.getFamily(type).toSet();
+	}
+	
+	/**
+	 * @param zoneType A zone type, such as BattlefieldComponent
+	 * @return A domain of all cards in zones of exactly the specified class
+	 */
+	static TargetDomain cardsIn(Class<? extends ZoneComponent> zoneType) {
+		return game -> {
+			List<Entity> cards = new ArrayList<>();
+			game.getFamily(zoneType).forEach(owner -> cards.addAll(owner.getComponent(zoneType).getCardsView()));
+			return cards;
+		};
+	}
+	
+}
@@ -0,0 +1,72 @@
+package com.cardshifter.modapi.actions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.cardshifter.modapi.base.ECSGame;
+import com.cardshifter.modapi.base.Entity;
+
+/**
+ * Targets chosen for an action, kept apart from the {@link TargetSet}s of the action until they are applied.
+ * <p>
+ * Choosing targets this way does not change the action, so it can be done from several threads and remembered while deciding what to do.
+ * A selection made on a fork of a game can be applied to the same action in the game, as targets are found by their ids.
+ */
+public final class TargetSelection {
+
+	/**
+	 * No targets chosen for any target set
+	 */
+	public static final TargetSelection NONE = new TargetSelection(Collections.emptyList());
+
+	private final List<List<Entity>> targets;
+
+	private TargetSelection(List<List<Entity>> targets) {
+		this.targets = targets;
+	}
+
+	/**
+	 * @param targets The targets of the first target set
+	 * @return A selection of the targets for the first target set
+	 */
+	public static TargetSelection of(Entity... targets) {
+		return new TargetSelection(Collections.singletonList(Collections.unmodifiableList(new ArrayList<>(Arrays.asList(targets)))));
+	}
+
+	/**
+	 * @param index The index of the target set
+	 * @return The targets chosen for the target set, which can not be modified
+	 */
+	public List<Entity> getTargets(int index) {
+		return index < targets.size() ? targets.get(index) : Collections.emptyList();
+	}
+
+	/**
+	 * Choose the targets of this selection on an action, replacing any targets that were already chosen
+	 *
+	 * @param action The action to choose the targets on
+	 * @return True if all targets could be chosen, false otherwise
+	 */
+	public boolean applyTo(ECSAction action) {
+		ECSGame game = action.getOwner().getGame();
+		List<TargetSet> targetSets = action.getTargetSets();
+		targetSets.forEach(TargetSet::clearTargets);
+		for (int i = 0; i < targets.size() && i < targetSets.size(); i++) {
+			for (Entity chosen : targets.get(i)) {
+				Entity target = game.getEntity(chosen.getId());
+				if (target == null || !targetSets.get(i).addTarget(target)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "TargetSelection" + targets;
+	}
+
+}
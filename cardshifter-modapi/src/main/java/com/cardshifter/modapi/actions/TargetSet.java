@@ -1,10 +1,15 @@
 package com.cardshifter.modapi.actions;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import com.cardshifter.modapi.base.ECSGame;
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.GameFork;
 import com.cardshifter.modapi.events.EventExecutor;
 
 public class TargetSet {
@@ -44,8 +49,36 @@ public class TargetSet {
 		return event.isAllowed();
 	}
 	
+	/**
+	 * Find all entities that can be added as targets. If the systems of the action have restricted the targets
+	 * to some {@link TargetDomain}s, only entities in those are checked, otherwise all entities in the game are checked.
+	 * 
+	 * @return The targetable entities, in the order that they were created
+	 */
 	public List<Entity> findPossibleTargets() {
-		return game().findEntities(entity -> isTargetable(entity));
+		TargetCandidatesEvent event = events().executePostEvent(new TargetCandidatesEvent(action, this));
+		if (event.getDomains().isEmpty()) {
+			return game().findEntities(entity -> isTargetable(entity));
+		}
+		
+		Set<Entity> candidates = null;
+		for (TargetDomain domain : event.getDomains()) {
+			Collection<Entity> domainCandidates = domain.candidates(game());
+			if (candidates == null) {
+				candidates = new HashSet<>(domainCandidates);
+			}
+			else {
+				candidates.retainAll(domainCandidates instanceof Set ? domainCandidates : new HashSet<>(domainCandidates));
+			}
+		}
+		List<Entity> result = new ArrayList<>();
+		for (Entity entity : candidates) {
+			if (!entity.isRemoved() && isTargetable(entity)) {
+				result.add(entity);
+			}
+		}
+		result.sort(Comparator.comparingInt(Entity::getId));
+		return result;
 	}
 	
 	public int selectedTargets() {
@@ -65,6 +98,12 @@ public class TargetSet {
 		chosenTargets.clear();
 	}
 	
+	TargetSet fork(ECSAction forkedAction, GameFork fork) {
+		TargetSet copy = new TargetSet(forkedAction, min, max);
+		chosenTargets.forEach(target -> copy.chosenTargets.add(fork.entity(target)));
+		return copy;
+	}
+	
 	public int getMin() {
 		return min;
 	}
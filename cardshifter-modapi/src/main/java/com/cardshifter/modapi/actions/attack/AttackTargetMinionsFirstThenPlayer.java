@@ -1,5 +1,6 @@
 package com.cardshifter.modapi.actions.attack;
 
+import com.cardshifter.modapi.actions.TargetDomain;
 import com.cardshifter.modapi.actions.TargetableCheckEvent;
 import com.cardshifter.modapi.base.ComponentRetriever;
 import com.cardshifter.modapi.base.Entity;
@@ -32,6 +33,11 @@ public class AttackTargetMinionsFirstThenPlayer extends SpecificActionTargetSyst
         return battlefieldComponent.stream().anyMatch(shouldAttackFirst);
     }
 	
+	@Override
+	protected TargetDomain getTargetDomain() {
+		return TargetDomain.cardsIn(BattlefieldComponent.class).or(TargetDomain.withComponent(PlayerComponent.class));
+	}
+	
 	protected void checkTargetable(TargetableCheckEvent event) {
 		Entity target = event.getTarget();
 		if (target.hasComponent(CardComponent.class)) {
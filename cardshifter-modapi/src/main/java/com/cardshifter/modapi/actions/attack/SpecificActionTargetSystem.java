@@ -2,6 +2,8 @@ package com.cardshifter.modapi.actions.attack;
 
 import java.util.Objects;
 
+import com.cardshifter.modapi.actions.TargetCandidatesEvent;
+import com.cardshifter.modapi.actions.TargetDomain;
 import com.cardshifter.modapi.actions.TargetableCheckEvent;
 import com.cardshifter.modapi.base.ECSGame;
 import com.cardshifter.modapi.base.ECSSystem;
@@ -17,6 +19,24 @@ public abstract class SpecificActionTargetSystem implements ECSSystem {
 	@Override
 	public final void startGame(ECSGame game) {
 		game.getEvents().registerHandlerAfter(this, TargetableCheckEvent.class, this::targetableCheck);
+		TargetDomain domain = getTargetDomain();
+		if (domain != null) {
+			game.getEvents().registerHandlerAfter(this, TargetCandidatesEvent.class, event -> {
+				if (event.getAction().getName().equals(actionName)) {
+					event.restrictTo(domain);
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Systems that never allow targets outside of some set of entities can declare it here,
+	 * so that only those entities are checked when looking for possible targets.
+	 * 
+	 * @return The entities that can be targets of the action, or null if any entity can be a target
+	 */
+	protected TargetDomain getTargetDomain() {
+		return null;
 	}
 	
 	private void targetableCheck(TargetableCheckEvent event) {
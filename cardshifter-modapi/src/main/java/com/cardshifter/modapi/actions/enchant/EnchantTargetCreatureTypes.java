@@ -2,6 +2,7 @@ package com.cardshifter.modapi.actions.enchant;
 
 import java.util.*;
 
+import com.cardshifter.modapi.actions.TargetDomain;
 import com.cardshifter.modapi.actions.TargetableCheckEvent;
 import com.cardshifter.modapi.actions.attack.SpecificActionTargetSystem;
 import com.cardshifter.modapi.base.ComponentRetriever;
@@ -20,6 +21,11 @@ public class EnchantTargetCreatureTypes extends SpecificActionTargetSystem {
 		this.allowedCreatureTypes = Arrays.copyOf(allowedCreatureTypes, allowedCreatureTypes.length);
 	}
 
+	@Override
+	protected TargetDomain getTargetDomain() {
+		return TargetDomain.cardsIn(BattlefieldComponent.class);
+	}
+	
 	@Override
 	protected void checkTargetable(TargetableCheckEvent event) {
 		if (!event.getTarget().hasComponent(CardComponent.class)) {
@@ -4,13 +4,16 @@ import java.util.Objects;
 import java.util.concurrent.ScheduledFuture;
 
 import com.cardshifter.modapi.base.Component;
+import com.cardshifter.modapi.base.ForkableComponent;
+import com.cardshifter.modapi.base.GameFork;
 
-public class AIComponent extends Component {
+public class AIComponent extends Component implements ForkableComponent {
 	
 	private CardshifterAI ai;
 	private long delay = 4000;
 	private boolean paused;
 	ScheduledFuture<?> future;
+	AIComputePool.Decision decision;
 
 	public AIComponent(CardshifterAI ai) {
 		setAI(ai);
@@ -33,7 +36,7 @@ public class AIComponent extends Component {
 	}
 
 	public boolean hasWaitingAction() {
-		return future != null && !future.isDone();
+		return decision != null || (future != null && !future.isDone());
 	}
 	
 	public boolean isPaused() {
@@ -43,5 +46,13 @@ public class AIComponent extends Component {
 	public void setPaused(boolean paused) {
 		this.paused = paused;
 	}
+
+	@Override
+	public Component fork(GameFork fork) {
+		AIComponent copy = new AIComponent(ai);
+		copy.delay = this.delay;
+		copy.paused = this.paused;
+		return copy;
+	}
 	
 }
@@ -0,0 +1,173 @@
+package com.cardshifter.modapi.ai;
+
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.cardshifter.modapi.actions.ECSAction;
+import com.cardshifter.modapi.base.Entity;
+
+/**
+ * A fixed number of threads that AIs think on, so that thinking does not hold up the threads that run the games.
+ * <p>
+ * Each decision is given a time budget, see {@link CardshifterAI#getAction(Entity, long)}.
+ * AIs are expected to decide on a fork of the game that nothing else uses, see {@link AISystem}.
+ */
+public class AIComputePool {
+
+	private static final Logger logger = LogManager.getLogger(AIComputePool.class);
+
+	/**
+	 * A decision that an AI is making, which tells its listener when it is done, also if it is cancelled
+	 */
+	public final class Decision extends FutureTask<ECSAction> {
+		private final Entity player;
+		private final Consumer<Decision> listener;
+
+		private Decision(CardshifterAI ai, Entity player, Consumer<Decision> listener) {
+			super(() -> think(ai, player));
+			this.player = player;
+			this.listener = listener;
+		}
+
+		/**
+		 * @return The player that the decision is made for
+		 */
+		public Entity getPlayer() {
+			return player;
+		}
+
+		@Override
+		protected void done() {
+			if (isCancelled()) {
+				cancelled.incrementAndGet();
+			}
+			listener.accept(this);
+		}
+	}
+
+	private final ThreadPoolExecutor executor;
+	private final long timeBudget;
+
+	private final AtomicLong completed = new AtomicLong();
+	private final AtomicLong overBudget = new AtomicLong();
+	private final AtomicLong cancelled = new AtomicLong();
+
+	/**
+	 * Create a pool with one thread per available processor and a time budget of two seconds
+	 */
+	public AIComputePool() {
+		this(Runtime.getRuntime().availableProcessors(), 2000);
+	}
+
+	/**
+	 * @param threads The number of threads to think on
+	 * @param timeBudget The number of milliseconds that each decision may use
+	 */
+	public AIComputePool(int threads, long timeBudget) {
+		this.timeBudget = timeBudget;
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new ComputeThreadFactory());
+	}
+
+	/**
+	 * Let an AI decide on an action, on one of the threads of this pool
+	 *
+	 * @param ai The AI that decides
+	 * @param player The player to decide an action for, which should be in a game that is not changed while the AI decides
+	 * @param listener Called when the decision is done, or when it is cancelled
+	 * @return The decision, which can be cancelled to interrupt the AI
+	 */
+	public Decision decide(CardshifterAI ai, Entity player, Consumer<Decision> listener) {
+		Decision decision = new Decision(ai, player, listener);
+		executor.execute(decision);
+		logger.debug("Queued decision for " + player + ", " + getQueueDepth() + " decisions waiting");
+		return decision;
+	}
+
+	private ECSAction think(CardshifterAI ai, Entity player) {
+		long start = System.nanoTime();
+		ECSAction action = ai.getAction(player, timeBudget);
+		long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		completed.incrementAndGet();
+		if (time > timeBudget) {
+			overBudget.incrementAndGet();
+			logger.warn(ai + " used " + time + " ms of its budget of " + timeBudget + " ms to decide for " + player);
+		}
+		return action;
+	}
+
+	/**
+	 * @return The number of milliseconds that each decision may use
+	 */
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+
+	/**
+	 * @return The number of decisions that are waiting for a thread
+	 */
+	public int getQueueDepth() {
+		return executor.getQueue().size();
+	}
+
+	/**
+	 * @return The number of decisions that are being made right now
+	 */
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	/**
+	 * @return The number of decisions that have been made
+	 */
+	public long getCompletedCount() {
+		return completed.get();
+	}
+
+	/**
+	 * @return The number of decisions that took longer than the time budget
+	 */
+	public long getOverBudgetCount() {
+		return overBudget.get();
+	}
+
+	/**
+	 * @return The number of decisions that were cancelled, such as when their game ended
+	 */
+	public long getCancelledCount() {
+		return cancelled.get();
+	}
+
+	/**
+	 * Stop accepting decisions and interrupt the decisions that are being made
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Override
+	public String toString() {
+		return "AIComputePool [threads=" + executor.getMaximumPoolSize() + ", queued=" + getQueueDepth() + ", active=" + getActiveCount()
+				+ ", completed=" + getCompletedCount() + ", overBudget=" + getOverBudgetCount() + ", cancelled=" + getCancelledCount() + "]";
+	}
+
+	private static class ComputeThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "ai-compute-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
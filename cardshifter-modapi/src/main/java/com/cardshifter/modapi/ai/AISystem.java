@@ -1,6 +1,7 @@
 package com.cardshifter.modapi.ai;
 
-import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -9,15 +10,25 @@ import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
 import com.cardshifter.modapi.actions.ActionPerformEvent;
+import com.cardshifter.modapi.actions.Actions;
 import com.cardshifter.modapi.actions.ECSAction;
 import com.cardshifter.modapi.base.ComponentRetriever;
 import com.cardshifter.modapi.base.ECSGame;
 import com.cardshifter.modapi.base.ECSGameState;
 import com.cardshifter.modapi.base.ECSSystem;
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.EntityFamily;
+import com.cardshifter.modapi.base.GameFork;
 import com.cardshifter.modapi.base.Retriever;
+import com.cardshifter.modapi.events.GameOverEvent;
 import com.cardshifter.modapi.events.StartGameEvent;
 
+/**
+ * Lets the AIs of a game perform their actions after their delay.
+ * <p>
+ * When a {@link AIComputePool} is used, AIs decide on forks of the game on the threads of the pool,
+ * and the delay is counted from when the decision started. Otherwise AIs decide directly when the game changes.
+ */
 public class AISystem implements ECSSystem {
 
 	private static final Logger logger = LogManager.getLogger(AISystem.class);
@@ -26,13 +37,47 @@ public class AISystem implements ECSSystem {
 	private ComponentRetriever<AIComponent> ai;
 	
 	private final ScheduledExecutorService executor;
+	private final Executor gameExecutor;
+	private final AIComputePool computePool;
+	
+	/**
+	 * The number of actions that have been performed in the game, to know if a decision was made on an old state of the game
+	 */
+	private int actionCount;
 	
 	public AISystem(ScheduledExecutorService executor) {
+		this(executor, Runnable::run);
+	}
+	
+	/**
+	 * @param executor Used to wait for the delay of AIs
+	 * @param gameExecutor Used to perform the actions of AIs when their delay has passed, this should run tasks in the same order as other changes to the game
+	 */
+	public AISystem(ScheduledExecutorService executor, Executor gameExecutor) {
+		this(executor, gameExecutor, null);
+	}
+	
+	/**
+	 * @param executor Used to wait for the delay of AIs
+	 * @param gameExecutor Used to perform the actions of AIs, this should run tasks in the same order as other changes to the game
+	 * @param computePool Used to let AIs decide on their actions, or null to decide directly
+	 */
+	public AISystem(ScheduledExecutorService executor, Executor gameExecutor, AIComputePool computePool) {
 		this.executor = executor;
+		this.gameExecutor = gameExecutor;
+		this.computePool = computePool;
 	}
 
 	public static void setup(ECSGame game, ScheduledExecutorService executor) {
-		AISystem system = new AISystem(executor);
+		setup(game, executor, Runnable::run);
+	}
+
+	public static void setup(ECSGame game, ScheduledExecutorService executor, Executor gameExecutor) {
+		setup(game, executor, gameExecutor, null);
+	}
+
+	public static void setup(ECSGame game, ScheduledExecutorService executor, Executor gameExecutor, AIComputePool computePool) {
+		AISystem system = new AISystem(executor, gameExecutor, computePool);
 		game.addSystem(system);
 		if (game.getGameState() != ECSGameState.NOT_STARTED) {
 			logger.warn("Game has already been started when adding AISystem. Performing AI Check directly");
@@ -41,7 +86,7 @@ public class AISystem implements ECSSystem {
 	}
 	
 	private void aiPerform(ECSGame game) {
-		Set<Entity> ais = game.getEntitiesWithComponent(AIComponent.class);
+		EntityFamily ais = game.getFamily(AIComponent.class);
 		
 		logger.info("AI entities " + ais);
 		for (Entity entity : ais) {
@@ -55,18 +100,15 @@ public class AISystem implements ECSSystem {
 				continue;
 			}
 			
-			long delay = aiComp.getDelay();
+			if (computePool != null) {
+				// every AI decides on its own fork, those that have no actions decide quickly
+				decide(game, entity, aiComp);
+				continue;
+			}
+			
 			ECSAction action = aiComp.getAI().getAction(entity);
 			if (action != null && !game.isGameOver()) {
-				logger.info(entity + " will perform " + action + " in " + delay + " milliseconds");
-				Runnable runnable = () -> this.perform(entity, action);
-				if (delay <= 0) {
-					runnable.run();
-				}
-				else {
-					ScheduledFuture<?> future = executor.schedule(runnable, delay, TimeUnit.MILLISECONDS);
-					aiComp.future = future;
-				}
+				schedule(entity, aiComp, action, aiComp.getDelay());
 				return;
 			}
 			else {
@@ -75,6 +117,81 @@ public class AISystem implements ECSSystem {
 		}
 	}
 
+	private void decide(ECSGame game, Entity entity, AIComponent aiComp) {
+		if (game.isGameOver()) {
+			return;
+		}
+		if (Actions.getPossibleActionsFor(entity).isEmpty()) {
+			logger.info(entity + ": No actions available");
+			return;
+		}
+		ECSGame fork = game.fork();
+		int actionsBefore = actionCount;
+		long start = System.currentTimeMillis();
+		aiComp.decision = computePool.decide(aiComp.getAI(), fork.getEntity(entity.getId()),
+			decision -> gameExecutor.execute(() -> decided(entity, decision, actionsBefore, start)));
+	}
+
+	private void decided(Entity entity, AIComputePool.Decision decision, int actionsBefore, long start) {
+		AIComponent aiComp = ai.get(entity);
+		if (aiComp == null || aiComp.decision != decision) {
+			return;
+		}
+		aiComp.decision = null;
+		ECSGame game = entity.getGame();
+		if (decision.isCancelled() || game.isGameOver() || aiComp.isPaused()) {
+			return;
+		}
+		
+		ECSAction chosen;
+		try {
+			chosen = decision.get();
+		}
+		catch (InterruptedException | ExecutionException ex) {
+			logger.error(entity + " Error deciding action", ex);
+			return;
+		}
+		if (actionsBefore != actionCount) {
+			logger.info(entity + " decided on an old state of the game, deciding again");
+			aiPerform(game);
+			return;
+		}
+		if (chosen == null) {
+			logger.info(entity + ": No actions available");
+			return;
+		}
+		ECSAction action = Actions.resolve(game, chosen);
+		if (action == null) {
+			logger.error(entity + " AI chose an action that can not be used in the game: " + chosen);
+			return;
+		}
+		schedule(entity, aiComp, action, aiComp.getDelay() - (System.currentTimeMillis() - start));
+	}
+
+	private void schedule(Entity entity, AIComponent aiComp, ECSAction action, long delay) {
+		logger.info(entity + " will perform " + action + " in " + delay + " milliseconds");
+		Runnable runnable = () -> this.perform(entity, action);
+		if (delay <= 0) {
+			runnable.run();
+		}
+		else {
+			ScheduledFuture<?> future = executor.schedule(() -> gameExecutor.execute(runnable), delay, TimeUnit.MILLISECONDS);
+			aiComp.future = future;
+		}
+	}
+
+	private void cancelAll(ECSGame game) {
+		for (Entity entity : game.getFamily(AIComponent.class)) {
+			AIComponent aiComp = ai.get(entity);
+			if (aiComp.decision != null) {
+				aiComp.decision.cancel(true);
+			}
+			if (aiComp.future != null) {
+				aiComp.future.cancel(false);
+			}
+		}
+	}
+
 	private void perform(Entity entity, ECSAction action) {
 		try {
 			logger.info(entity + " performs " + action);
@@ -96,16 +213,28 @@ public class AISystem implements ECSSystem {
 
 	@Override
 	public void startGame(ECSGame game) {
-		game.getEvents().registerHandlerAfter(this, ActionPerformEvent.class, event -> this.aiPerform(event.getEntity().getGame()));
+		game.getEvents().registerHandlerAfter(this, ActionPerformEvent.class, event -> {
+			actionCount++;
+			this.aiPerform(event.getEntity().getGame());
+		});
+		game.getEvents().registerHandlerAfter(this, GameOverEvent.class, event -> this.cancelAll(event.getGame()));
 		game.getEvents().registerHandlerAfter(this, StartGameEvent.class, event -> this.aiPerform(event.getGame()));
 	}
 
+	/**
+	 * AIs are not scheduled in forks of the game, whoever plays on a fork decides what happens there.
+	 */
+	@Override
+	public ECSSystem fork(GameFork fork) {
+		return null;
+	}
+
 	/**
 	 * Call all AIs in the game directly. Useful for when a new AI has been initialized while the game is running
 	 * @param game Game to call AIs in
 	 */
 	public static void call(ECSGame game) {
-		Set<Entity> ais = game.getEntitiesWithComponent(AIComponent.class);
+		EntityFamily ais = game.getFamily(AIComponent.class);
 		ComponentRetriever<AIComponent> ai = game.componentRetreiver(AIComponent.class);
 		
 		logger.info("AI entities " + ais);
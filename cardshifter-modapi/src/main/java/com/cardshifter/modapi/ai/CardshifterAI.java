@@ -8,6 +8,17 @@ import com.cardshifter.modapi.base.Entity;
 public interface CardshifterAI {
 	ECSAction getAction(Entity player);
 	
+	/**
+	 * Decide on an action within a time budget. AIs that can search for a better action when given more time should override this.
+	 * 
+	 * @param player The player to decide an action for
+	 * @param timeBudget The number of milliseconds to use at most
+	 * @return The action to perform, or null if there is no action to perform
+	 */
+	default ECSAction getAction(Entity player, long timeBudget) {
+		return getAction(player);
+	}
+	
 	default void configure(Entity entity, ConfigComponent config) {
 		
 	}
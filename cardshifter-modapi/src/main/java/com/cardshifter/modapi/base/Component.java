@@ -11,7 +11,7 @@ public abstract class Component {
 	private Entity entity;
 
 	void setEntity(Entity entity) {
-		if (this.entity != null) {
+		if (this.entity != null && entity != null) {
 			throw new IllegalStateException("Component " + this + " is already connected to another entity.");
 		}
 		this.entity = entity;
@@ -1,23 +1,26 @@
 package com.cardshifter.modapi.base;
 
 import java.util.Objects;
-import java.util.Set;
 
 public class ComponentRetriever<T extends Component> {
 
 	private final Class<T> clazz;
+	private final int slot;
 
 	public ComponentRetriever(Class<T> clazz) {
 		this.clazz = clazz;
+		this.slot = ComponentTypes.slotOf(clazz);
 	}
 
 	public boolean has(Entity entity) {
-		return entity.hasComponent(clazz);
+		return entity.componentAt(slot) != null;
 	}
 
+	@SuppressWarnings("unchecked")
 	public T get(Entity entity) {
 		Objects.requireNonNull(entity, "Cannot retrieve component " + clazz.getSimpleName() + " on a null entity");
-		return entity.getComponent(clazz);
+		// components are stored in the slot of their exact class, so the component in this slot is always a T
+		return (T) entity.componentAt(slot);
 	}
 
 	public T required(Entity entity) {
@@ -47,19 +50,19 @@ public class ComponentRetriever<T extends Component> {
 	}
 
 	public static <T extends Component> T singleton(ECSGame game, Class<T> class1) {
-		Set<Entity> all = game.getEntitiesWithComponent(class1);
+		EntityFamily all = game.getFamily(class1);
 		if (all.size() != 1) {
 			throw new IllegalStateException("Expected to find exactly one " + class1.getSimpleName() + ", found " + all.size());
 		}
-		return all.iterator().next().getComponent(class1);
+		return all.first().getComponent(class1);
 	}
 
     public static <T extends Component> T singletonOptional(ECSGame game, Class<T> class1) {
-        Set<Entity> all = game.getEntitiesWithComponent(class1);
+        EntityFamily all = game.getFamily(class1);
         if (all.size() > 1) {
             throw new IllegalStateException("Expected to find exactly one " + class1.getSimpleName() + ", found " + all.size());
         }
-        return all.isEmpty() ? null : all.iterator().next().getComponent(class1);
+        return all.isEmpty() ? null : all.first().getComponent(class1);
     }
 
 }
@@ -0,0 +1,43 @@
+package com.cardshifter.modapi.base;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry that gives each component class a small integer id, its slot.
+ * Entities store their components in an array indexed by the slot of the component's class.
+ * <p>
+ * Slots are assigned the first time a class is seen and are shared by all games.
+ */
+public final class ComponentTypes {
+
+	private static final AtomicInteger count = new AtomicInteger();
+
+	private static final ClassValue<Integer> slots = new ClassValue<Integer>() {
+		@Override
+		protected Integer computeValue(Class<?> type) {
+			return count.getAndIncrement();
+		}
+	};
+
+	private ComponentTypes() {
+	}
+
+	/**
+	 * @param type The exact component class
+	 * @return The slot of the component class, or -1 if type is null
+	 */
+	public static int slotOf(Class<? extends Component> type) {
+		if (type == null) {
+			return -1;
+		}
+		return slots.get(type);
+	}
+
+	/**
+	 * @return The number of component classes that have been assigned a slot so far
+	 */
+	public static int count() {
+		return count.get();
+	}
+
+}
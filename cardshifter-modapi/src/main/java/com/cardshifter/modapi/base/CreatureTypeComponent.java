@@ -11,6 +11,11 @@ public class CreatureTypeComponent extends Component implements CopyableComponen
 		this.creatureTypes = new ArrayList<>(creatureTypes);
 	}
 
+	private CreatureTypeComponent(CreatureTypeComponent original) {
+		// the list is never modified, so copies can share it
+		this.creatureTypes = original.creatureTypes;
+	}
+
 	public CreatureTypeComponent(String creatureType) {
 		creatureTypes = new ArrayList<>(1);
 		creatureTypes.add(creatureType);
@@ -26,7 +31,7 @@ public class CreatureTypeComponent extends Component implements CopyableComponen
 
     @Override
 	public Component copy(Entity copyTo) {
-		return new CreatureTypeComponent(creatureTypes);
+		return new CreatureTypeComponent(this);
 	}
 
 	@Override
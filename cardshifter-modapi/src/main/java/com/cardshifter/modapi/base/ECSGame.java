@@ -1,7 +1,16 @@
 package com.cardshifter.modapi.base;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -26,13 +35,26 @@ public final class ECSGame {
 	/**
 	 * All the entities of a single game
 	 */
-	private final Map<Integer, Entity> entities = new HashMap<>();
+	private final EntityStore entities = new EntityStore();
+	/**
+	 * Index of all the entities that have a component of a specific type, kept up to date by {@link Entity}
+	 */
+	private final Map<Class<? extends Component>, EntityFamily> componentIndex = new HashMap<>();
+	/**
+	 * All the families that have been requested, including the single-type families of the component index
+	 */
+	private final Map<Set<Class<? extends Component>>, EntityFamily> families = new HashMap<>();
+	/**
+	 * The families that need to be updated when a component of a specific type is added or removed
+	 */
+	private final Map<Class<? extends Component>, List<EntityFamily>> familiesByType = new HashMap<>();
 	private final EventExecutor events = new EventExecutor();
+	private final PlayerRegistry players = new PlayerRegistry();
 	/**
 	 * All the systems that comprise the game
 	 */
 	private final List<ECSSystem> systems = new ArrayList<>();
-	private final Random random = new Random();
+	private Random random = new Random();
 	/**
 	 * An enum for the current state of the game
 	 */
@@ -47,7 +69,7 @@ public final class ECSGame {
 	 */
 	public Entity newEntity() {
 		Entity entity = new Entity(this, ids.incrementAndGet());
-		this.entities.put(entity.getId(), entity);
+		this.entities.add(entity);
         getEvents().executePostEvent(new EntityCreatedEvent(entity));
 		return entity;
 	}
@@ -80,10 +102,106 @@ public final class ECSGame {
 	/**
 	 * 
 	 * @param clazz The component to search for
-	 * @return All entities that contain the component
+	 * @return A new set of all entities that contain the component
+	 * @see #getFamily(Class...)
 	 */
 	public Set<Entity> getEntitiesWithComponent(Class<? extends Component> clazz) {
-		return entities.values().stream().filter(e -> e.hasComponent(clazz)).collect(Collectors.toSet());
+		return getFamily(clazz).toSet();
+	}
+
+	/**
+	 * Get the live family of all entities that have all of the specified component types.
+	 * The same family object is returned for the same set of types, so systems can hold on to it.
+	 * 
+	 * @param types The component types that the entities need to have
+	 * @return The family of entities that have all the specified component types
+	 */
+	@SafeVarargs
+	public final EntityFamily getFamily(Class<? extends Component>... types) {
+		if (types.length == 1) {
+			return indexFor(types[0]);
+		}
+		if (types.length == 0) {
+			throw new IllegalArgumentException("A family needs at least one component type");
+		}
+		Set<Class<? extends Component>> key = new HashSet<>(Arrays.asList(types));
+		EntityFamily family = families.get(key);
+		if (family != null) {
+			return family;
+		}
+
+		EntityFamily smallest = null;
+		for (Class<? extends Component> type : key) {
+			EntityFamily index = indexFor(type);
+			if (smallest == null || index.size() < smallest.size()) {
+				smallest = index;
+			}
+		}
+		family = new EntityFamily(key);
+		for (Entity entity : smallest) {
+			family.update(entity);
+		}
+		register(family);
+		return family;
+	}
+
+	private EntityFamily indexFor(Class<? extends Component> type) {
+		EntityFamily index = componentIndex.get(type);
+		if (index == null) {
+			index = new EntityFamily(Collections.singleton(type));
+			componentIndex.put(type, index);
+			register(index);
+		}
+		return index;
+	}
+
+	private void register(EntityFamily family) {
+		families.put(family.getTypes(), family);
+		for (Class<? extends Component> type : family.getTypes()) {
+			familiesByType.computeIfAbsent(type, t -> new ArrayList<>()).add(family);
+		}
+	}
+
+	/**
+	 * Called by an entity after a component has been added to it
+	 * 
+	 * @param entity The entity that got the component
+	 * @param type The type of the added component
+	 */
+	void componentAdded(Entity entity, Class<? extends Component> type) {
+		indexFor(type);
+		for (EntityFamily family : familiesByType.get(type)) {
+			family.update(entity);
+		}
+		if (type == PlayerComponent.class) {
+			players.add(entity);
+		}
+	}
+
+	/**
+	 * Called by an entity when a component has been removed from it, or when the entity is destroyed
+	 * 
+	 * @param entity The entity that lost the component
+	 * @param type The type of the removed component
+	 */
+	void componentRemoved(Entity entity, Class<? extends Component> type) {
+		if (type == PlayerComponent.class) {
+			players.remove(entity);
+		}
+		List<EntityFamily> affected = familiesByType.get(type);
+		if (affected == null) {
+			return;
+		}
+		for (EntityFamily family : affected) {
+			family.remove(entity);
+		}
+	}
+
+	/**
+	 * @return The players of this game
+	 */
+	public PlayerRegistry getPlayerRegistry() {
+		return players;
 	}
 
 	/**
@@ -180,7 +298,7 @@ public final class ECSGame {
 	 * @return A list of matching entities.
 	 */
 	public List<Entity> findEntities(Predicate<Entity> condition) {
-		return entities.values().stream().filter(condition).collect(Collectors.toList());
+		return entities.filter(condition);
 	}
 
 	/**
@@ -237,6 +355,62 @@ public final class ECSGame {
 		return systems.remove(system);
 	}
 	
+	/**
+	 * Create an independent copy of this game, which can be played ahead on without affecting this game.
+	 * <p>
+	 * All entities are forked with their ids kept, using {@link ForkableComponent} or {@link CopyableComponent}
+	 * for their components. Systems decide through {@link ECSSystem#fork(GameFork)} if they are shared with
+	 * the fork, replaced or left out. Event handlers are shared with the fork if they were registered by a shared system,
+	 * other handlers such as those sending information to players are not part of the fork.
+	 * The random generator of the fork starts in the same state as the random generator of this game.
+	 * 
+	 * @return A new game with the same state as this game
+	 */
+	public ECSGame fork() {
+		ECSGame fork = new ECSGame();
+		fork.ids.set(ids.get());
+		fork.random = copyRandom(random);
+		fork.gameState = gameState;
+		entities.forEach(entity -> fork.entities.add(new Entity(fork, entity.getId())));
+		
+		GameFork context = new GameFork(this, fork);
+		entities.forEach(context::forkComponents);
+		
+		Set<ECSSystem> shared = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<ECSSystem> replaced = new ArrayList<>();
+		for (ECSSystem system : systems) {
+			ECSSystem forked = context.system(system);
+			if (forked == system) {
+				shared.add(system);
+				fork.systems.add(system);
+			}
+			else if (forked != null) {
+				replaced.add(forked);
+				fork.systems.add(forked);
+				Retrievers.inject(forked, fork);
+			}
+		}
+		events.copyHandlersTo(fork.events, shared::contains);
+		if (gameState != ECSGameState.NOT_STARTED) {
+			replaced.forEach(system -> system.startGame(fork));
+		}
+		return fork;
+	}
+	
+	private static Random copyRandom(Random random) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+				out.writeObject(random);
+			}
+			try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+				return (Random) in.readObject();
+			}
+		} catch (IOException | ClassNotFoundException e) {
+			throw new IllegalStateException("Unable to copy random generator", e);
+		}
+	}
+	
 	// TODO: copy actions. Set<ActionOptions>. choose one, choose two
 	// TODO: More Hearthstone-like features. Enchantments, effects, battlecry, deathrattle, etc.
 	
@@ -2,4 +2,19 @@ package com.cardshifter.modapi.base;
 
 public interface ECSSystem {
 	void startGame(ECSGame game);
+
+	/**
+	 * Get the system to use in a fork of the game, see {@link ECSGame#fork()}.
+	 * <p>
+	 * By default the same system is used, and its event handlers are shared with the fork.
+	 * This works for systems that find everything they need from the events they handle.
+	 * Systems that keep state about a game should return a new system, which is started on the fork and should only register its handlers there.
+	 * Systems that should not be part of a fork at all can return null.
+	 *
+	 * @param fork The fork that is being created
+	 * @return The system to use in the fork, or null
+	 */
+	default ECSSystem fork(GameFork fork) {
+		return this;
+	}
 }
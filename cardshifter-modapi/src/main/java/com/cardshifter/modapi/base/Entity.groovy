@@ -1,13 +1,21 @@
 package com.cardshifter.modapi.base;
 
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 import com.cardshifter.modapi.events.EntityRemoveEvent;
 
+import groovy.transform.CompileStatic;
+import groovy.transform.PackageScope;
+
+@CompileStatic
 public final class Entity {
 
-    private Map<Class<? extends Component>, Component> components = new HashMap<>();
+    private static final Component[] NO_COMPONENTS = new Component[0];
+
+    /**
+     * Components indexed by the slot of their class, see {@link ComponentTypes}
+     */
+    private Component[] components = NO_COMPONENTS;
 
     private final int id;
     private final ECSGame game;
@@ -20,17 +28,32 @@ public final class Entity {
     }
 
     public Entity addComponent(Component component) {
-        components.put(component.getClass(), component);
+        int slot = ComponentTypes.slotOf(component.getClass());
+        if (slot >= components.length) {
+            components = Arrays.copyOf(components, Math.max(slot + 1, ComponentTypes.count()));
+        }
+        components[slot] = component;
         component.setEntity(this);
+        game.componentAdded(this, component.getClass());
         return this;
     }
 
     public boolean hasComponent(Class<? extends Component> clazz) {
-        return components.containsKey(clazz);
+        return componentAt(ComponentTypes.slotOf(clazz)) != null;
     }
 
     public <T extends Component> T getComponent(Class<T> clazz) {
-        return clazz.cast(components.get(clazz));
+        return clazz.cast(componentAt(ComponentTypes.slotOf(clazz)));
+    }
+
+    /**
+     * @param slot The slot of a component class
+     * @return The component of the class with the specified slot, or null if this entity does not have one
+     */
+    @PackageScope
+    Component componentAt(int slot) {
+        Component[] comps = components;
+        return slot >= 0 && slot < comps.length ? comps[slot] : null;
     }
 
     public <T extends Component> T get(ComponentRetriever<T> retriever) {
@@ -59,10 +82,13 @@ public final class Entity {
      * @return A collection with all the components extending the specified class
      */
     public <T extends Component> Collection<T> getSuperComponents(Class<T> componentClass) {
-        return this.components.entrySet().stream()
-                .filter({entry -> componentClass.isAssignableFrom(entry.getKey())})
-                .map({entry -> componentClass.cast(entry.getValue())})
-                .collect(Collectors.toList());
+        List<T> result = new ArrayList<>();
+        for (Component component : components) {
+            if (component != null && componentClass.isAssignableFrom(component.getClass())) {
+                result.add(componentClass.cast(component));
+            }
+        }
+        return result;
     }
 
     @Override
@@ -72,10 +98,15 @@ public final class Entity {
 
     public void destroy() {
         getGame().executeEvent(new EntityRemoveEvent(this), {
-            components.clear();
+            for (Component component : components) {
+                if (component != null) {
+                    game.componentRemoved(this, component.getClass());
+                }
+            }
+            components = NO_COMPONENTS;
             game.removeEntity(this);
             removed = true;
-        });
+        } as Runnable);
     }
 
     /**
@@ -88,7 +119,13 @@ public final class Entity {
     }
 
     public void removeComponent(Class<? extends Component> component) {
-        Component comp = this.components.remove(component);
+        int slot = ComponentTypes.slotOf(component);
+        Component comp = componentAt(slot);
+        if (comp == null) {
+            return;
+        }
+        components[slot] = null;
+        game.componentRemoved(this, component);
         comp.setEntity(null);
     }
 
@@ -105,7 +142,7 @@ public final class Entity {
         }
         Entity copy = game.newEntity();
 
-        for (Component comp : components.values()) {
+        for (Component comp : components) {
             if (comp instanceof CopyableComponent) {
                 CopyableComponent copyable = (CopyableComponent) comp;
                 copy.addComponent(copyable.copy(copy));
@@ -129,7 +166,7 @@ public final class Entity {
         if (entity == null) {
             return "null entity";
         }
-        return entity.toString() + " --- " + entity.components.toString();
+        return entity.toString() + " --- " + entity.getSuperComponents(Component.class).toString();
     }
 
     public String debug() {
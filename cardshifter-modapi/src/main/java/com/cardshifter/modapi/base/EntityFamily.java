@@ -0,0 +1,132 @@
+package com.cardshifter.modapi.base;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * A live view of all the entities in a game that have a specific set of component types.
+ * The family is kept up to date by {@link ECSGame} whenever components are added or removed
+ * and when entities are destroyed, so systems can hold on to a family and iterate it
+ * whenever they need to instead of scanning all entities.
+ * <p>
+ * Iteration is done over a snapshot of the members, so entities may be added to or removed
+ * from the family while it is being iterated.
+ *
+ * @see ECSGame#getFamily(Class...)
+ */
+public final class EntityFamily implements Iterable<Entity> {
+
+	private static final Entity[] EMPTY = new Entity[0];
+
+	private final Set<Class<? extends Component>> types;
+	private final Set<Entity> members = new LinkedHashSet<>();
+	private Entity[] snapshot = EMPTY;
+	private boolean dirty;
+
+	EntityFamily(Set<Class<? extends Component>> types) {
+		this.types = Collections.unmodifiableSet(types);
+	}
+
+	/**
+	 * @return The component types that an entity needs to have to be a member of this family
+	 */
+	public Set<Class<? extends Component>> getTypes() {
+		return types;
+	}
+
+	/**
+	 * @param entity Entity to check
+	 * @return True if the entity has all the component types of this family
+	 */
+	public boolean matches(Entity entity) {
+		for (Class<? extends Component> type : types) {
+			if (!entity.hasComponent(type)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public boolean contains(Entity entity) {
+		return members.contains(entity);
+	}
+
+	public int size() {
+		return members.size();
+	}
+
+	public boolean isEmpty() {
+		return members.isEmpty();
+	}
+
+	/**
+	 * @return The first entity that was added to this family, or null if the family is empty
+	 */
+	public Entity first() {
+		Entity[] entities = entities();
+		return entities.length == 0 ? null : entities[0];
+	}
+
+	@Override
+	public void forEach(Consumer<? super Entity> action) {
+		for (Entity entity : entities()) {
+			action.accept(entity);
+		}
+	}
+
+	@Override
+	public Iterator<Entity> iterator() {
+		return Collections.unmodifiableList(Arrays.asList(entities())).iterator();
+	}
+
+	public Stream<Entity> stream() {
+		return Arrays.stream(entities());
+	}
+
+	/**
+	 * @return A new set containing the current members of this family
+	 */
+	public Set<Entity> toSet() {
+		return new LinkedHashSet<>(members);
+	}
+
+	void update(Entity entity) {
+		if (matches(entity)) {
+			add(entity);
+		}
+		else {
+			remove(entity);
+		}
+	}
+
+	void add(Entity entity) {
+		if (members.add(entity)) {
+			dirty = true;
+		}
+	}
+
+	void remove(Entity entity) {
+		if (members.remove(entity)) {
+			dirty = true;
+		}
+	}
+
+	private Entity[] entities() {
+		if (dirty) {
+			snapshot = members.toArray(new Entity[members.size()]);
+			dirty = false;
+		}
+		return snapshot;
+	}
+
+	@Override
+	public String toString() {
+		return members.toString();
+	}
+
+}
@@ -0,0 +1,158 @@
+package com.cardshifter.modapi.base;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Storage for the entities of a game, specialized for the positive and increasing ids given by {@link ECSGame}.
+ * <p>
+ * Entities are kept in a dense array in the order they were added, which is used for iteration.
+ * Lookup by id goes through an open-addressed table of primitive ids pointing into the dense array,
+ * so no boxing is needed. Removing an entity leaves a tombstone in both of them,
+ * and the tombstones are compacted away when they have grown to outnumber the live entities.
+ */
+final class EntityStore {
+
+	private static final int FREE = 0;
+	private static final int REMOVED = -1;
+	private static final int MIN_CAPACITY = 16;
+	private static final int MIN_TOMBSTONES_FOR_COMPACT = 32;
+
+	private int[] keys = new int[MIN_CAPACITY];
+	private int[] slots = new int[MIN_CAPACITY];
+	private int keyTombstones;
+
+	private Entity[] dense = new Entity[MIN_CAPACITY];
+	private int denseSize;
+	private int live;
+
+	void add(Entity entity) {
+		int id = entity.getId();
+		if (id <= 0) {
+			throw new IllegalArgumentException("Entity ids must be positive: " + entity);
+		}
+		if ((live + keyTombstones + 1) * 2 > keys.length) {
+			rebuild();
+		}
+		if (denseSize == dense.length) {
+			dense = Arrays.copyOf(dense, dense.length * 2);
+		}
+		dense[denseSize] = entity;
+		insertKey(keys, slots, id, denseSize);
+		denseSize++;
+		live++;
+	}
+
+	Entity get(int id) {
+		int index = indexOf(id);
+		return index < 0 ? null : dense[slots[index]];
+	}
+
+	boolean remove(int id) {
+		int index = indexOf(id);
+		if (index < 0) {
+			return false;
+		}
+		dense[slots[index]] = null;
+		keys[index] = REMOVED;
+		keyTombstones++;
+		live--;
+
+		int tombstones = denseSize - live;
+		if (tombstones >= MIN_TOMBSTONES_FOR_COMPACT && tombstones > live) {
+			rebuild();
+		}
+		return true;
+	}
+
+	int size() {
+		return live;
+	}
+
+	/**
+	 * Perform an action for each entity in the order they were added.
+	 * Entities that are added while iterating may or may not be included.
+	 *
+	 * @param action The action to perform
+	 */
+	void forEach(Consumer<? super Entity> action) {
+		Entity[] entities = dense;
+		int size = denseSize;
+		for (int i = 0; i < size; i++) {
+			Entity entity = entities[i];
+			if (entity != null) {
+				action.accept(entity);
+			}
+		}
+	}
+
+	List<Entity> filter(Predicate<Entity> condition) {
+		List<Entity> result = new ArrayList<>();
+		forEach(entity -> {
+			if (condition.test(entity)) {
+				result.add(entity);
+			}
+		});
+		return result;
+	}
+
+	private int indexOf(int id) {
+		if (id <= 0) {
+			return -1;
+		}
+		int mask = keys.length - 1;
+		int index = id & mask;
+		while (true) {
+			int key = keys[index];
+			if (key == id) {
+				return index;
+			}
+			if (key == FREE) {
+				return -1;
+			}
+			index = (index + 1) & mask;
+		}
+	}
+
+	private static void insertKey(int[] keys, int[] slots, int id, int slot) {
+		int mask = keys.length - 1;
+		int index = id & mask;
+		while (keys[index] != FREE && keys[index] != REMOVED) {
+			index = (index + 1) & mask;
+		}
+		keys[index] = id;
+		slots[index] = slot;
+	}
+
+	/**
+	 * Compact the dense array and recreate the id table without any tombstones.
+	 * A new dense array is created so that any iteration in progress can continue on the old one.
+	 */
+	private void rebuild() {
+		int capacity = MIN_CAPACITY;
+		while (capacity < (live + 1) * 4) {
+			capacity <<= 1;
+		}
+		Entity[] compacted = new Entity[Math.max(MIN_CAPACITY, live * 2)];
+		int[] newKeys = new int[capacity];
+		int[] newSlots = new int[capacity];
+		int size = 0;
+		for (int i = 0; i < denseSize; i++) {
+			Entity entity = dense[i];
+			if (entity != null) {
+				compacted[size] = entity;
+				insertKey(newKeys, newSlots, entity.getId(), size);
+				size++;
+			}
+		}
+		dense = compacted;
+		denseSize = size;
+		keys = newKeys;
+		slots = newSlots;
+		keyTombstones = 0;
+	}
+
+}
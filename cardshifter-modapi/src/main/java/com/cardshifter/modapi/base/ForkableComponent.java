@@ -0,0 +1,22 @@
+package com.cardshifter.modapi.base;
+
+/**
+ * A component that knows how to be forked along with its game.
+ * Components that only need to be copied to a new entity can implement {@link CopyableComponent} instead,
+ * this interface is for components that refer to other entities or components.
+ *
+ * @see ECSGame#fork()
+ */
+public interface ForkableComponent {
+
+	/**
+	 * Create the component for the forked entity. The result will be added to the forked entity,
+	 * so it must be of the same class as this component.
+	 * Immutable parts of this component can be shared with the result.
+	 *
+	 * @param fork The fork that is being created, used to find the forked counterparts of referenced entities and components
+	 * @return A component for the fork that does not refer to anything in the original game
+	 */
+	Component fork(GameFork fork);
+
+}
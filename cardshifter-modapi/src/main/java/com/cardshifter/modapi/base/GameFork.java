@@ -0,0 +1,125 @@
+package com.cardshifter.modapi.base;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps track of a game that is being forked.
+ * Components and systems use it to translate their references to the original game into references to the fork.
+ *
+ * @see ECSGame#fork()
+ */
+public final class GameFork {
+
+	private final ECSGame original;
+	private final ECSGame fork;
+	private final Set<Component> inProgress = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Map<ECSSystem, ECSSystem> systems = new IdentityHashMap<>();
+
+	GameFork(ECSGame original, ECSGame fork) {
+		this.original = original;
+		this.fork = fork;
+	}
+
+	/**
+	 * @return The game that is being forked
+	 */
+	public ECSGame getOriginal() {
+		return original;
+	}
+
+	/**
+	 * @return The new game
+	 */
+	public ECSGame getFork() {
+		return fork;
+	}
+
+	/**
+	 * Find the forked counterpart of an entity, which has the same id as the original.
+	 * Entities that have been removed from the original game are not part of the fork, they are returned as they are.
+	 *
+	 * @param entity An entity of the original game, or null
+	 * @return The entity in the fork, or null if entity is null
+	 */
+	public Entity entity(Entity entity) {
+		if (entity == null || entity.isRemoved()) {
+			return entity;
+		}
+		if (entity.getGame() != original) {
+			throw new IllegalArgumentException(entity + " is not part of the game being forked");
+		}
+		return fork.getEntity(entity.getId());
+	}
+
+	/**
+	 * Find the forked counterpart of a component, forking it first if that has not been done yet.
+	 *
+	 * @param <T> The type of the component
+	 * @param component A component of the original game, or null
+	 * @return The component in the fork, or null if component is null
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Component> T component(T component) {
+		if (component == null) {
+			return null;
+		}
+		Entity owner = entity(component.getEntity());
+		if (owner == component.getEntity()) {
+			// component of a removed entity
+			return component;
+		}
+		Component existing = owner.getComponent(component.getClass());
+		if (existing == null) {
+			existing = forkComponent(component, owner);
+		}
+		return (T) existing;
+	}
+
+	/**
+	 * Find the system to use in the fork for a system of the original game, forking it first if that has not been done yet.
+	 * Systems that refer to other systems use this so that each system is only forked once.
+	 *
+	 * @param system A system of the original game
+	 * @return The system to use in the fork, which is the same system if it is shared, or null if it is not part of the fork
+	 * @see ECSSystem#fork(GameFork)
+	 */
+	public ECSSystem system(ECSSystem system) {
+		if (!systems.containsKey(system)) {
+			systems.put(system, system.fork(this));
+		}
+		return systems.get(system);
+	}
+
+	void forkComponents(Entity entity) {
+		for (Component component : entity.getSuperComponents(Component.class)) {
+			component(component);
+		}
+	}
+
+	private Component forkComponent(Component component, Entity owner) {
+		if (!inProgress.add(component)) {
+			throw new IllegalStateException("Circular reference when forking " + component + " of " + owner);
+		}
+		Component result;
+		if (component instanceof ForkableComponent) {
+			result = ((ForkableComponent) component).fork(this);
+		}
+		else if (component instanceof CopyableComponent) {
+			result = ((CopyableComponent) component).copy(owner);
+		}
+		else {
+			throw new UnsupportedOperationException(component.getClass().getName()
+					+ " needs to implement ForkableComponent or CopyableComponent to be forked");
+		}
+		if (result.getClass() != component.getClass()) {
+			throw new IllegalStateException("Fork of " + component.getClass().getName() + " resulted in a " + result.getClass().getName());
+		}
+		owner.addComponent(result);
+		inProgress.remove(component);
+		return result;
+	}
+
+}
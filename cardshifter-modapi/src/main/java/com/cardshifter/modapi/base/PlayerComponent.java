@@ -2,7 +2,7 @@ package com.cardshifter.modapi.base;
 
 import java.util.*;
 
-public class PlayerComponent extends Component {
+public class PlayerComponent extends Component implements ForkableComponent {
 
 	private final int index;
 	private int resultPosition;
@@ -41,8 +41,7 @@ public class PlayerComponent extends Component {
 	}
 	
 	private void eliminate(boolean winner) {
-		List<Entity> players = new ArrayList<>(getEntity().getGame().getEntitiesWithComponent(PlayerComponent.class));
-		players.sort(Comparator.comparing(e -> e.getComponent(PlayerComponent.class).getIndex()));
+		List<Entity> players = getEntity().getGame().getPlayerRegistry().getPlayers();
 		
 		// if no one else has been eliminated, the player is at 1st place. Because the player itself has not been eliminated, it should get increased below.
 		int playerResultPosition = winner ? 0 : players.size() + 1;
@@ -98,6 +97,14 @@ public class PlayerComponent extends Component {
 		return winnerDeclaration;
 	}
 
+	@Override
+	public Component fork(GameFork fork) {
+		PlayerComponent copy = new PlayerComponent(index, name);
+		copy.resultPosition = this.resultPosition;
+		copy.winnerDeclaration = this.winnerDeclaration;
+		return copy;
+	}
+
 	@Override
 	public String toString() {
 		return "PlayerComponent [index=" + index + ", name=" + name + "]";
@@ -0,0 +1,144 @@
+package com.cardshifter.modapi.base;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.cardshifter.api.ClientIO;
+
+/**
+ * The players of a game, kept up to date by the game whenever a {@link PlayerComponent} is added or removed.
+ * <p>
+ * Players can be found by their index, by the client that controls them, or by turn order, without searching through the entities of the game.
+ * The turn order is the order of the player indexes, starting over from the lowest index after the highest.
+ *
+ * @see ECSGame#getPlayerRegistry()
+ */
+public final class PlayerRegistry {
+
+	private static final Entity[] NO_PLAYERS = new Entity[0];
+
+	/**
+	 * Everything is replaced at once when the players change, so that readers on other threads always see a consistent state
+	 */
+	private static final class Snapshot {
+		private final List<Entity> players;
+		private final Entity[] byIndex;
+		private final Map<Entity, Entity> next;
+
+		Snapshot(List<Entity> players, Entity[] byIndex, Map<Entity, Entity> next) {
+			this.players = players;
+			this.byIndex = byIndex;
+			this.next = next;
+		}
+	}
+
+	private final List<Entity> sorted = new ArrayList<>();
+	private volatile Snapshot snapshot = new Snapshot(Collections.emptyList(), NO_PLAYERS, Collections.emptyMap());
+	private final Map<ClientIO, Integer> clients = new ConcurrentHashMap<>();
+
+	PlayerRegistry() {
+	}
+
+	synchronized void add(Entity entity) {
+		if (!sorted.contains(entity)) {
+			sorted.add(entity);
+			update();
+		}
+	}
+
+	synchronized void remove(Entity entity) {
+		if (sorted.remove(entity)) {
+			update();
+		}
+	}
+
+	private void update() {
+		sorted.sort(Comparator.comparingInt(PlayerRegistry::playerIndex));
+		int size = sorted.isEmpty() ? 0 : Math.max(playerIndex(sorted.get(sorted.size() - 1)) + 1, 0);
+		Entity[] byIndex = new Entity[size];
+		Map<Entity, Entity> next = new IdentityHashMap<>();
+		for (int i = 0; i < sorted.size(); i++) {
+			Entity player = sorted.get(i);
+			if (playerIndex(player) >= 0) {
+				byIndex[playerIndex(player)] = player;
+			}
+			next.put(player, sorted.get((i + 1) % sorted.size()));
+		}
+		snapshot = new Snapshot(Collections.unmodifiableList(new ArrayList<>(sorted)), byIndex, next);
+	}
+
+	private static int playerIndex(Entity player) {
+		return player.getComponent(PlayerComponent.class).getIndex();
+	}
+
+	/**
+	 * @return All players of the game, ordered by index. The list can not be modified.
+	 */
+	public List<Entity> getPlayers() {
+		return snapshot.players;
+	}
+
+	/**
+	 * @param index The index of the player, see {@link PlayerComponent#getIndex()}
+	 * @return The player with the index, or null if there is no such player
+	 */
+	public Entity getPlayer(int index) {
+		Entity[] byIndex = snapshot.byIndex;
+		return index >= 0 && index < byIndex.length ? byIndex[index] : null;
+	}
+
+	/**
+	 * @param player A player of the game
+	 * @return The player that comes after the specified player in turn order
+	 * @throws IllegalArgumentException If the entity is not a player of the game
+	 */
+	public Entity getNextPlayer(Entity player) {
+		Entity next = snapshot.next.get(player);
+		if (next == null) {
+			throw new IllegalArgumentException(player + " is not a player in this game");
+		}
+		return next;
+	}
+
+	/**
+	 * Set which player index a client controls
+	 *
+	 * @param client The client
+	 * @param index The index of the player that the client controls
+	 */
+	public void bindClient(ClientIO client, int index) {
+		clients.put(client, index);
+	}
+
+	/**
+	 * Forget which player index a client controls, for example when it leaves the game
+	 *
+	 * @param client The client
+	 */
+	public void unbindClient(ClientIO client) {
+		clients.remove(client);
+	}
+
+	/**
+	 * @param client A client that has been bound to a player index
+	 * @return The index of the player that the client controls, or -1 if the client has not been bound
+	 */
+	public int indexOf(ClientIO client) {
+		Integer index = clients.get(client);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @param client A client that has been bound to a player index
+	 * @return The player that the client controls, or null if there is no such player
+	 */
+	public Entity getPlayer(ClientIO client) {
+		return getPlayer(indexOf(client));
+	}
+
+}
@@ -1,5 +1,8 @@
 package com.cardshifter.modapi.base;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -8,7 +11,6 @@ import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 
 public class Retrievers {
 
@@ -33,62 +35,110 @@ public class Retrievers {
 	}
 
 	public static <T extends Component> T singleton(ECSGame game, Class<T> class1) {
-		Set<Entity> all = game.getEntitiesWithComponent(class1);
+		EntityFamily all = game.getFamily(class1);
 		if (all.size() != 1) {
 			throw new IllegalStateException("Expected to find exactly one " + class1.getSimpleName() + ", found " + all.size());
 		}
-		return all.iterator().next().getComponent(class1);
+		return all.first().getComponent(class1);
 	}
 
-	public static void inject(Object object, ECSGame game) {
-		List<Field> fields = AccessController.doPrivileged((PrivilegedAction<List<Field>>)() -> {
-			Class<?> clazz = object.getClass();
-			List<Field> result = new ArrayList<>();
+	/**
+	 * The fields to inject for each class, found the first time an object of the class is injected
+	 */
+	private static final ClassValue<InjectionPlan> plans = new ClassValue<InjectionPlan>() {
+		@Override
+		protected InjectionPlan computeValue(Class<?> type) {
+			return AccessController.doPrivileged((PrivilegedAction<InjectionPlan>) () -> new InjectionPlan(type));
+		}
+	};
+
+	/**
+	 * The fields of a class that are annotated with {@link Retriever} or {@link RetrieverSingleton},
+	 * with a setter for each of them and the retriever to set for the {@link Retriever} fields.
+	 * Retriever fields are set before singleton fields.
+	 */
+	private static final class InjectionPlan {
+		private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+		private final List<MethodHandle> retrieverSetters = new ArrayList<>();
+		private final List<ComponentRetriever<?>> retrievers = new ArrayList<>();
+		private final List<MethodHandle> singletonSetters = new ArrayList<>();
+		private final List<Class<? extends Component>> singletons = new ArrayList<>();
+
+		InjectionPlan(Class<?> type) {
+			List<Field> fields = new ArrayList<>();
+			Class<?> clazz = type;
 			do {
-				result.addAll(Arrays.asList(clazz.getDeclaredFields()));
+				fields.addAll(Arrays.asList(clazz.getDeclaredFields()));
 				clazz = clazz.getSuperclass();
 			}
 			while (clazz != Object.class);
-			return result;
-		});
-		AccessController.doPrivileged((PrivilegedAction<Void>)() -> {
-			fields.stream().filter(field -> field.getAnnotation(Retriever.class) != null).forEach(field -> injectField(object, field, game));
-			fields.stream().filter(field -> field.getAnnotation(RetrieverSingleton.class) != null).forEach(field -> injectSingleton(object, field, game));
-			return null;
-		});
-	}
 
-	private static void injectSingleton(Object obj, Field field, ECSGame game) {
-		Class<? extends Component> clazz = field.getType().asSubclass(Component.class);
-		AccessController.doPrivileged((PrivilegedAction<Void>)() -> {
+			for (Field field : fields) {
+				if (field.getAnnotation(Retriever.class) != null) {
+					ComponentRetriever<?> retriever = retrieverFor(field);
+					if (retriever != null) {
+						retrieverSetters.add(setter(field));
+						retrievers.add(retriever);
+					}
+				}
+			}
+			for (Field field : fields) {
+				if (field.getAnnotation(RetrieverSingleton.class) != null) {
+					singletonSetters.add(setter(field));
+					singletons.add(field.getType().asSubclass(Component.class));
+				}
+			}
+		}
+
+		private static ComponentRetriever<?> retrieverFor(Field field) {
+			if (field.getType() != ComponentRetriever.class) {
+				throw new RuntimeException(field.getType() + " is not a ComponentRetriever");
+			}
+			Type genericFieldType = field.getGenericType();
+			if (!(genericFieldType instanceof ParameterizedType)) {
+				return null;
+			}
+			Type[] fieldArgTypes = ((ParameterizedType) genericFieldType).getActualTypeArguments();
+			Class<?> fieldArgClass = (Class<?>) fieldArgTypes[0];
+			// retrievers have no state of their own, so the same one can be used for all objects of the class
+			return Retrievers.component(fieldArgClass.asSubclass(Component.class));
+		}
+
+		private static MethodHandle setter(Field field) {
 			field.setAccessible(true);
 			try {
-				field.set(obj, Retrievers.singleton(game, clazz));
-			} catch (IllegalArgumentException | IllegalAccessException e) {
+				return MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+			} catch (IllegalAccessException e) {
 				throw new RuntimeException(e);
 			}
-			return null;
-		});
-	}
-
-	private static void injectField(Object obj, Field field, ECSGame game) {
-		if (field.getType() != ComponentRetriever.class) {
-			throw new RuntimeException(field.getType() + " is not a ComponentRetriever");
 		}
 
-		Type genericFieldType = field.getGenericType();
-
-		if (genericFieldType instanceof ParameterizedType) {
-			ParameterizedType aType = (ParameterizedType) genericFieldType;
-			Type[] fieldArgTypes = aType.getActualTypeArguments();
-			Class<?> fieldArgClass = (Class<?>) fieldArgTypes[0];
+		void apply(Object object, ECSGame game) {
 			try {
-				field.setAccessible(true);
-				field.set(obj, Retrievers.component(fieldArgClass.asSubclass(Component.class)));
-			} catch (IllegalAccessException e) {
+				for (int i = 0; i < retrieverSetters.size(); i++) {
+					retrieverSetters.get(i).invokeExact(object, (Object) retrievers.get(i));
+				}
+				for (int i = 0; i < singletonSetters.size(); i++) {
+					singletonSetters.get(i).invokeExact(object, (Object) Retrievers.singleton(game, singletons.get(i)));
+				}
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
 				throw new RuntimeException(e);
 			}
 		}
 	}
-	
+
+	/**
+	 * Set all fields of an object that are annotated with {@link Retriever} or {@link RetrieverSingleton}.
+	 * The fields of each class are only looked up once.
+	 *
+	 * @param object The object to inject fields on
+	 * @param game The game to find singleton components in
+	 */
+	public static void inject(Object object, ECSGame game) {
+		plans.get(object.getClass()).apply(object, game);
+	}
+
 }
@@ -1,6 +1,8 @@
 package com.cardshifter.modapi.cards;
 
+import com.cardshifter.modapi.base.Component;
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.GameFork;
 
 public class BattlefieldComponent extends ZoneComponent {
 
@@ -9,4 +11,13 @@ public class BattlefieldComponent extends ZoneComponent {
 		this.setGloballyKnown(true);
 	}
 
+	private BattlefieldComponent(BattlefieldComponent original, GameFork fork) {
+		super(original, fork);
+	}
+
+	@Override
+	public Component fork(GameFork fork) {
+		return new BattlefieldComponent(this, fork);
+	}
+
 }
@@ -2,10 +2,12 @@ package com.cardshifter.modapi.cards;
 
 import com.cardshifter.modapi.base.Component;
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.ForkableComponent;
+import com.cardshifter.modapi.base.GameFork;
 
 import java.util.Objects;
 
-public class CardComponent extends Component {
+public class CardComponent extends Component implements ForkableComponent {
 
 	private ZoneComponent currentZone;
 	
@@ -54,6 +56,11 @@ public class CardComponent extends Component {
         });
 	}
 	
+    @Override
+    public Component fork(GameFork fork) {
+        return new CardComponent(fork.component(currentZone));
+    }
+
     @Override
     public String toString() {
         return "CardOnZone " + currentZone;
@@ -0,0 +1,195 @@
+package com.cardshifter.modapi.cards;
+
+import java.util.AbstractList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.RandomAccess;
+
+import com.cardshifter.modapi.base.Entity;
+
+/**
+ * The cards of a zone, in a circular array with the position of each card.
+ * Finding and removing a card is done in constant time. A removed card leaves an empty slot behind,
+ * the empty slots are only compacted away when the cards are read by index or shuffled.
+ * <p>
+ * As a {@link java.util.List} this is read-only, it is only modified by its zone.
+ */
+final class CardDeque extends AbstractList<Entity> implements RandomAccess {
+
+	private Entity[] elements = new Entity[8];
+	private int head;
+
+	/**
+	 * The number of slots in use from {@link #head}, including the empty slots of removed cards.
+	 * The first and the last slot always contain a card.
+	 */
+	private int span;
+	private int removed;
+
+	/**
+	 * The position of each card, which is its slot plus {@link #offset}.
+	 * This makes it possible to add cards at the top without changing the positions of the other cards.
+	 */
+	private final Map<Entity, Integer> positions = new IdentityHashMap<>();
+	private int offset;
+
+	private int physical(int index) {
+		return (head + index) & (elements.length - 1);
+	}
+
+	@Override
+	public Entity get(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+		}
+		compact();
+		return elements[physical(index)];
+	}
+
+	@Override
+	public int size() {
+		return span - removed;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return positions.containsKey(o);
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		Integer position = positions.get(o);
+		if (position == null) {
+			return -1;
+		}
+		compact();
+		return positions.get(o) - offset;
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return indexOf(o);
+	}
+
+	Entity first() {
+		if (span == 0) {
+			throw new NoSuchElementException();
+		}
+		return elements[head];
+	}
+
+	void addFirst(Entity card) {
+		checkNotContained(card);
+		growIfFull();
+		head = (head - 1) & (elements.length - 1);
+		elements[head] = card;
+		span++;
+		offset--;
+		positions.put(card, offset);
+		modCount++;
+	}
+
+	void addLast(Entity card) {
+		checkNotContained(card);
+		growIfFull();
+		elements[physical(span)] = card;
+		positions.put(card, offset + span);
+		span++;
+		modCount++;
+	}
+
+	/**
+	 * @param card The card to remove
+	 * @return True if the card was removed, false if it is not in this deque
+	 */
+	boolean removeCard(Entity card) {
+		Integer position = positions.remove(card);
+		if (position == null) {
+			return false;
+		}
+		elements[physical(position - offset)] = null;
+		removed++;
+		// keep a card in the first and the last slot
+		while (span > 0 && elements[head] == null) {
+			head = (head + 1) & (elements.length - 1);
+			offset++;
+			span--;
+			removed--;
+		}
+		while (span > 0 && elements[physical(span - 1)] == null) {
+			span--;
+			removed--;
+		}
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * Shuffle the cards in place, the same way as {@link java.util.Collections#shuffle(java.util.List, Random)}
+	 *
+	 * @param random The source of randomness
+	 */
+	void shuffle(Random random) {
+		compact();
+		for (int i = span; i > 1; i--) {
+			int j = random.nextInt(i);
+			Entity card = elements[physical(i - 1)];
+			place(i - 1, elements[physical(j)]);
+			place(j, card);
+		}
+		modCount++;
+	}
+
+	/**
+	 * Move the cards over the empty slots of removed cards, keeping their order.
+	 */
+	private void compact() {
+		if (removed == 0) {
+			return;
+		}
+		int index = 0;
+		for (int i = 0; i < span; i++) {
+			Entity card = elements[physical(i)];
+			if (card == null) {
+				continue;
+			}
+			if (index != i) {
+				elements[physical(i)] = null;
+				place(index, card);
+			}
+			index++;
+		}
+		span = index;
+		removed = 0;
+	}
+
+	private void place(int index, Entity card) {
+		elements[physical(index)] = card;
+		positions.put(card, offset + index);
+	}
+
+	private void checkNotContained(Entity card) {
+		if (positions.containsKey(card)) {
+			throw new IllegalStateException(card + " is already in this zone");
+		}
+	}
+
+	private void growIfFull() {
+		if (span < elements.length) {
+			return;
+		}
+		if (removed >= span / 2) {
+			compact();
+			return;
+		}
+		Entity[] grown = new Entity[elements.length * 2];
+		int firstPart = Math.min(span, elements.length - head);
+		System.arraycopy(elements, head, grown, 0, firstPart);
+		System.arraycopy(elements, 0, grown, firstPart, span - firstPart);
+		elements = grown;
+		head = 0;
+	}
+
+}
@@ -4,8 +4,10 @@ import com.cardshifter.api.config.DeckConfig;
 import com.cardshifter.modapi.attributes.Attributes;
 import com.cardshifter.modapi.attributes.ECSAttributeData;
 import com.cardshifter.modapi.attributes.ECSAttributeMap;
+import com.cardshifter.modapi.base.Component;
 import com.cardshifter.modapi.base.ECSGame;
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.GameFork;
 import net.zomis.cardshifter.ecs.config.ConfigComponent;
 
 import java.util.Map;
@@ -18,6 +20,15 @@ public class DeckComponent extends ZoneComponent {
 		super(owner, "Deck");
 	}
 
+	private DeckComponent(DeckComponent original, GameFork fork) {
+		super(original, fork);
+	}
+
+	@Override
+	public Component fork(GameFork fork) {
+		return new DeckComponent(this, fork);
+	}
+
     public void createFromConfig(String name) {
         ConfigComponent playerConfig = getOwner().getComponent(ConfigComponent.class);
         DeckConfig config = (DeckConfig) playerConfig.getConfigs().get(name);
@@ -1,6 +1,8 @@
 package com.cardshifter.modapi.cards;
 
+import com.cardshifter.modapi.base.Component;
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.GameFork;
 
 public class HandComponent extends ZoneComponent {
 
@@ -9,4 +11,13 @@ public class HandComponent extends ZoneComponent {
 		this.setKnown(owner, true);
 	}
 
+	private HandComponent(HandComponent original, GameFork fork) {
+		super(original, fork);
+	}
+
+	@Override
+	public Component fork(GameFork fork) {
+		return new HandComponent(this, fork);
+	}
+
 }
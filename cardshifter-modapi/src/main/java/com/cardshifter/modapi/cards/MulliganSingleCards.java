@@ -1,12 +1,13 @@
 package com.cardshifter.modapi.cards;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import com.cardshifter.modapi.actions.ActionAllowedCheckEvent;
 import com.cardshifter.modapi.actions.ActionComponent;
 import com.cardshifter.modapi.actions.ECSAction;
+import com.cardshifter.modapi.actions.TargetCandidatesEvent;
 import com.cardshifter.modapi.actions.TargetableCheckEvent;
 import com.cardshifter.modapi.base.ComponentRetriever;
 import com.cardshifter.modapi.base.ECSGame;
@@ -21,22 +22,22 @@ public class MulliganSingleCards implements ECSSystem {
 	private static final String PHASE_NAME = "Mulligan";
 	private static final String ACTION_NAME = "Mulligan";
 	
-	private final PhaseController phases;
-	private final AtomicInteger remainingPerforms = new AtomicInteger(0);
-
 	public MulliganSingleCards(ECSGame game) {
-		phases = ComponentRetriever.singleton(game, PhaseController.class);
-		phases.insertTemporaryPhaseBeforeCurrent(new Phase(null, PHASE_NAME));
+		phases(game).insertTemporaryPhaseBeforeCurrent(new Phase(null, PHASE_NAME));
+	}
+
+	private static PhaseController phases(ECSGame game) {
+		return ComponentRetriever.singleton(game, PhaseController.class);
 	}
 	
 	@Override
 	public void startGame(ECSGame game) {
 		ComponentRetriever<ActionComponent> actions = ComponentRetriever.retreiverFor(ActionComponent.class);
 		game.getEvents().registerHandlerAfter(this, TargetableCheckEvent.class, this::targetAllowed);
+		game.getEvents().registerHandlerAfter(this, TargetCandidatesEvent.class, this::targetCandidates);
 		game.getEvents().registerHandlerAfter(this, ActionAllowedCheckEvent.class, this::actionAllowed);
 		
 		Set<Entity> players = game.getEntitiesWithComponent(PlayerComponent.class);
-		remainingPerforms.set(players.size());
 		for (Entity player : players) {
 			ActionComponent playerActions = player.get(actions);
 			if (playerActions == null) {
@@ -58,11 +59,22 @@ public class MulliganSingleCards implements ECSSystem {
 		if (event.getEntity() != event.getPerformer()) {
 			event.setAllowed(false);
 		}
-		if (!PHASE_NAME.equals(phases.getCurrentPhase().getName())) {
+		if (!PHASE_NAME.equals(phases(event.getEntity().getGame()).getCurrentPhase().getName())) {
 			event.setAllowed(false);
 		}
 	}
 	
+	private void targetCandidates(TargetCandidatesEvent event) {
+		if (!event.getAction().getName().equals(ACTION_NAME)) {
+			return;
+		}
+		Entity owner = event.getAction().getOwner();
+		event.restrictTo(game -> {
+			HandComponent hand = owner.getComponent(HandComponent.class);
+			return hand == null ? Collections.emptyList() : hand.getCardsView();
+		});
+	}
+	
 	private void targetAllowed(TargetableCheckEvent event) {
 		if (!event.getAction().getName().equals(ACTION_NAME)) {
 			return;
@@ -85,8 +97,13 @@ public class MulliganSingleCards implements ECSSystem {
         Entity owner = mulliganAction.getOwner();
 		owner.getComponent(ActionComponent.class).removeAction(ACTION_NAME);
         owner.getComponent(DeckComponent.class).shuffle();
-		if (remainingPerforms.decrementAndGet() == 0) {
-			phases.nextPhase();
+		// the system keeps no state of its own, so that it can be shared with forks of the game
+		ECSGame game = owner.getGame();
+		boolean remaining = game.getFamily(PlayerComponent.class).stream()
+			.map(player -> player.getComponent(ActionComponent.class))
+			.anyMatch(actions -> actions != null && actions.getAction(ACTION_NAME) != null);
+		if (!remaining) {
+			phases(game).nextPhase();
 		}
 	}
 	
@@ -1,9 +1,7 @@
 package com.cardshifter.modapi.cards;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -12,10 +10,12 @@ import java.util.stream.Stream;
 
 import com.cardshifter.modapi.base.Component;
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.ForkableComponent;
+import com.cardshifter.modapi.base.GameFork;
 
-public class ZoneComponent extends Component {
+public class ZoneComponent extends Component implements ForkableComponent {
 
-	private final LinkedList<Entity> cards = new LinkedList<>();
+	private final CardDeque cards = new CardDeque();
 	private final Entity owner;
 	private final Map<Entity, Boolean> known = new HashMap<>();
 	private final String name;
@@ -29,12 +29,32 @@ public class ZoneComponent extends Component {
 		this.zoneEntity = owner.getGame().newEntity();
 	}
 	
+	/**
+	 * Create the counterpart of a zone in a forked game. Subclasses need to use this when overriding {@link #fork(GameFork)}.
+	 * 
+	 * @param original The zone in the original game
+	 * @param fork The fork that is being created
+	 */
+	protected ZoneComponent(ZoneComponent original, GameFork fork) {
+		this.owner = fork.entity(original.owner);
+		this.name = original.name;
+		this.zoneEntity = fork.entity(original.zoneEntity);
+		this.publicKnown = original.publicKnown;
+		original.cards.forEach(card -> cards.addLast(fork.entity(card)));
+		original.known.forEach((player, isKnown) -> known.put(fork.entity(player), isKnown));
+	}
+	
+	@Override
+	public Component fork(GameFork fork) {
+		return new ZoneComponent(this, fork);
+	}
+	
 	public Entity getOwner() {
 		return owner;
 	}
 	
 	public Entity getTopCard() {
-		return cards.getFirst();
+		return cards.first();
 	}
 	
 	public boolean isKnownTo(Entity player) {
@@ -51,7 +71,7 @@ public class ZoneComponent extends Component {
 	}
 	
 	public void shuffle() {
-		Collections.shuffle(cards, getRandom());
+		cards.shuffle(getRandom());
 	}
 
 	public void setGloballyKnown(boolean publicKnown) {
@@ -71,7 +91,7 @@ public class ZoneComponent extends Component {
 	}
 	
 	void cardMoveFrom(Entity card) {
-		cards.remove(card);
+		cards.removeCard(card);
 	}
 
 	void cardMoveAtTop(Entity card) {
@@ -100,10 +120,28 @@ public class ZoneComponent extends Component {
 		return cards.stream();
 	}
 
+	/**
+	 * @return A new list of the cards in this zone, which can be modified without affecting the zone
+	 */
 	public List<Entity> getCards() {
 		return new ArrayList<>(cards);
 	}
 
+	/**
+	 * @return A read-only view of the cards in this zone, which changes along with the zone
+	 */
+	public List<Entity> getCardsView() {
+		return cards;
+	}
+
+	/**
+	 * @param card The card to look for
+	 * @return True if the card is in this zone
+	 */
+	public boolean contains(Entity card) {
+		return cards.contains(card);
+	}
+
 	public String getName() {
 		return name;
 	}
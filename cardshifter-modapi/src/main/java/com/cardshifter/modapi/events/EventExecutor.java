@@ -1,16 +1,12 @@
 package com.cardshifter.modapi.events;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
@@ -21,37 +17,115 @@ public class EventExecutor implements EventExecution {
 
 	private static final Logger logger = LogManager.getLogger(EventExecutor.class);
 	
-	protected final Map<Class<? extends IEvent>, Collection<EventHandler<?>>> bindings;
+	private static final EventHandler<?>[] NO_HANDLERS = new EventHandler<?>[0];
 	
-	public EventExecutor() {
-		this.bindings = new HashMap<Class<? extends IEvent>, Collection<EventHandler<?>>>();
+	/**
+	 * The handlers that should be called for a concrete event class, split into handlers running before and after the event.
+	 * Tables are never modified, they are replaced when handlers are registered or removed.
+	 * This makes it safe to add or remove handlers while an event is being dispatched.
+	 */
+	private static final class HandlerTable {
+		private final EventHandler<?>[] before;
+		private final EventHandler<?>[] after;
+		
+		HandlerTable(EventHandler<?>[] before, EventHandler<?>[] after) {
+			this.before = before;
+			this.after = after;
+		}
 	}
 	
-	private <T extends IEvent> T executeEventInternal(T event, Predicate<EventHandler<?>> predicate) {
-		Collection<EventHandler<?>> handlers = this.bindings.get(event.getClass());
-		if (handlers != null) {
-			List<EventHandler<?>> interestedHandlers = handlers.stream().filter(predicate).collect(Collectors.toList());
-			ListIterator<EventHandler<?>> iterator = interestedHandlers.listIterator();
-			while (iterator.hasNext()) {
-				EventHandler<?> performer = iterator.next();
-//				int index = iterator.nextIndex();
-//				logger.info("Handling " + event + " " + index + " / " + interestedHandlers.size() + ": " + performer);
-				performer.execute(event);
-			}
+	/**
+	 * Shared table for all event classes that nobody listens to
+	 */
+	private static final HandlerTable EMPTY_TABLE = new HandlerTable(NO_HANDLERS, NO_HANDLERS);
+	
+	/**
+	 * A handler and the event type it was registered for, which may be a supertype or interface of the events it handles
+	 */
+	private static final class Binding {
+		private final Class<? extends IEvent> type;
+		private final EventHandler<?> handler;
+		
+		Binding(Class<? extends IEvent> type, EventHandler<?> handler) {
+			this.type = type;
+			this.handler = handler;
+		}
+	}
+	
+	/**
+	 * All registered handlers in registration order. Guarded by this.
+	 */
+	private final List<Binding> bindings = new ArrayList<>();
+	
+	/**
+	 * Lazily resolved handlers for each concrete event class that has been executed
+	 */
+	private final Map<Class<?>, HandlerTable> dispatchTables = new ConcurrentHashMap<>();
+	
+	private <T extends IEvent> T executeEventInternal(T event, boolean after) {
+		HandlerTable table = this.dispatchTables.get(event.getClass());
+		if (table == null) {
+			table = resolve(event.getClass());
+		}
+		EventHandler<?>[] handlers = after ? table.after : table.before;
+		for (EventHandler<?> handler : handlers) {
+			handler.execute(event);
 		}
 		return event;
 	}
 	
+	private synchronized HandlerTable resolve(Class<?> eventClass) {
+		HandlerTable table = dispatchTables.get(eventClass);
+		if (table != null) {
+			return table;
+		}
+		List<EventHandler<?>> before = new ArrayList<>();
+		List<EventHandler<?>> after = new ArrayList<>();
+		for (Binding binding : bindings) {
+			if (binding.type.isAssignableFrom(eventClass)) {
+				(binding.handler.isAfter() ? after : before).add(binding.handler);
+			}
+		}
+		table = before.isEmpty() && after.isEmpty() ? EMPTY_TABLE :
+			new HandlerTable(before.toArray(NO_HANDLERS), after.toArray(NO_HANDLERS));
+		dispatchTables.put(eventClass, table);
+		return table;
+	}
+	
+	/**
+	 * Forget the resolved tables of all event classes that are handled by the specified type
+	 * 
+	 * @param type The event type that has changed handlers
+	 */
+	private void invalidate(Class<?> type) {
+		dispatchTables.keySet().removeIf(type::isAssignableFrom);
+	}
+	
+	private synchronized void removeBindings(Predicate<EventHandler<?>> predicate) {
+		Iterator<Binding> it = bindings.iterator();
+		while (it.hasNext()) {
+			Binding binding = it.next();
+			if (predicate.test(binding.handler)) {
+				it.remove();
+				invalidate(binding.type);
+			}
+		}
+	}
+	
 	@Override
 	public <T extends IEvent> T executePostEvent(T event) {
-		logger.debug("Execute pre event " + event);
-		return executeEventInternal(event, eh -> eh.isAfter());
+		if (logger.isDebugEnabled()) {
+			logger.debug("Execute post event " + event);
+		}
+		return executeEventInternal(event, true);
 	}
 
 	@Override
 	public <T extends IEvent> T executePreEvent(T event) {
-		logger.debug("Execute post event " + event);
-		return executeEventInternal(event, eh -> !eh.isAfter());
+		if (logger.isDebugEnabled()) {
+			logger.debug("Execute pre event " + event);
+		}
+		return executeEventInternal(event, false);
 	}
 
 	/**
@@ -86,38 +160,51 @@ public class EventExecutor implements EventExecution {
 		return event;
 	}
 	
-	public <T extends IEvent> void registerHandler(Class<T> realParam, EventHandler<T> handler) {
-		if (!this.bindings.containsKey(realParam)) {
-			this.bindings.put(realParam, createCollection());
-		}
-		Collection<EventHandler<?>> eventHandlersForEvent = this.bindings.get(realParam);
-		eventHandlersForEvent.add(handler);
-	}
-
-	protected Collection<EventHandler<?>> createCollection() {
-		return new ArrayList<EventHandler<?>>();
+	/**
+	 * Register a handler for an event type. The handler will be called for all events of the specified type,
+	 * including events of classes that extend or implement it, such as {@link IEvent} or {@link CancellableEvent}.
+	 * 
+	 * @param realParam The event type to handle
+	 * @param handler The handler to call
+	 */
+	public synchronized <T extends IEvent> void registerHandler(Class<T> realParam, EventHandler<T> handler) {
+		this.bindings.add(new Binding(realParam, handler));
+		invalidate(realParam);
 	}
 
-	public void clearListeners() {
+	public synchronized void clearListeners() {
 		this.bindings.clear();
+		this.dispatchTables.clear();
 	}
 
-	public void removeHandler(EventHandler<?> listener) {
-		for (Entry<Class<? extends IEvent>, Collection<EventHandler<?>>> ee : bindings.entrySet()) {
-			Iterator<EventHandler<?>> it = ee.getValue().iterator();
-			while (it.hasNext()) {
-				EventHandler<?> curr = it.next();
-				if (curr == listener) {
-					it.remove();
+	/**
+	 * Register some of the handlers of this executor on another executor, keeping their order.
+	 * The handlers are shared, not copied.
+	 *
+	 * @param target The executor to register the handlers on
+	 * @param identifiers Which identifiers to copy the handlers of
+	 */
+	public void copyHandlersTo(EventExecutor target, Predicate<Object> identifiers) {
+		List<Binding> copied = new ArrayList<>();
+		synchronized (this) {
+			for (Binding binding : bindings) {
+				if (identifiers.test(binding.handler.getIdentifier())) {
+					copied.add(binding);
 				}
 			}
 		}
+		synchronized (target) {
+			target.bindings.addAll(copied);
+			target.dispatchTables.clear();
+		}
+	}
+
+	public void removeHandler(EventHandler<?> listener) {
+		removeBindings(eh -> eh == listener);
 	}
 	
 	public void removeListenersWithIdentifier(Object identifier) {
-		for (Entry<Class<? extends IEvent>, Collection<EventHandler<?>>> ee : bindings.entrySet()) {
-			ee.getValue().removeIf(eh -> eh.getIdentifier() == identifier);
-		}
+		removeBindings(eh -> eh.getIdentifier() == identifier);
 	}
 	
 	public <T extends IEvent> EventHandler<T> registerHandlerAfter(Object identifier, Class<T> realParam, Consumer<T> handler) {
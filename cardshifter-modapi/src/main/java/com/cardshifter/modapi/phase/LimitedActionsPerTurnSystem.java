@@ -5,6 +5,7 @@ import com.cardshifter.modapi.actions.Actions;
 import com.cardshifter.modapi.actions.ECSAction;
 import com.cardshifter.modapi.base.ECSGame;
 import com.cardshifter.modapi.base.ECSSystem;
+import com.cardshifter.modapi.base.GameFork;
 import com.cardshifter.modapi.base.Retrievers;
 
 /**
@@ -28,6 +29,13 @@ public class LimitedActionsPerTurnSystem implements ECSSystem {
 		game.getEvents().registerHandlerAfter(this, ActionPerformEvent.class, this::onCardPlayed);
 	}
 	
+	@Override
+	public ECSSystem fork(GameFork fork) {
+		LimitedActionsPerTurnSystem copy = new LimitedActionsPerTurnSystem(limit, actionName);
+		copy.cardsPlayedThisTurn = this.cardsPlayedThisTurn;
+		return copy;
+	}
+	
 	private void onNewTurn(PhaseStartEvent event) {
 		// TODO: This is technically not turn-dependent, only phase-dependent. One *turn* can consist of many *phases*
 		this.cardsPlayedThisTurn = 0;
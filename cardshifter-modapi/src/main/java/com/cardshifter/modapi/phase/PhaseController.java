@@ -1,13 +1,17 @@
 package com.cardshifter.modapi.phase;
 
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.function.Predicate;
 
 import com.cardshifter.modapi.base.Component;
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.ForkableComponent;
+import com.cardshifter.modapi.base.GameFork;
 
-public class PhaseController extends Component {
+public class PhaseController extends Component implements ForkableComponent {
 	
 	private final LinkedList<Phase> upcomingPhases = new LinkedList<>();
 	private final LinkedList<Phase> permanentPhases = new LinkedList<>();
@@ -118,5 +122,21 @@ public class PhaseController extends Component {
 	public void insertTemporaryPhaseBeforeCurrent(Phase phase) {
 		this.upcomingPhases.addFirst(phase);
 	}
+
+	@Override
+	public Component fork(GameFork fork) {
+		PhaseController copy = new PhaseController();
+		// the same phase can be both permanent and upcoming, and phases are compared by identity
+		Map<Phase, Phase> forkedPhases = new IdentityHashMap<>();
+		for (Phase phase : permanentPhases) {
+			copy.permanentPhases.add(forkedPhases.computeIfAbsent(phase, p -> new Phase(fork.entity(p.getOwner()), p.getName())));
+		}
+		for (Phase phase : upcomingPhases) {
+			copy.upcomingPhases.add(forkedPhases.computeIfAbsent(phase, p -> new Phase(fork.entity(p.getOwner()), p.getName())));
+		}
+		copy.phaseNumber = this.phaseNumber;
+		copy.recreateCount = this.recreateCount;
+		return copy;
+	}
 	
 }
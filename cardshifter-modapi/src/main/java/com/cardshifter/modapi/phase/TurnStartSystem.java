@@ -15,7 +15,7 @@ public class TurnStartSystem implements ECSSystem {
 
 	@Override
 	public void startGame(ECSGame game) {
-		game.getEvents().registerHandlerAfter(this, PhaseChangeEvent.class, event -> onStart.accept(event.getNewPhase()));
+		game.getEvents().registerHandlerAfter(this, PhaseStartEvent.class, event -> onStart.accept(event.getNewPhase()));
 	}
 
 }
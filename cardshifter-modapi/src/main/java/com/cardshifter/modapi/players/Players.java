@@ -3,7 +3,7 @@ package com.cardshifter.modapi.players;
 import com.cardshifter.modapi.base.*;
 import com.cardshifter.modapi.cards.CardComponent;
 
-import java.util.*;
+import java.util.List;
 
 public class Players {
 	private static final ComponentRetriever<CardComponent> card = Retrievers.component(CardComponent.class);
@@ -19,18 +19,20 @@ public class Players {
 		return null;
 	}
 
+    /**
+     * @param entity A player, or an entity owned by a player
+     * @return The player that comes after the owner of the entity in turn order
+     */
     public static Entity getNextPlayer(Entity entity) {
-        List<Entity> players = new ArrayList<>(entity.getGame().getEntitiesWithComponent(PlayerComponent.class));
-        players.sort(Comparator.comparingInt(pl -> player.get(pl).getIndex()));
-        int myIndex = player.get(findOwnerFor(entity)).getIndex();
-        Optional<Entity> result = players.stream().filter(pl -> player.get(pl).getIndex() == myIndex + 1).findFirst();
-        return result.orElse(players.stream().filter(pl -> player.get(pl).getIndex() == 0).findFirst().get());
+        return entity.getGame().getPlayerRegistry().getNextPlayer(findOwnerFor(entity));
     }
 
+    /**
+     * @param game The game to get the players of
+     * @return All players of the game, ordered by index. The list can not be modified.
+     */
     public static List<Entity> getPlayersInGame(ECSGame game) {
-        List<Entity> players = game.findEntities(e -> e.hasComponent(PlayerComponent.class));
-        players.sort(Comparator.comparingInt(pl -> pl.getComponent(PlayerComponent.class).getIndex()));
-        return players;
+        return game.getPlayerRegistry().getPlayers();
     }
 
 }
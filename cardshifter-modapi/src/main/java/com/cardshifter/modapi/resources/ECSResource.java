@@ -13,7 +13,7 @@ public interface ECSResource {
 	 * @return	The resource value
 	 */
 	default int getFor(final Entity entity) {
-		return ResourceRetriever.forResource(this).getFor(entity);
+		return retriever().getFor(entity);
 	}
 
     /**
@@ -1,84 +1,52 @@
 package com.cardshifter.modapi.resources;
 
-import java.util.Objects;
 import java.util.function.IntUnaryOperator;
 
-import com.cardshifter.modapi.base.ComponentRetriever;
-import org.apache.log4j.LogManager;
-import org.apache.log4j.Logger;
-
-import com.cardshifter.modapi.base.Entity;
-
+/**
+ * A view on one resource of an {@link ECSResourceMap}. The values are stored in the map,
+ * so any number of views can exist for the same resource.
+ */
 public class ECSResourceData {
 
-	private static final Logger logger = LogManager.getLogger(ECSResourceData.class);
-	
-	private int previousGet;
-	private int current;
-	private ECSResourceStrategy strategy;
-	
-	private final Entity entity;
-	private final ECSResource resource;
-	
-	public ECSResourceData(Entity entity, ECSResource resource) {
-		this.entity = Objects.requireNonNull(entity, "Entity cannot be null. Make sure that ResourceMap is added to an entity.");
-		this.resource = Objects.requireNonNull(resource, "Resource cannot be null.");
-        this.strategy = ComponentRetriever.singletonOptional(entity.getGame(), ResourceModifierComponent.class);
+	private final ECSResourceMap map;
+	private final int ordinal;
+
+	ECSResourceData(ECSResourceMap map, int ordinal) {
+		this.map = map;
+		this.ordinal = ordinal;
 	}
-	
+
 	public int get() {
-		int result = strategy == null ? current : strategy.getResource(entity, resource, current);
-		if (previousGet != result) {
-			// Execute an event for UIs to update their values, or for other entities to react
-			entity.getGame().getEvents().executePostEvent(new ResourceViewUpdate(entity, resource, result));
-		}
-		previousGet = result;
-		return result;
+		return map.get(ordinal);
 	}
-	
+
 	public void set(int value) {
-		// Execute change event (for taking damage, gaining life, etc...).
-		if (this.current != value) {
-			entity.getGame().executeEvent(new ResourceValueChange(entity, resource, get(), current, value),
-					() -> {
-						this.current = value;
-						logger.debug("Modified " + resource + " for " + entity + " to " + value);
-					});
-            get(); // do a ResourceViewUpdate check
-		}
+		map.set(ordinal, value);
 	}
-	
+
 	public void change(int value) {
-		set(current + value);
+		set(map.current(ordinal) + value);
 	}
 
 	public void setStrategy(ECSResourceStrategy strategy) {
-		this.strategy = strategy;
+		map.setStrategy(ordinal, strategy);
 	}
 
 	public boolean has(int want) {
 		return this.get() >= want;
 	}
-	
+
 	@Override
 	public String toString() {
-		return String.valueOf(current);
+		return String.valueOf(map.current(ordinal));
 	}
 
 	public ECSResource getResource() {
-		return this.resource;
+		return map.resourceAt(ordinal);
 	}
 
-	ECSResourceData copy(Entity copyTo) {
-		ECSResourceData copy = new ECSResourceData(copyTo, resource);
-		copy.current = this.current;
-		copy.previousGet = this.previousGet;
-		copy.strategy = this.strategy;
-		return copy;
-	}
-	
     public void changeBy(int value, IntUnaryOperator fix) {
-        int newValue = current + value;
+        int newValue = map.current(ordinal) + value;
         set(fix.applyAsInt(newValue));
     }
 
@@ -1,34 +1,69 @@
 package com.cardshifter.modapi.resources;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
 import com.cardshifter.modapi.base.Component;
+import com.cardshifter.modapi.base.ComponentRetriever;
 import com.cardshifter.modapi.base.CopyableComponent;
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.ForkableComponent;
+import com.cardshifter.modapi.base.GameFork;
+
+/**
+ * The resources of an entity. Values are stored in arrays indexed by the ordinal of the resource, see {@link ResourceTypes}.
+ * {@link ECSResourceData} objects are only views on this map, reading a value through a {@link ResourceRetriever} does not create any objects.
+ */
+public class ECSResourceMap extends Component implements CopyableComponent, ForkableComponent {
+
+	private static final Logger logger = LogManager.getLogger(ECSResourceMap.class);
 
-public class ECSResourceMap extends Component implements CopyableComponent {
+	private static final int[] NO_VALUES = new int[0];
+	private static final ECSResource[] NO_RESOURCES = new ECSResource[0];
+	private static final ECSResourceStrategy[] NO_STRATEGIES = new ECSResourceStrategy[0];
 
-	private final Map<ECSResource, ECSResourceData> map = new HashMap<>();
+	/**
+	 * The resources that this map has, null for ordinals that are not part of this map
+	 */
+	private ECSResource[] resources = NO_RESOURCES;
+	private int[] current = NO_VALUES;
+	/**
+	 * The last value that was read for each resource, used to detect when a {@link ResourceViewUpdate} is needed
+	 */
+	private int[] previousGet = NO_VALUES;
+	private ECSResourceStrategy[] strategies = NO_STRATEGIES;
+	/**
+	 * The version of the strategy that the last read value was computed with, or -1 if it can not be reused
+	 *
+	 * @see ECSResourceStrategy#getVersion()
+	 */
+	private int[] cachedVersions = NO_VALUES;
 
 	private ECSResourceMap() {
 	}
 
 	public ECSResourceMap set(ECSResource res, int value) {
-		ECSResourceData data = getResource(res);
-		data.set(value);
+		set(slotFor(res), value);
 		return this;
 	}
 
     public Optional<ECSResourceData> get(ECSResource res) {
-        return Optional.ofNullable(map.get(res));
+        return has(res) ? Optional.of(getResource(res)) : Optional.empty();
+    }
+
+    public boolean has(ECSResource res) {
+        return has(ResourceTypes.ordinalOf(res));
     }
 
     public ECSResourceData getResource(ECSResource res) {
-		map.computeIfAbsent(res, r -> new ECSResourceData(getEntity(), r));
-		return map.get(res);
+		return new ECSResourceData(this, slotFor(res));
 	}
 
 	public static ECSResourceMap createFor(Entity entity) {
@@ -36,7 +71,7 @@ public class ECSResourceMap extends Component implements CopyableComponent {
 		entity.addComponent(res);
 		return res;
 	}
-	
+
 	public static ECSResourceMap createOrGetFor(Entity entity) {
 		ECSResourceMap res = entity.getComponent(ECSResourceMap.class);
 		if (res == null) {
@@ -46,23 +81,142 @@ public class ECSResourceMap extends Component implements CopyableComponent {
 		return res;
 	}
 
+	boolean has(int ordinal) {
+		return ordinal < resources.length && resources[ordinal] != null;
+	}
+
+	/**
+	 * Find the ordinal of a resource, adding the resource to this map if it is not already there
+	 */
+	private int slotFor(ECSResource res) {
+		int ordinal = ResourceTypes.ordinalOf(res);
+		if (has(ordinal)) {
+			return ordinal;
+		}
+		Entity entity = Objects.requireNonNull(getEntity(), "Entity cannot be null. Make sure that ResourceMap is added to an entity.");
+		if (ordinal >= resources.length) {
+			int size = Math.max(ordinal + 1, ResourceTypes.count());
+			resources = Arrays.copyOf(resources, size);
+			current = Arrays.copyOf(current, size);
+			previousGet = Arrays.copyOf(previousGet, size);
+			strategies = Arrays.copyOf(strategies, size);
+			int previousSize = cachedVersions.length;
+			cachedVersions = Arrays.copyOf(cachedVersions, size);
+			Arrays.fill(cachedVersions, previousSize, size, -1);
+		}
+		resources[ordinal] = res;
+		strategies[ordinal] = ComponentRetriever.singletonOptional(entity.getGame(), ResourceModifierComponent.class);
+		return ordinal;
+	}
+
+	ECSResource resourceAt(int ordinal) {
+		return resources[ordinal];
+	}
+
+	int current(int ordinal) {
+		return current[ordinal];
+	}
+
+	void setStrategy(int ordinal, ECSResourceStrategy strategy) {
+		strategies[ordinal] = strategy;
+		cachedVersions[ordinal] = -1;
+	}
+
+	/**
+	 * Get the value of a resource after applying its strategy
+	 *
+	 * @param ordinal The ordinal of a resource that is part of this map
+	 * @return The value of the resource
+	 */
+	int get(int ordinal) {
+		ECSResourceStrategy strategy = strategies[ordinal];
+		int result;
+		if (strategy == null) {
+			result = current[ordinal];
+		}
+		else {
+			int version = strategy.getVersion();
+			if (version >= 0 && version == cachedVersions[ordinal]) {
+				return previousGet[ordinal];
+			}
+			result = strategy.getResource(getEntity(), resources[ordinal], current[ordinal]);
+			cachedVersions[ordinal] = version;
+		}
+		if (previousGet[ordinal] != result) {
+			// Execute an event for UIs to update their values, or for other entities to react
+			previousGet[ordinal] = result;
+			getEntity().getGame().getEvents().executePostEvent(new ResourceViewUpdate(getEntity(), resources[ordinal], result));
+		}
+		return result;
+	}
+
+	/**
+	 * @param res The resource to get
+	 * @param defaultValue The value to return if this map does not have the resource
+	 * @return The value of the resource after applying its strategy, or defaultValue
+	 */
+	public int getOrDefault(ECSResource res, int defaultValue) {
+		int ordinal = ResourceTypes.ordinalOf(res);
+		return has(ordinal) ? get(ordinal) : defaultValue;
+	}
+
+	void set(int ordinal, int value) {
+		// Execute change event (for taking damage, gaining life, etc...).
+		if (current[ordinal] != value) {
+			Entity entity = getEntity();
+			ECSResource resource = resources[ordinal];
+			entity.getGame().executeEvent(new ResourceValueChange(entity, resource, get(ordinal), current[ordinal], value),
+					() -> {
+						current[ordinal] = value;
+						cachedVersions[ordinal] = -1;
+						logger.debug("Modified " + resource + " for " + entity + " to " + value);
+					});
+			get(ordinal); // do a ResourceViewUpdate check
+		}
+	}
+
+	private IntStream ordinals() {
+		return IntStream.range(0, resources.length).filter(this::has);
+	}
+
 	@Override
 	public String toString() {
-		return map.toString();
+		StringJoiner result = new StringJoiner(", ", "{", "}");
+		ordinals().forEach(i -> result.add(resources[i] + "=" + current[i]));
+		return result.toString();
 	}
 
 	public Stream<ECSResourceData> getResources() {
-		return map.values().stream();
+		return ordinals().mapToObj(i -> new ECSResourceData(this, i));
+	}
+
+	private ECSResourceMap copyValues() {
+		ECSResourceMap copy = new ECSResourceMap();
+		copy.resources = resources.clone();
+		copy.current = current.clone();
+		copy.previousGet = previousGet.clone();
+		copy.strategies = strategies.clone();
+		copy.cachedVersions = cachedVersions.clone();
+		return copy;
 	}
 
 	@Override
 	public Component copy(Entity copyTo) {
-		ECSResourceMap copy = new ECSResourceMap();
-		for (ECSResourceData data : map.values()) {
-			ECSResourceData copyData = data.copy(copyTo);
-			copy.map.put(data.getResource(), copyData);
+		ECSResourceMap copy = copyValues();
+		// strategies may give another result for the new entity
+		Arrays.fill(copy.cachedVersions, -1);
+		return copy;
+	}
+
+	@Override
+	public Component fork(GameFork fork) {
+		ECSResourceMap copy = copyValues();
+		for (int i = 0; i < strategies.length; i++) {
+			if (strategies[i] instanceof Component) {
+				copy.strategies[i] = (ECSResourceStrategy) fork.component((Component) strategies[i]);
+			}
 		}
 		return copy;
 	}
-	
+
 }
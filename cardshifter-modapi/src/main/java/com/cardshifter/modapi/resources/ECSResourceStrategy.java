@@ -5,4 +5,14 @@ import com.cardshifter.modapi.base.Entity;
 @FunctionalInterface
 public interface ECSResourceStrategy {
 	int getResource(Entity entity, ECSResource resource, int actualValue);
+
+	/**
+	 * Results of a strategy can be cached by the resource map for as long as the version stays the same
+	 * and the actual value of the resource does not change.
+	 *
+	 * @return A number that changes whenever the results of this strategy may change, or a negative number if results should not be cached
+	 */
+	default int getVersion() {
+		return -1;
+	}
 }
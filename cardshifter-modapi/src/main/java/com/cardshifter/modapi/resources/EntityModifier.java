@@ -1,6 +1,7 @@
 package com.cardshifter.modapi.resources;
 
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.GameFork;
 import net.zomis.cardshifter.ecs.effects.TargetFilter;
 
 import java.util.function.BiPredicate;
@@ -23,6 +24,18 @@ public class EntityModifier implements ECSResourceStrategy {
         this.amount = amount;
     }
 
+    /**
+     * @param fork The fork that is being created
+     * @return A modifier with the same behavior for the forked source entity
+     */
+    public EntityModifier fork(GameFork fork) {
+        return new EntityModifier(fork.entity(source), priority, active, appliesTo, amount);
+    }
+
+    public Entity getSource() {
+        return source;
+    }
+
     public int getPriority() {
         return priority;
     }
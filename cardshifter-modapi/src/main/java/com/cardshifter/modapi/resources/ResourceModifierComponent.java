@@ -2,19 +2,82 @@ package com.cardshifter.modapi.resources;
 
 import com.cardshifter.modapi.base.Component;
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.ForkableComponent;
+import com.cardshifter.modapi.base.GameFork;
 
 import java.util.*;
 import java.util.stream.Stream;
 
-public class ResourceModifierComponent extends Component implements ECSResourceStrategy {
+public class ResourceModifierComponent extends Component implements ECSResourceStrategy, ForkableComponent {
 
     private final Map<ECSResource, List<EntityModifier>> strategies = new HashMap<>();
 
+    /**
+     * Whether something calls {@link #invalidate()} when the results of the modifiers may change,
+     * results are only cached when this is true.
+     */
+    private boolean tracked;
+    private int version;
+    private int modifierCount;
+
     public void addModifier(ECSResource resource, EntityModifier modifier) {
         this.strategies.putIfAbsent(resource, new LinkedList<>());
         List<EntityModifier> list = this.strategies.get(resource);
         list.add(modifier);
         list.sort(Comparator.comparingInt(em -> em.getPriority()));
+        modifierCount++;
+        invalidate();
+    }
+
+    /**
+     * Start caching the results of the modifiers. Whoever calls this is responsible for calling {@link #invalidate()}
+     * whenever something that the modifiers depend on has changed, such as zones, resources or removed entities.
+     */
+    public void track() {
+        this.tracked = true;
+        invalidate();
+    }
+
+    /**
+     * Forget all cached results of the modifiers
+     */
+    public void invalidate() {
+        this.version = (this.version + 1) & Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int getVersion() {
+        return tracked ? version : -1;
+    }
+
+    /**
+     * @param source An entity
+     * @return True if any modifier has been added by the entity
+     */
+    public boolean hasModifiersFrom(Entity source) {
+        for (List<EntityModifier> modifiers : strategies.values()) {
+            for (EntityModifier modifier : modifiers) {
+                if (modifier.getSource() == source) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param entity An entity
+     * @return True if any active modifier applies to the entity
+     */
+    public boolean isModified(Entity entity) {
+        for (List<EntityModifier> modifiers : strategies.values()) {
+            for (EntityModifier modifier : modifiers) {
+                if (modifier.isActive() && modifier.appliesTo(entity)) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     public Stream<ECSResource> getModifiedResources() {
@@ -37,6 +100,20 @@ public class ResourceModifierComponent extends Component implements ECSResourceS
         return value;
     }
 
+    @Override
+    public Component fork(GameFork fork) {
+        ResourceModifierComponent copy = new ResourceModifierComponent();
+        for (Map.Entry<ECSResource, List<EntityModifier>> entry : strategies.entrySet()) {
+            List<EntityModifier> modifiers = new LinkedList<>();
+            entry.getValue().forEach(modifier -> modifiers.add(modifier.fork(fork)));
+            copy.strategies.put(entry.getKey(), modifiers);
+        }
+        copy.modifierCount = this.modifierCount;
+        copy.tracked = this.tracked;
+        copy.version = this.version;
+        return copy;
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName() + ": " + strategies;
@@ -45,4 +122,11 @@ public class ResourceModifierComponent extends Component implements ECSResourceS
     public int getModifiedResourcesCount() {
         return strategies.size();
     }
+
+    /**
+     * @return The number of modifiers that have been added
+     */
+    public int getModifierCount() {
+        return modifierCount;
+    }
 }
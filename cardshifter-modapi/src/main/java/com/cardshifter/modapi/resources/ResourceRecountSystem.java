@@ -1,40 +1,138 @@
 package com.cardshifter.modapi.resources;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
 import com.cardshifter.modapi.actions.ActionPerformEvent;
+import com.cardshifter.modapi.attributes.AttributeValueChange;
 import com.cardshifter.modapi.base.ComponentRetriever;
 import com.cardshifter.modapi.base.ECSGame;
 import com.cardshifter.modapi.base.ECSSystem;
 import com.cardshifter.modapi.base.Entity;
-
-import java.util.Set;
+import com.cardshifter.modapi.base.GameFork;
+import com.cardshifter.modapi.cards.ZoneChangeEvent;
+import com.cardshifter.modapi.events.EntityRemoveEvent;
+import com.cardshifter.modapi.phase.PhaseChangeEvent;
 
 /**
  * A System to recount resources if required after an action has been performed.
+ * <p>
+ * It also keeps track of what changes in the game, so that the {@link ResourceModifierComponent} can cache the results of its modifiers.
+ * Which entities a modifier applies to is expected to depend only on its source entity, the entity it is applied to, and the current phase,
+ * while the amount of a modifier may depend on anything, such as the number of creatures on the battlefield.
+ * When something has changed, the entities that have changed and all entities that modifiers apply to are recounted.
+ * Everything is recounted when the phase changes, when a modifier is added or when an entity with modifiers has changed.
  */
 public class ResourceRecountSystem implements ECSSystem {
 
-    private ComponentRetriever<ResourceModifierComponent> modifier =
-        ComponentRetriever.singleton(ResourceModifierComponent.class);
+    private static final Logger logger = LogManager.getLogger(ResourceRecountSystem.class);
+
+    private ResourceModifierComponent modifiers;
+
+    /**
+     * Entities that have changed since the last recount
+     */
+    private final Set<Entity> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * Entities that modifiers applied to when they were last recounted
+     */
+    private final Set<Entity> modified = Collections.newSetFromMap(new IdentityHashMap<>());
+    private boolean recountAll = true;
+    private int modifierCount;
 
     @Override
     public void startGame(ECSGame game) {
+        modifiers = ComponentRetriever.singletonOptional(game, ResourceModifierComponent.class);
+        if (modifiers == null) {
+            logger.warn("No ResourceModifierComponent found, resources will not be recounted");
+            return;
+        }
+        modifiers.track();
+        game.getEvents().registerHandlerAfter(this, ZoneChangeEvent.class, event -> changed(event.getCard()));
+        game.getEvents().registerHandlerAfter(this, EntityRemoveEvent.class, event -> changed(event.getEntity()));
+        game.getEvents().registerHandlerAfter(this, ResourceValueChange.class, event -> changed(event.getEntity()));
+        game.getEvents().registerHandlerAfter(this, AttributeValueChange.class, event -> changed(event.getEntity()));
+        game.getEvents().registerHandlerAfter(this, PhaseChangeEvent.class, event -> {
+            modifiers.invalidate();
+            recountAll = true;
+        });
         game.getEvents().registerHandlerAfter(this, ActionPerformEvent.class, this::recount);
     }
 
+    @Override
+    public ECSSystem fork(GameFork fork) {
+        return new ResourceRecountSystem();
+    }
+
+    private void changed(Entity entity) {
+        modifiers.invalidate();
+        if (!recountAll) {
+            changed.add(entity);
+        }
+    }
+
     private void recount(ActionPerformEvent event) {
-        ResourceModifierComponent mod = modifier.get(event.getEntity());
-        int count = mod.getModifiedResourcesCount();
-        if (count == 0) {
+        if (modifiers.getModifierCount() != modifierCount) {
+            modifierCount = modifiers.getModifierCount();
+            recountAll = true;
+        }
+        if (!recountAll) {
+            for (Entity entity : changed) {
+                if (modifiers.hasModifiersFrom(entity)) {
+                    recountAll = true;
+                    break;
+                }
+            }
+        }
+
+        List<Entity> entities;
+        if (recountAll) {
+            entities = new ArrayList<>(event.getEntity().getGame().getFamily(ECSResourceMap.class).toSet());
+            modified.clear();
+        }
+        else if (changed.isEmpty()) {
             return;
         }
+        else {
+            // the amounts of the modifiers may depend on the entities that have changed
+            Set<Entity> recount = Collections.newSetFromMap(new IdentityHashMap<>());
+            recount.addAll(changed);
+            recount.addAll(modified);
+            entities = new ArrayList<>(recount);
+        }
+        changed.clear();
+        recountAll = false;
 
-        Set<Entity> entities = event.getEntity().getGame()
-            .getEntitiesWithComponent(ECSResourceMap.class);
-        entities.stream()
-            .map(e -> e.getComponent(ECSResourceMap.class))
-            .forEach(e -> mod.getModifiedResources()
-                .forEach(res -> e.get(res).ifPresent(resData -> resData.get())));
-        System.out.println("Recounted " + count + " resources for " + entities.size() + " entities.");
+        List<ECSResource> resources = new ArrayList<>();
+        modifiers.getModifiedResources().forEach(resources::add);
+        if (resources.isEmpty()) {
+            return;
+        }
+        int count = 0;
+        for (Entity entity : entities) {
+            ECSResourceMap map = entity.isRemoved() ? null : entity.getComponent(ECSResourceMap.class);
+            if (map == null) {
+                modified.remove(entity);
+                continue;
+            }
+            if (modifiers.isModified(entity)) {
+                modified.add(entity);
+            }
+            else {
+                modified.remove(entity);
+            }
+            for (ECSResource resource : resources) {
+                map.getOrDefault(resource, 0);
+            }
+            count++;
+        }
+        logger.debug("Recounted " + resources.size() + " resources for " + count + " entities.");
     }
 
 }
@@ -1,7 +1,6 @@
 package com.cardshifter.modapi.resources;
 
 import java.util.Objects;
-import java.util.Optional;
 
 import com.cardshifter.modapi.base.Component;
 import com.cardshifter.modapi.base.Entity;
@@ -9,9 +8,11 @@ import com.cardshifter.modapi.base.Entity;
 public class ResourceRetriever {
 
 	private final ECSResource resource;
+	private final int ordinal;
 
 	ResourceRetriever(ECSResource resource) {
 		this.resource = resource;
+		this.ordinal = ResourceTypes.ordinalOf(resource);
 	}
 	
 	public static ResourceRetriever forResource(ECSResource resource) {
@@ -34,7 +35,7 @@ public class ResourceRetriever {
 	public boolean has(Entity entity) {
 		Objects.requireNonNull(entity, "Cannot retrieve resource map for null entity");
 		ECSResourceMap map = entity.getComponent(ECSResourceMap.class);
-		return map != null && map.get(resource).isPresent();
+		return map != null && map.has(ordinal);
 	}
 
 	public ECSResourceData resFor(Entity entity) {
@@ -55,8 +56,7 @@ public class ResourceRetriever {
 		if (map == null) {
 			return defaultValue;
 		}
-		Optional<ECSResourceData> resData = map.get(resource);
-		return !resData.isPresent() ? defaultValue : resData.get().get();
+		return map.has(ordinal) ? map.get(ordinal) : defaultValue;
 	}
 	
 }
@@ -0,0 +1,42 @@
+package com.cardshifter.modapi.resources;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry that gives each resource a small integer id, its ordinal.
+ * Resource maps store their values in arrays indexed by the ordinal of the resource.
+ * <p>
+ * Ordinals are assigned the first time a resource is seen and are shared by all games and mods.
+ * Resources that are equal, such as two {@link ECSResourceDefault} with the same name, get the same ordinal.
+ */
+public final class ResourceTypes {
+
+	private static final Map<ECSResource, Integer> ordinals = new ConcurrentHashMap<>();
+
+	private ResourceTypes() {
+	}
+
+	/**
+	 * @param resource The resource to find the ordinal of
+	 * @return The ordinal of the resource
+	 */
+	public static int ordinalOf(ECSResource resource) {
+		Objects.requireNonNull(resource, "Resource cannot be null.");
+		Integer ordinal = ordinals.get(resource);
+		return ordinal != null ? ordinal : register(resource);
+	}
+
+	private static synchronized int register(ECSResource resource) {
+		return ordinals.computeIfAbsent(resource, r -> ordinals.size());
+	}
+
+	/**
+	 * @return The number of resources that have been assigned an ordinal so far
+	 */
+	public static int count() {
+		return ordinals.size();
+	}
+
+}
@@ -5,8 +5,10 @@ import java.util.Map;
 
 import com.cardshifter.api.config.PlayerConfig;
 import com.cardshifter.modapi.base.Component;
+import com.cardshifter.modapi.base.ForkableComponent;
+import com.cardshifter.modapi.base.GameFork;
 
-public class ConfigComponent extends Component {
+public class ConfigComponent extends Component implements ForkableComponent {
 	
 	private final Map<String, PlayerConfig> configs = new HashMap<>();
 	private boolean configured;
@@ -28,6 +30,14 @@ public class ConfigComponent extends Component {
 		this.configured = configured;
 	}
 	
+	@Override
+	public Component fork(GameFork fork) {
+		ConfigComponent copy = new ConfigComponent();
+		copy.configs.putAll(configs);
+		copy.configured = this.configured;
+		return copy;
+	}
+	
 	public <T extends PlayerConfig> T getConfig(Class<T> configClass) {
 		for (PlayerConfig confObject : configs.values()) {
 			if (confObject.getClass() == configClass) {
@@ -6,6 +6,7 @@ import com.cardshifter.modapi.base.Component;
 import com.cardshifter.modapi.base.ECSGame;
 import com.cardshifter.modapi.base.ECSSystem;
 import com.cardshifter.modapi.base.Entity;
+import com.cardshifter.modapi.base.GameFork;
 import com.cardshifter.modapi.cards.BattlefieldComponent;
 import com.cardshifter.modapi.cards.ZoneChangeEvent;
 import com.cardshifter.modapi.events.EntityRemoveEvent;
@@ -17,33 +18,51 @@ import com.cardshifter.modapi.resources.ResourceRetriever;
 public class Effects {
 
     public <T extends IEvent> Function<Entity, ECSSystem> triggerSystem(Class<T> eventClass, BiPredicate<Entity, T> interestingEvents, BiConsumer<Entity, T> handler) {
-        return e -> new ECSSystem() {
-            @Override
-            public void startGame(ECSGame game) {
-                game.getEvents().registerHandlerAfter(this, eventClass, this::event);
-            }
-
-            private void event(T event) {
-                if (interestingEvents.test(e, event)) {
-                    handler.accept(e, event);
-                }
-            }
-        };
+        return e -> new TriggerSystem<>(e, eventClass, interestingEvents, handler, false);
     }
 
     public <T extends IEvent> Function<Entity, ECSSystem> triggerSystemBefore(Class<T> eventClass, BiPredicate<Entity, T> interestingEvents, BiConsumer<Entity, T> handler) {
-        return e -> new ECSSystem() {
-            @Override
-            public void startGame(ECSGame game) {
+        return e -> new TriggerSystem<>(e, eventClass, interestingEvents, handler, true);
+    }
+
+    /**
+     * Performs an effect of an entity when an event happens. Forks of the game get a system of their own, with the entity of the fork.
+     */
+    private static class TriggerSystem<T extends IEvent> implements ECSSystem {
+        private final Entity entity;
+        private final Class<T> eventClass;
+        private final BiPredicate<Entity, T> interestingEvents;
+        private final BiConsumer<Entity, T> handler;
+        private final boolean before;
+
+        TriggerSystem(Entity entity, Class<T> eventClass, BiPredicate<Entity, T> interestingEvents, BiConsumer<Entity, T> handler, boolean before) {
+            this.entity = entity;
+            this.eventClass = eventClass;
+            this.interestingEvents = interestingEvents;
+            this.handler = handler;
+            this.before = before;
+        }
+
+        @Override
+        public void startGame(ECSGame game) {
+            if (before) {
                 game.getEvents().registerHandlerBefore(this, eventClass, this::event);
             }
+            else {
+                game.getEvents().registerHandlerAfter(this, eventClass, this::event);
+            }
+        }
 
-            private void event(T event) {
-                if (interestingEvents.test(e, event)) {
-                    handler.accept(e, event);
-                }
+        private void event(T event) {
+            if (interestingEvents.test(entity, event)) {
+                handler.accept(entity, event);
             }
-        };
+        }
+
+        @Override
+        public ECSSystem fork(GameFork fork) {
+            return new TriggerSystem<>(fork.entity(entity), eventClass, interestingEvents, handler, before);
+        }
     }
 
 	public EffectComponent giveTarget(ECSResource resource, int value, IntUnaryOperator operator) {
@@ -72,21 +91,48 @@ public class Effects {
 
 		private final Entity owningEntity;
 		private final ECSSystem systemToRemove;
+		private final boolean addSystem;
 
 		public InGameSystem(Entity owningEntity, ECSSystem system) {
+			this(owningEntity, system, true);
+		}
+
+		private InGameSystem(Entity owningEntity, ECSSystem system, boolean addSystem) {
 			this.owningEntity = owningEntity;
 			this.systemToRemove = system;
+			this.addSystem = addSystem;
 		}
 
 		@Override
 		public void startGame(ECSGame game) {
 			game.getEvents().registerHandlerAfter(systemToRemove, EntityRemoveEvent.class, this::removeCheck);
 			game.getEvents().registerHandlerAfter(systemToRemove, ZoneChangeEvent.class, this::removeCheck);
-			game.addSystem(systemToRemove);
+			if (addSystem) {
+				game.addSystem(systemToRemove);
+			}
+		}
+
+		@Override
+		public ECSSystem fork(GameFork fork) {
+			if (!fork.getOriginal().findSystemsOfClass(ECSSystem.class).contains(systemToRemove)) {
+				// the system has already been removed
+				return null;
+			}
+			ECSSystem system = fork.system(systemToRemove);
+			if (system == systemToRemove) {
+				// shared, together with the handlers of this system
+				return this;
+			}
+			if (system == null) {
+				return null;
+			}
+			// the forked system is added to the fork on its own, as it is one of the systems of the game
+			return new InGameSystem(fork.entity(owningEntity), system, false);
 		}
 		
 		private void removeCheck(EntityRemoveEvent event) {
-			if (event.getEntity() == owningEntity) {
+			// compared by id as the system is shared with forks of the game
+			if (event.getEntity().getId() == owningEntity.getId()) {
 				event.getEntity().getGame().removeSystem(systemToRemove);
 			}
 		}
@@ -95,7 +141,7 @@ public class Effects {
 			if (event.getDestination() instanceof BattlefieldComponent) {
 				return;
 			}
-			if (event.getCard() == owningEntity) {
+			if (event.getCard().getId() == owningEntity.getId()) {
 				event.getCard().getGame().removeSystem(systemToRemove);
 			}
 		}
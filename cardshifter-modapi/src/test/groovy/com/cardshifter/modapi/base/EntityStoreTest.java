@@ -0,0 +1,61 @@
+package com.cardshifter.modapi.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class EntityStoreTest {
+
+	@Test
+	public void lookupAfterRemovingMostEntities() {
+		ECSGame game = new ECSGame();
+		List<Entity> created = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			created.add(game.newEntity());
+		}
+		List<Entity> kept = new ArrayList<>();
+		for (Entity entity : created) {
+			if (entity.getId() % 7 == 0) {
+				kept.add(entity);
+			}
+			else {
+				entity.destroy();
+			}
+		}
+
+		for (Entity entity : created) {
+			Entity expected = entity.getId() % 7 == 0 ? entity : null;
+			assertSame(expected, game.getEntity(entity.getId()));
+		}
+		assertNull(game.getEntity(0));
+		assertNull(game.getEntity(10000));
+		assertEquals(kept, game.findEntities(e -> true));
+
+		Entity added = game.newEntity();
+		assertSame(added, game.getEntity(added.getId()));
+		kept.add(added);
+		assertEquals(kept, game.findEntities(e -> true));
+	}
+
+	@Test
+	public void removeWhileIterating() {
+		ECSGame game = new ECSGame();
+		for (int i = 0; i < 100; i++) {
+			game.newEntity();
+		}
+		List<Entity> seen = game.findEntities(e -> {
+			e.destroy();
+			return true;
+		});
+		assertEquals(100, seen.size());
+		assertEquals(seen, seen.stream().distinct().collect(Collectors.toList()));
+		assertEquals(0, game.findEntities(e -> true).size());
+	}
+
+}
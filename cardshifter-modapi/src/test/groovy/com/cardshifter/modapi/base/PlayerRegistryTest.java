@@ -0,0 +1,47 @@
+package com.cardshifter.modapi.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class PlayerRegistryTest {
+
+	@Test
+	public void playersInTurnOrder() {
+		ECSGame game = new ECSGame();
+		Entity second = game.newEntity().addComponent(new PlayerComponent(1, "Second"));
+		game.newEntity();
+		Entity first = game.newEntity().addComponent(new PlayerComponent(0, "First"));
+		Entity third = game.newEntity().addComponent(new PlayerComponent(2, "Third"));
+		PlayerRegistry players = game.getPlayerRegistry();
+
+		assertEquals(Arrays.asList(first, second, third), players.getPlayers());
+		assertSame(first, players.getPlayer(0));
+		assertSame(third, players.getPlayer(2));
+		assertNull(players.getPlayer(3));
+		assertSame(second, players.getNextPlayer(first));
+		assertSame(first, players.getNextPlayer(third));
+
+		third.destroy();
+		assertEquals(Arrays.asList(first, second), players.getPlayers());
+		assertNull(players.getPlayer(2));
+		assertSame(first, players.getNextPlayer(second));
+	}
+
+	@Test
+	public void forkHasItsOwnPlayers() {
+		ECSGame game = new ECSGame();
+		game.newEntity().addComponent(new PlayerComponent(0, "First"));
+		game.newEntity().addComponent(new PlayerComponent(1, "Second"));
+		ECSGame fork = game.fork();
+		assertEquals(2, fork.getPlayerRegistry().getPlayers().size());
+		for (Entity player : fork.getPlayerRegistry().getPlayers()) {
+			assertSame(fork, player.getGame());
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.cardshifter.modapi.cards;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.cardshifter.modapi.base.ECSGame;
+import com.cardshifter.modapi.base.Entity;
+
+public class CardDequeTest {
+
+	@Test
+	public void sameOrderAsLinkedList() {
+		ECSGame game = new ECSGame();
+		Random random = new Random(42);
+		CardDeque deque = new CardDeque();
+		LinkedList<Entity> expected = new LinkedList<>();
+		for (int i = 0; i < 2000; i++) {
+			int operation = random.nextInt(3);
+			if (operation == 0 || expected.isEmpty()) {
+				Entity card = game.newEntity();
+				if (random.nextBoolean()) {
+					deque.addFirst(card);
+					expected.addFirst(card);
+				}
+				else {
+					deque.addLast(card);
+					expected.addLast(card);
+				}
+			}
+			else {
+				Entity card = expected.get(random.nextInt(expected.size()));
+				deque.removeCard(card);
+				expected.remove(card);
+				assertFalse(deque.contains(card));
+			}
+			assertEquals(expected, deque);
+		}
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(i, deque.indexOf(expected.get(i)));
+		}
+	}
+
+	@Test
+	public void removeWithoutReadingInBetween() {
+		ECSGame game = new ECSGame();
+		Random random = new Random(42);
+		CardDeque deque = new CardDeque();
+		LinkedList<Entity> expected = new LinkedList<>();
+		for (int round = 0; round < 20; round++) {
+			for (int i = 0; i < 30; i++) {
+				Entity card = game.newEntity();
+				if (random.nextBoolean()) {
+					deque.addFirst(card);
+					expected.addFirst(card);
+				}
+				else {
+					deque.addLast(card);
+					expected.addLast(card);
+				}
+			}
+			for (int i = 0; i < 25 && !expected.isEmpty(); i++) {
+				Entity card = expected.remove(random.nextInt(expected.size()));
+				deque.removeCard(card);
+				assertFalse(deque.contains(card));
+				assertEquals(expected.size(), deque.size());
+				if (!expected.isEmpty()) {
+					assertEquals(expected.getFirst(), deque.first());
+				}
+			}
+		}
+		assertEquals(expected, deque);
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(i, deque.indexOf(expected.get(i)));
+		}
+	}
+
+	@Test
+	public void shuffleLikeCollections() {
+		ECSGame game = new ECSGame();
+		CardDeque deque = new CardDeque();
+		List<Entity> expected = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			Entity card = game.newEntity();
+			deque.addFirst(card);
+			expected.add(0, card);
+		}
+		deque.shuffle(new Random(7));
+		Collections.shuffle(expected, new Random(7));
+		assertEquals(expected, deque);
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(i, deque.indexOf(expected.get(i)));
+		}
+	}
+
+}
@@ -106,33 +106,57 @@ public class Base64Utils {
       return null;
     }
 
+    byte[] bytes = new byte[decodedLength(data)];
+    fromBase64(data, bytes);
+    return bytes;
+  }
+
+  /**
+   * Return the number of bytes that a base64 string decodes into.
+   * 
+   * @param data the encoded data.
+   * @return the number of decoded bytes.
+   */
+  public static int decodedLength(String data) {
     int len = data.length();
     assert (len % 4) == 0;
 
     if (len == 0) {
-      return new byte[0];
+      return 0;
     }
 
-    char[] chars = new char[len];
-    data.getChars(0, len, chars, 0);
-
     int olen = 3 * (len / 4);
-    if (chars[len - 2] == '=') {
+    if (data.charAt(len - 2) == '=') {
       --olen;
     }
-    if (chars[len - 1] == '=') {
+    if (data.charAt(len - 1) == '=') {
       --olen;
     }
+    return olen;
+  }
 
-    byte[] bytes = new byte[olen];
+  /**
+   * Decode a base64 string into an existing byte array.
+   * 
+   * @param data the encoded data.
+   * @param bytes the array to decode into, which must have room for at
+   *          least {@link #decodedLength(String)} bytes.
+   * @return the number of decoded bytes.
+   */
+  public static int fromBase64(String data, byte[] bytes) {
+    int len = data.length();
+    int olen = decodedLength(data);
+    if (olen == 0) {
+      return 0;
+    }
 
     int iidx = 0;
     int oidx = 0;
     while (iidx < len) {
-      int c0 = base64Values[chars[iidx++] & 0xff];
-      int c1 = base64Values[chars[iidx++] & 0xff];
-      int c2 = base64Values[chars[iidx++] & 0xff];
-      int c3 = base64Values[chars[iidx++] & 0xff];
+      int c0 = base64Values[data.charAt(iidx++) & 0xff];
+      int c1 = base64Values[data.charAt(iidx++) & 0xff];
+      int c2 = base64Values[data.charAt(iidx++) & 0xff];
+      int c3 = base64Values[data.charAt(iidx++) & 0xff];
       int c24 = (c0 << 18) | (c1 << 12) | (c2 << 6) | c3;
 
       bytes[oidx++] = (byte) (c24 >> 16);
@@ -146,7 +170,7 @@ public class Base64Utils {
       bytes[oidx++] = (byte) c24;
     }
 
-    return bytes;
+    return olen;
   }
 
   /**
@@ -178,8 +202,19 @@ public class Base64Utils {
     if (data == null) {
       return null;
     }
+    return toBase64(data, 0, data.length);
+  }
 
-    int len = data.length;
+  /**
+   * Base64 encode a part of a byte array, in the same way as
+   * {@link #toBase64(byte[])}.
+   * 
+   * @param data a byte array
+   * @param offset the index of the first byte to encode
+   * @param len the number of bytes to encode
+   * @return a String
+   */
+  public static String toBase64(byte[] data, int offset, int len) {
     if (len == 0) {
       return "";
     }
@@ -187,7 +222,7 @@ public class Base64Utils {
     int olen = 4 * ((len + 2) / 3);
     char[] chars = new char[olen];
 
-    int iidx = 0;
+    int iidx = offset;
     int oidx = 0;
     int charsLeft = len;
     while (charsLeft > 0) {
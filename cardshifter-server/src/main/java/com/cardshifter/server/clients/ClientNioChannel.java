@@ -0,0 +1,301 @@
+package com.cardshifter.server.clients;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import net.zomis.cardshifter.ecs.usage.CardshifterIO;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.cardshifter.api.CardshifterSerializationException;
+import com.cardshifter.api.ClientIO;
+import com.cardshifter.api.incoming.TransformerMessage;
+import com.cardshifter.api.messages.Message;
+import com.cardshifter.api.serial.ByteFormat;
+import com.cardshifter.api.serial.ByteTransformer;
+import com.cardshifter.server.model.Server;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A socket client that is served by a {@link SelectorLoop} instead of a thread of its own.
+ * <p>
+ * Messages are read as soon as all of their bytes have arrived, either as JSON or in the byte format that the client asks for
+ * with a {@link TransformerMessage}. Messages that belong to a game are passed straight on to the mailbox of the game,
+ * other messages are performed on the lobby executor of the server. Messages to the client wait in an
+ * {@link OutboundQueue}, the loop serializes the waiting messages together and writes them when the channel can take them.
+ */
+public class ClientNioChannel extends ClientIO implements SelectorLoop.ChannelHandler, OutboundQueue.Owner {
+	private static final Logger logger = LogManager.getLogger(ClientNioChannel.class);
+
+	private static final ObjectMapper mapper = CardshifterIO.mapper();
+
+	private static final int INITIAL_BUFFER = 8 * 1024;
+	private static final int MAX_MESSAGE = 16 * 1024 * 1024;
+	private static final int MAX_BUFFERS_PER_WRITE = 64;
+	private static final int RETAINED_BATCH_BUFFER = 256 * 1024;
+
+	private final Server server;
+	private final SocketChannel channel;
+	private final SelectorLoop loop;
+	private final Executor lobby;
+	private final String remoteAddress;
+
+	private final OutboundQueue outbound;
+	private final Queue<ByteBuffer> outgoing = new ArrayDeque<>();
+	private final ByteBuffer[] writing = new ByteBuffer[MAX_BUFFERS_PER_WRITE];
+	private ByteArrayOutputStream batch = new ByteArrayOutputStream(INITIAL_BUFFER);
+
+	private final JsonFrames json = new JsonFrames();
+	private ByteBuffer in = ByteBuffer.allocate(INITIAL_BUFFER);
+	private SelectionKey key;
+	private boolean closed;
+
+	/**
+	 * The transformer for the byte format that the client has asked for, or null if the client uses JSON.
+	 * Used for reading, it changes as soon as the client asks for another format.
+	 */
+	private volatile ByteTransformer transformer;
+	/**
+	 * The transformer to write with, or null to write JSON. It changes when the writer reaches the {@link TransformerChange},
+	 * so messages that were queued before are written as before.
+	 */
+	private ByteTransformer writeTransformer;
+
+	public ClientNioChannel(Server server, SocketChannel channel, SelectorLoop loop) throws IOException {
+		super(server);
+		this.server = server;
+		this.channel = channel;
+		this.loop = loop;
+		this.lobby = server.getLobbyExecutor();
+		this.remoteAddress = String.valueOf(channel.getRemoteAddress());
+		this.outbound = server.newOutboundQueue(this, loop, this::write);
+	}
+
+	/**
+	 * Start reading from the channel, which must be done on the thread of the loop
+	 */
+	public void register() throws IOException {
+		key = loop.register(channel, SelectionKey.OP_READ, this);
+		if (flush()) {
+			outbound.resume();
+		}
+	}
+
+	@Override
+	public void ready(SelectionKey key) throws IOException {
+		if (key.isReadable()) {
+			read();
+		}
+		if (key.isValid() && key.isWritable() && flush()) {
+			outbound.resume();
+		}
+	}
+
+	private void read() throws IOException {
+		if (channel.read(in) < 0) {
+			logger.info(this + " end of stream");
+			closeChannel();
+			return;
+		}
+		in.flip();
+		try {
+			readMessages();
+		}
+		catch (CardshifterSerializationException e) {
+			throw new IOException(e);
+		}
+		in.compact();
+		if (!in.hasRemaining()) {
+			if (in.capacity() >= MAX_MESSAGE) {
+				throw new IOException("Message is larger than " + MAX_MESSAGE + " bytes");
+			}
+			ByteBuffer larger = ByteBuffer.allocate(in.capacity() * 2);
+			in.flip();
+			larger.put(in);
+			in = larger;
+		}
+		else if (in.position() == 0 && in.capacity() > INITIAL_BUFFER) {
+			in = ByteBuffer.allocate(INITIAL_BUFFER);
+		}
+	}
+
+	private void readMessages() throws IOException, CardshifterSerializationException {
+		while (in.hasRemaining()) {
+			ByteTransformer bytes = transformer;
+			int length = bytes == null ? json.nextFrame(in) : bytes.frameLength(in.array(), in.arrayOffset() + in.position(), in.remaining());
+			if (length < 0 || length > in.remaining()) {
+				return;
+			}
+			int offset = in.arrayOffset() + in.position();
+			Message message = bytes == null ? mapper.readValue(in.array(), offset, length, Message.class) : bytes.readOnce(in.array(), offset, length);
+			in.position(in.position() + length);
+			received(message);
+		}
+	}
+
+	private void received(Message message) throws IOException {
+		logger.info("Received from " + this + ": " + message);
+		if (message instanceof TransformerMessage) {
+			int type = ((TransformerMessage) message).getType();
+			logger.info("Tranform mess " + type);
+			switch (type) {
+				case TransformerMessage.TRANSFORM_JSON:
+					this.transformer = null;
+					break;
+				case TransformerMessage.TRANSFORM_BYTE:
+					this.transformer = CardshifterIO.createByteTransformer();
+					break;
+				case TransformerMessage.TRANSFORM_BYTE_COMPACT:
+					this.transformer = CardshifterIO.createByteTransformer(ByteFormat.COMPACT);
+					break;
+				default:
+					throw new IOException("Not a known transformer: " + type);
+			}
+			outbound.offer(new TransformerChange(this.transformer));
+			return;
+		}
+		if (server.isGameMessage(message)) {
+			// only passed on to the mailbox of the game, which does not wait for the lobby
+			sentToServer(message);
+			return;
+		}
+		toLobby(() -> this.sentToServer(message));
+	}
+
+	@Override
+	protected void onSendToClient(Message message) {
+		outbound.offer(message);
+	}
+
+	/**
+	 * Serialize messages into one buffer and write as much of it as the channel takes, on the thread of the loop
+	 *
+	 * @return True if everything was written, false to wait until the channel can take more
+	 */
+	private boolean write(List<Message> messages) {
+		batch.reset();
+		for (Message message : messages) {
+			if (message instanceof TransformerChange) {
+				writeTransformer = (ByteTransformer) ((TransformerChange) message).getTransformer();
+				continue;
+			}
+			try {
+				if (writeTransformer == null) {
+					mapper.writeValue(batch, message);
+				}
+				else {
+					writeTransformer.transform(message, batch::write);
+				}
+			}
+			catch (IOException | CardshifterSerializationException e) {
+				logger.fatal("Error occured when sending message " + message, e);
+			}
+		}
+		outgoing.add(ByteBuffer.wrap(batch.toByteArray()));
+		if (batch.size() > RETAINED_BATCH_BUFFER) {
+			batch = new ByteArrayOutputStream(INITIAL_BUFFER);
+		}
+		return flush();
+	}
+
+	/**
+	 * Write as much as the channel takes of the buffers that are waiting, on the thread of the loop
+	 *
+	 * @return True if all buffers have been written
+	 */
+	private boolean flush() {
+		if (key == null || !key.isValid()) {
+			return false;
+		}
+		try {
+			while (!outgoing.isEmpty()) {
+				int count = 0;
+				Iterator<ByteBuffer> it = outgoing.iterator();
+				while (it.hasNext() && count < writing.length) {
+					writing[count++] = it.next();
+				}
+				channel.write(writing, 0, count);
+				boolean all = !writing[count - 1].hasRemaining();
+				for (int i = 0; i < count && !writing[i].hasRemaining(); i++) {
+					outgoing.poll();
+				}
+				Arrays.fill(writing, 0, count, null);
+				if (!all) {
+					break;
+				}
+			}
+			int ops = outgoing.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+			if (key.interestOps() != ops) {
+				key.interestOps(ops);
+			}
+		}
+		catch (IOException e) {
+			failed(e);
+			return false;
+		}
+		return outgoing.isEmpty();
+	}
+
+	@Override
+	public void failed(IOException e) {
+		logger.warn("Closing " + this + ": " + e);
+		closeChannel();
+	}
+
+	private void closeChannel() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		outbound.close();
+		if (key != null) {
+			key.cancel();
+		}
+		try {
+			channel.close();
+		}
+		catch (IOException e) {
+			logger.warn("Error closing " + this, e);
+		}
+		outgoing.clear();
+		toLobby(this::disconnected);
+	}
+
+	private void toLobby(Runnable task) {
+		try {
+			lobby.execute(task);
+		}
+		catch (RejectedExecutionException e) {
+			// the server is stopping
+			task.run();
+		}
+	}
+
+	@Override
+	public void close() {
+		logger.info(this + " Closing socket");
+		loop.execute(this::closeChannel);
+	}
+
+	@Override
+	public OutboundQueue getOutboundQueue() {
+		return outbound;
+	}
+
+	@Override
+	public String getRemoteAddress() {
+		return remoteAddress;
+	}
+
+}
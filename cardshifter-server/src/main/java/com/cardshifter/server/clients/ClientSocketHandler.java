@@ -1,11 +1,14 @@
 package com.cardshifter.server.clients;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.security.AccessController;
-import java.security.PrivilegedAction;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
+import java.util.List;
 
 import com.cardshifter.api.CardshifterSerializationException;
 import net.zomis.cardshifter.ecs.usage.CardshifterIO;
@@ -16,21 +19,39 @@ import org.apache.log4j.Logger;
 import com.cardshifter.api.ClientIO;
 import com.cardshifter.api.incoming.TransformerMessage;
 import com.cardshifter.api.messages.Message;
+import com.cardshifter.api.serial.ByteFormat;
 import com.cardshifter.api.serial.CommunicationTransformer;
 import com.cardshifter.server.model.Server;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-public class ClientSocketHandler extends ClientIO implements Runnable {
+public class ClientSocketHandler extends ClientIO implements Runnable, OutboundQueue.Owner {
 	private static final Logger logger = LogManager.getLogger(ClientSocketHandler.class);
 	
+	private static final int INITIAL_BATCH_BUFFER = 8 * 1024;
+	private static final int RETAINED_BATCH_BUFFER = 256 * 1024;
+	
 	private Socket	socket;
 	private final InputStream in;
 	private final OutputStream out;
 	
 	private final ObjectMapper mapper = CardshifterIO.mapper();
-	private CommunicationTransformer transformer;
+	/**
+	 * The transformer to read with, which changes as soon as the client asks for another format
+	 */
+	private volatile CommunicationTransformer transformer;
+	/**
+	 * The transformer to write with, only used by the writer of the outbound queue.
+	 * It changes when the writer reaches the {@link TransformerChange}, so messages that were queued before are written as before.
+	 */
+	private CommunicationTransformer writeTransformer;
+	
+	private final OutboundQueue outbound;
+	/**
+	 * The messages of a batch, only used by the writer of the outbound queue
+	 */
+	private ByteArrayOutputStream batch = new ByteArrayOutputStream(INITIAL_BATCH_BUFFER);
 
 	public ClientSocketHandler(Server server, Socket socket) throws IOException {
 		super(server);
@@ -38,24 +59,45 @@ public class ClientSocketHandler extends ClientIO implements Runnable {
 		mapper.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
 		mapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
 		transformer = new JsonSerialization(mapper);
+		writeTransformer = transformer;
 		in = socket.getInputStream();
 		out = socket.getOutputStream();
+		outbound = server.newOutboundQueue(this, server.getClientWriters(), this::write);
 	}
 	
 	@Override
 	public void onSendToClient(Message message) {
-		AccessController.doPrivileged((PrivilegedAction<Void>)() -> this.realSend(message));
+		outbound.offer(message);
 	}
 	
-	private Void realSend(Message message) {
+	private boolean write(List<Message> messages) throws IOException {
 		try {
-			transformer.send(message, out);
-		} catch (CardshifterSerializationException e) {
-			String error = "Error occured when sending message " + message;
-			logger.fatal(error, e);
-//			this.disconnected(); // Possibly mark client as disconnected here
+			return AccessController.doPrivileged((PrivilegedExceptionAction<Boolean>) () -> this.realSend(messages));
+		} catch (PrivilegedActionException e) {
+			throw (IOException) e.getException();
 		}
-		return null;
+	}
+	
+	private boolean realSend(List<Message> messages) throws IOException {
+		batch.reset();
+		for (Message message : messages) {
+			if (message instanceof TransformerChange) {
+				writeTransformer = ((TransformerChange) message).getTransformer();
+				continue;
+			}
+			try {
+				writeTransformer.send(message, batch);
+			} catch (CardshifterSerializationException e) {
+				String error = "Error occured when sending message " + message;
+				logger.fatal(error, e);
+			}
+		}
+		batch.writeTo(out);
+		out.flush();
+		if (batch.size() > RETAINED_BATCH_BUFFER) {
+			batch = new ByteArrayOutputStream(INITIAL_BATCH_BUFFER);
+		}
+		return true;
 	}
 
 	@Override
@@ -94,9 +136,13 @@ public class ClientSocketHandler extends ClientIO implements Runnable {
 				case TransformerMessage.TRANSFORM_BYTE:
 					this.transformer = CardshifterIO.createByteTransformer();
 					break;
+				case TransformerMessage.TRANSFORM_BYTE_COMPACT:
+					this.transformer = CardshifterIO.createByteTransformer(ByteFormat.COMPACT);
+					break;
 				default:
 					throw new IllegalArgumentException("Not a known transformer: " + transformMess.getType());
 			}
+			outbound.offer(new TransformerChange(this.transformer));
 			return false;
 		}
 		this.sentToServer(mess);
@@ -105,6 +151,7 @@ public class ClientSocketHandler extends ClientIO implements Runnable {
 
 	@Override
 	public void close() {
+		outbound.close();
 		this.disconnected();
 		try {
 			logger.info(this + " Closing socket");
@@ -118,6 +165,11 @@ public class ClientSocketHandler extends ClientIO implements Runnable {
 		socket = null;
 	}
 
+	@Override
+	public OutboundQueue getOutboundQueue() {
+		return outbound;
+	}
+
 	@Override
 	public String getRemoteAddress() {
 		if (socket == null) {
@@ -16,14 +16,15 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import org.java_websocket.exceptions.WebsocketNotConnectedException;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Base64;
+import java.util.List;
 
-public class ClientWebSocket extends ClientIO {
+public class ClientWebSocket extends ClientIO implements OutboundQueue.Owner {
 	private static final Logger logger = LogManager.getLogger(ClientWebSocket.class);
 	
+	private static final int INITIAL_RECEIVE_BUFFER = 1024;
+	private static final int RETAINED_RECEIVE_BUFFER = 64 * 1024;
+
 	private final WebSocket conn;
     private final ByteTransformer transformer = CardshifterIO.createByteTransformer();
     private final ObjectMapper jsonMapper = CardshifterIO.mapper();
@@ -35,16 +36,25 @@ public class ClientWebSocket extends ClientIO {
      *
      * This is not the best way of doing this, but it works, and right now I just want it to work.
      */
-    private Boolean knownBase64client;
+    private volatile Boolean knownBase64client;
+
+    private final OutboundQueue outbound;
+
+    /**
+     * Decoded Base64 messages, reused for each message
+     */
+    private byte[] received = new byte[INITIAL_RECEIVE_BUFFER];
 
 	public ClientWebSocket(Server server, WebSocket conn) {
 		super(server);
 		this.conn = conn;
+		this.outbound = server.newOutboundQueue(this, server.getClientWriters(), this::write);
 	}
 	
 	@Override
 	public void close() {
 		logger.info("Manual close " + this);
+		outbound.close();
 		conn.close();
 	}
 
@@ -54,35 +64,49 @@ public class ClientWebSocket extends ClientIO {
             this.disconnected();
             return;
         }
-		String data;
-		try {
-            if (knownBase64client == null) {
-                logger.error("It is not yet known whether or not client is Base64 or JSON, " +
-                        "ignoring sending of " + message + " to " + this);
-                return;
-            }
+        if (knownBase64client == null) {
+            logger.error("It is not yet known whether or not client is Base64 or JSON, " +
+                    "ignoring sending of " + message + " to " + this);
+            return;
+        }
+        outbound.offer(message);
+	}
 
-            if (knownBase64client) {
-                byte[] bytes = transformer.transform(message);
-                data = Base64Utils.toBase64(bytes);
-                logger.info("Sending to client: " + message + " - " + Arrays.toString(bytes));
-                conn.send(data);
-            } else {
-                try {
-                    data = jsonMapper.writeValueAsString(message);
-                    logger.info("Sending to client: " + message + " - " + data);
-                    conn.send(data);
-                } catch (JsonProcessingException e) {
-                    throw new CardshifterSerializationException(e);
+    /**
+     * Send each message as a frame of its own. The frames of a batch are queued on the connection together,
+     * which lets the websocket server write them at once.
+     */
+    private boolean write(List<Message> messages) {
+        for (Message message : messages) {
+            try {
+                if (knownBase64client) {
+                    logger.info("Sending to client: " + message);
+                    transformer.transform(message, (bytes, offset, length) -> conn.send(Base64Utils.toBase64(bytes, offset, length)));
+                } else {
+                    try {
+                        String data = jsonMapper.writeValueAsString(message);
+                        logger.info("Sending to client: " + message + " - " + data);
+                        conn.send(data);
+                    } catch (JsonProcessingException e) {
+                        throw new CardshifterSerializationException(e);
+                    }
                 }
+            } catch (CardshifterSerializationException e) {
+                logger.error("Error serializing message " + message + " to " + this, e);
+            } catch (WebsocketNotConnectedException ex) {
+                outbound.close();
+                this.disconnected();
+                logger.error("Websocket not connected: " + this, ex);
+                return false;
             }
-		} catch (CardshifterSerializationException e) {
-            throw new RuntimeException("Error serializing message " + message + " to " + this, e);
-        } catch (WebsocketNotConnectedException ex) {
-            this.disconnected();
-            logger.error("Websocket not connected: " + this, ex);
         }
-	}
+        return true;
+    }
+
+    @Override
+    public OutboundQueue getOutboundQueue() {
+        return outbound;
+    }
 
 	@Override
 	public String getRemoteAddress() {
@@ -104,9 +128,9 @@ public class ClientWebSocket extends ClientIO {
         }
 
         if (knownBase64client) {
-            byte[] bytes = Base64Utils.fromBase64(message);
-            logger.info("Connection message from: " + conn + ": " + Arrays.toString(bytes));
-            this.sentToServer(transformer.readOnce(new ByteArrayInputStream(bytes)));
+            Message messageObject = readBase64(message);
+            logger.info("Connection message from: " + conn + ": " + messageObject);
+            this.sentToServer(messageObject);
         } else {
             try {
                 Message messageObject = jsonMapper.readValue(message, Message.class);
@@ -118,4 +142,13 @@ public class ClientWebSocket extends ClientIO {
             }
         }
     }
+
+    private synchronized Message readBase64(String message) throws CardshifterSerializationException {
+        int length = Base64Utils.decodedLength(message);
+        if (received.length < length || received.length > RETAINED_RECEIVE_BUFFER) {
+            received = new byte[Math.max(length, INITIAL_RECEIVE_BUFFER)];
+        }
+        Base64Utils.fromBase64(message, received);
+        return transformer.readOnce(received, 0, length);
+    }
 }
@@ -0,0 +1,70 @@
+package com.cardshifter.server.clients;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Finds where each JSON object ends in a stream of bytes, so that objects can be read as soon as all of their bytes have arrived.
+ * <p>
+ * Bytes that have already been looked at are remembered, so that an object that arrives in many parts is only scanned once.
+ */
+class JsonFrames {
+
+	private int scanned;
+	private int depth;
+	private boolean inString;
+	private boolean escaped;
+
+	/**
+	 * Find the next JSON object, skipping any whitespace in front of it
+	 *
+	 * @param buffer The bytes that have arrived, from its position to its limit
+	 * @return The number of bytes of the object, starting at the position of the buffer, or -1 if the object has not arrived completely
+	 * @throws IOException If the bytes are not a JSON object
+	 */
+	int nextFrame(ByteBuffer buffer) throws IOException {
+		if (scanned == 0) {
+			while (buffer.hasRemaining() && isWhitespace(buffer.get(buffer.position()))) {
+				buffer.position(buffer.position() + 1);
+			}
+		}
+		int start = buffer.position();
+		for (int i = start + scanned; i < buffer.limit(); i++) {
+			byte b = buffer.get(i);
+			if (inString) {
+				if (escaped) {
+					escaped = false;
+				}
+				else if (b == '\\') {
+					escaped = true;
+				}
+				else if (b == '"') {
+					inString = false;
+				}
+			}
+			else if (depth == 0 && b != '{') {
+				throw new IOException("Expected a JSON object but got '" + (char) b + "'");
+			}
+			else if (b == '"') {
+				inString = true;
+			}
+			else if (b == '{' || b == '[') {
+				depth++;
+			}
+			else if (b == '}' || b == ']') {
+				depth--;
+				if (depth == 0) {
+					scanned = 0;
+					return i + 1 - start;
+				}
+			}
+		}
+		scanned = buffer.limit() - start;
+		return -1;
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+	}
+
+}
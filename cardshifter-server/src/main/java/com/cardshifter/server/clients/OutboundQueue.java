@@ -0,0 +1,267 @@
+package com.cardshifter.server.clients;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.cardshifter.api.ClientIO;
+import com.cardshifter.api.both.ChatMessage;
+import com.cardshifter.api.messages.Message;
+import com.cardshifter.api.outgoing.ServerStatusMessage;
+import com.cardshifter.api.outgoing.UserStatusMessage;
+import com.cardshifter.server.main.ServerConfiguration.OverflowPolicy;
+
+/**
+ * The messages that are waiting to be written to a client, so that the thread that sends a message never waits for the connection.
+ * <p>
+ * Messages are written in batches by a {@link Writer} on the given executor, which lets a writer put all messages
+ * that have queued up while the connection was busy into a single flush. The queue holds at most {@code capacity} messages,
+ * when it is full the {@link OverflowPolicy} decides what happens.
+ */
+public class OutboundQueue {
+	private static final Logger logger = LogManager.getLogger(OutboundQueue.class);
+
+	/**
+	 * The largest number of messages given to a writer at once
+	 */
+	private static final int MAX_BATCH = 256;
+
+	/**
+	 * Messages that only tell about the lobby, which a client that falls behind can do without
+	 */
+	private static final Set<Class<? extends Message>> DROPPABLE = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+			ChatMessage.class, UserStatusMessage.class, ServerStatusMessage.class)));
+
+	/**
+	 * Writes messages to the connection of a client
+	 */
+	public interface Writer {
+		/**
+		 * Write messages, in order, and flush them
+		 *
+		 * @param messages The messages to write
+		 * @return True to continue with the next batch, false to wait for {@link OutboundQueue#resume()}
+		 * @throws IOException If the connection fails
+		 */
+		boolean write(List<Message> messages) throws IOException;
+	}
+
+	/**
+	 * A client whose messages wait in an outbound queue
+	 */
+	public interface Owner {
+		OutboundQueue getOutboundQueue();
+	}
+
+	private final ClientIO client;
+	private final Executor executor;
+	private final Executor disconnector;
+	private final Writer writer;
+	private final int capacity;
+	private final OverflowPolicy policy;
+
+	private final Queue<Message> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger depth = new AtomicInteger();
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	private final AtomicBoolean closed = new AtomicBoolean();
+	private volatile boolean paused;
+
+	private final AtomicInteger maxDepth = new AtomicInteger();
+	private final AtomicLong written = new AtomicLong();
+	private final AtomicLong flushes = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+
+	/**
+	 * @param client The client to write to
+	 * @param executor The executor to run the writer on
+	 * @param disconnector The executor to close the client on, when it can not keep up or its connection fails
+	 * @param writer The writer of the connection
+	 * @param capacity The largest number of messages to hold
+	 * @param policy What to do with a message when the queue is full
+	 */
+	public OutboundQueue(ClientIO client, Executor executor, Executor disconnector, Writer writer, int capacity, OverflowPolicy policy) {
+		this.client = client;
+		this.executor = executor;
+		this.disconnector = disconnector;
+		this.writer = writer;
+		this.capacity = capacity;
+		this.policy = policy;
+	}
+
+	/**
+	 * Add a message to be written
+	 *
+	 * @param message The message to write
+	 * @return True if the message was queued, false if it was dropped
+	 */
+	public boolean offer(Message message) {
+		if (closed.get()) {
+			return false;
+		}
+		if (depth.get() >= capacity && !makeRoomFor(message)) {
+			return false;
+		}
+		queue.add(message);
+		int current = depth.incrementAndGet();
+		maxDepth.accumulateAndGet(current, Math::max);
+		schedule();
+		return true;
+	}
+
+	private boolean makeRoomFor(Message message) {
+		if (policy == OverflowPolicy.DROP_UPDATES) {
+			if (isDroppable(message)) {
+				dropped.incrementAndGet();
+				return false;
+			}
+			Iterator<Message> it = queue.iterator();
+			while (it.hasNext()) {
+				Message queued = it.next();
+				if (isDroppable(queued) && queue.remove(queued)) {
+					depth.decrementAndGet();
+					dropped.incrementAndGet();
+					return true;
+				}
+			}
+		}
+		logger.warn(client + " can not keep up with " + depth.get() + " waiting messages, disconnecting");
+		disconnect();
+		return false;
+	}
+
+	/**
+	 * @param message A message to a client
+	 * @return True if the client can do without the message when it has fallen behind
+	 */
+	static boolean isDroppable(Message message) {
+		return DROPPABLE.contains(message.getClass());
+	}
+
+	/**
+	 * Continue writing after the writer has returned false
+	 */
+	public void resume() {
+		paused = false;
+		schedule();
+	}
+
+	private void schedule() {
+		if (!paused && !queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+			try {
+				executor.execute(this::drain);
+			}
+			catch (RejectedExecutionException e) {
+				scheduled.set(false);
+				close();
+			}
+		}
+	}
+
+	private void drain() {
+		try {
+			List<Message> batch = new ArrayList<>(Math.min(MAX_BATCH, depth.get()));
+			while (!paused && !closed.get()) {
+				Message message;
+				while (batch.size() < MAX_BATCH && (message = queue.poll()) != null) {
+					depth.decrementAndGet();
+					batch.add(message);
+				}
+				if (batch.isEmpty()) {
+					break;
+				}
+				paused = !writer.write(batch);
+				written.addAndGet(batch.size());
+				flushes.incrementAndGet();
+				batch.clear();
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			logger.warn("Error writing to " + client + ": " + e);
+			disconnect();
+		}
+		finally {
+			scheduled.set(false);
+		}
+		// a message that was added after the last poll could not schedule a drain while this one was running
+		schedule();
+	}
+
+	private void disconnect() {
+		if (closed.compareAndSet(false, true)) {
+			close();
+			try {
+				disconnector.execute(client::close);
+			}
+			catch (RejectedExecutionException e) {
+				// the server is stopping
+				client.close();
+			}
+		}
+	}
+
+	/**
+	 * Drop all waiting messages and stop accepting new ones
+	 */
+	public void close() {
+		closed.set(true);
+		queue.clear();
+		depth.set(0);
+	}
+
+	/**
+	 * @return The number of messages waiting to be written
+	 */
+	public int getDepth() {
+		return depth.get();
+	}
+
+	/**
+	 * @return The largest number of messages that have been waiting at the same time
+	 */
+	public int getMaxDepth() {
+		return maxDepth.get();
+	}
+
+	/**
+	 * @return The number of messages that have been written
+	 */
+	public long getWritten() {
+		return written.get();
+	}
+
+	/**
+	 * @return The number of batches that the written messages were flushed in
+	 */
+	public long getFlushes() {
+		return flushes.get();
+	}
+
+	/**
+	 * @return The number of messages that have been dropped because the queue was full
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	@Override
+	public String toString() {
+		return "OutboundQueue [depth=" + getDepth() + "/" + capacity + ", maxDepth=" + getMaxDepth() + ", written=" + getWritten()
+				+ ", flushes=" + getFlushes() + ", dropped=" + getDropped() + ", policy=" + policy + "]";
+	}
+
+}
@@ -0,0 +1,157 @@
+package com.cardshifter.server.clients;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+/**
+ * A thread that waits for any of its channels to be ready and lets the handler of that channel do its work.
+ * <p>
+ * Channels must only be used from the thread of the loop, work from other threads can be given to the loop with {@link #execute(Runnable)}.
+ */
+public class SelectorLoop implements Executor {
+	private static final Logger logger = LogManager.getLogger(SelectorLoop.class);
+
+	/**
+	 * Does the work of a channel when it is ready, on the thread of the loop
+	 */
+	public interface ChannelHandler {
+		void ready(SelectionKey key) throws IOException;
+
+		/**
+		 * Called when {@link #ready(SelectionKey)} fails, or when the loop stops
+		 */
+		void failed(IOException e);
+	}
+
+	private final Selector selector;
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+	private final Thread thread;
+	private volatile boolean running = true;
+
+	public SelectorLoop(String name) throws IOException {
+		this.selector = Selector.open();
+		this.thread = new Thread(this::run, name);
+	}
+
+	public void start() {
+		thread.start();
+	}
+
+	/**
+	 * Stop the loop, after the work that has already been given to it. The channels of the loop are closed.
+	 */
+	public void stop() {
+		running = false;
+		selector.wakeup();
+	}
+
+	/**
+	 * Let a channel be handled by this loop, which must be done on the thread of the loop
+	 *
+	 * @param channel A channel in non-blocking mode
+	 * @param ops The operations to wait for, see {@link SelectionKey}
+	 * @param handler The handler to call when the channel is ready
+	 * @return The key of the channel in this loop
+	 */
+	public SelectionKey register(SelectableChannel channel, int ops, ChannelHandler handler) throws ClosedChannelException {
+		return channel.register(selector, ops, handler);
+	}
+
+	/**
+	 * Run a task on the thread of the loop
+	 */
+	@Override
+	public void execute(Runnable task) {
+		tasks.add(task);
+		if (Thread.currentThread() != thread) {
+			selector.wakeup();
+		}
+	}
+
+	private void run() {
+		try {
+			while (running) {
+				runTasks();
+				// tasks given by the handlers of this loop do not wake up the selector, so do not wait for the channels while there are any
+				if (tasks.isEmpty()) {
+					selector.select();
+				}
+				else {
+					selector.selectNow();
+				}
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					handle(key);
+				}
+			}
+			runTasks();
+		}
+		catch (IOException | RuntimeException e) {
+			logger.error("Error in " + thread.getName(), e);
+		}
+		finally {
+			close();
+		}
+	}
+
+	private void handle(SelectionKey key) {
+		if (!key.isValid()) {
+			return;
+		}
+		ChannelHandler handler = (ChannelHandler) key.attachment();
+		try {
+			handler.ready(key);
+		}
+		catch (IOException e) {
+			handler.failed(e);
+		}
+		catch (RuntimeException e) {
+			logger.error("Error handling " + handler, e);
+			handler.failed(new IOException(e));
+		}
+	}
+
+	private void runTasks() {
+		Runnable task;
+		while ((task = tasks.poll()) != null) {
+			try {
+				task.run();
+			}
+			catch (RuntimeException e) {
+				logger.error("Error running task in " + thread.getName(), e);
+			}
+		}
+	}
+
+	private void close() {
+		for (SelectionKey key : selector.keys()) {
+			if (key.attachment() instanceof ChannelHandler) {
+				((ChannelHandler) key.attachment()).failed(new ClosedChannelException());
+			}
+		}
+		try {
+			selector.close();
+		}
+		catch (IOException e) {
+			logger.warn("Error closing selector of " + thread.getName(), e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SelectorLoop [" + thread.getName() + ", channels=" + selector.keys().size() + ", tasks=" + tasks.size() + "]";
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.cardshifter.server.clients;
+
+import com.cardshifter.api.messages.Message;
+import com.cardshifter.api.serial.CommunicationTransformer;
+
+/**
+ * Queued in an {@link OutboundQueue} when a client asks for another format, so that the writer changes format
+ * after the messages that were queued before it. This is never sent to the client.
+ */
+final class TransformerChange extends Message {
+
+	private final CommunicationTransformer transformer;
+
+	/**
+	 * @param transformer The transformer to write the following messages with, which the writer decides the meaning of
+	 */
+	TransformerChange(CommunicationTransformer transformer) {
+		super("transformerChange");
+		this.transformer = transformer;
+	}
+
+	CommunicationTransformer getTransformer() {
+		return transformer;
+	}
+
+	@Override
+	public String toString() {
+		return "TransformerChange [transformer=" + transformer + "]";
+	}
+
+}
@@ -18,6 +18,7 @@ import com.cardshifter.ai.FakeAIClientTCG;
 import com.cardshifter.ai.IdleAI;
 import com.cardshifter.ai.ScoringAI;
 import com.cardshifter.api.ClientIO;
+import com.cardshifter.core.game.ServerGame;
 import com.cardshifter.modapi.actions.ECSAction;
 import com.cardshifter.modapi.ai.AIComponent;
 import com.cardshifter.modapi.ai.AISystem;
@@ -60,7 +61,11 @@ public class AICommand implements CommandHandle<AICommandParameters> {
 	
 	@Override
 	public void handle(CommandContext command, AICommandParameters parameters) {
-		ECSGame game = command.getServer().getGames().get(parameters.gameId).getGameModel();
+		ServerGame serverGame = command.getServer().getGames().get(parameters.gameId);
+		serverGame.execute(() -> handle(command, parameters, serverGame.getGameModel()));
+	}
+
+	private void handle(CommandContext command, AICommandParameters parameters, ECSGame game) {
 		Set<Entity> players = game.getEntitiesWithComponent(PlayerComponent.class);
 		Set<Entity> ais = game.getEntitiesWithComponent(AIComponent.class);
 		players.stream().forEach(e -> command.sendChatResponse("Player " + e + ": " + e.getComponent(AIComponent.class)));
@@ -38,7 +38,11 @@ public class EntityCommand implements CommandHandle<EntityInspectParameters> {
 	public void handle(CommandContext command, EntityInspectParameters parameters) {
 		ServerGame game = command.getServer().getGames().get(parameters.gameId);
 		Objects.requireNonNull(game, "No such game " + parameters.gameId);
-		
+		// read the game between its other tasks, which change the entities
+		game.getMailbox().executeAndWait(() -> inspect(command, game, parameters));
+	}
+	
+	private void inspect(CommandContext command, ServerGame game, EntityInspectParameters parameters) {
 		Entity entity = game.getGameModel().getEntity(parameters.entity);
 		if (entity == null) {
 			if (parameters.component == null) {
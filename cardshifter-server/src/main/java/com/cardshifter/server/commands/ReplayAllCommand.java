@@ -3,6 +3,7 @@ package com.cardshifter.server.commands;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import net.zomis.cardshifter.ecs.usage.CardshifterIO;
 
@@ -12,7 +13,6 @@ import com.cardshifter.core.game.FakeClient;
 import com.cardshifter.core.game.TCGGame;
 import com.cardshifter.core.replays.ReplayPlaybackSystem;
 import com.cardshifter.core.replays.ReplayRecordSystem;
-import com.cardshifter.modapi.base.ECSGameState;
 import com.cardshifter.server.commands.ReplayAllCommand.ReplayAllParameters;
 import com.cardshifter.server.model.CommandHandler.CommandHandle;
 import com.cardshifter.server.model.Server;
@@ -63,23 +63,18 @@ public class ReplayAllCommand implements CommandHandle<ReplayAllParameters> {
 		
 		String actualMod = replay.getModName() != null ? replay.getModName() : mod;
 		TCGGame game = (TCGGame) server.createGame(actualMod);
-		ReplayPlaybackSystem playback = new ReplayPlaybackSystem(game.getGameModel(), replay);
-		game.getGameModel().addSystem(playback);
 		FakeClient fake1 = new FakeClient(server, e -> {});
 		FakeClient fake2 = new FakeClient(server, e -> {});
-		game.start(Arrays.asList(fake1, fake2));
-		System.out.println("Game state is " + game.getState());
-		if (game.getState() == ECSGameState.NOT_STARTED) {
-			System.out.println("Loading configs from saved data");
-			playback.setPlayerConfigs(game.getGameModel());
-			game.checkStartGame();
-		}
+		ReplayPlaybackSystem playback = ReplayCommand.startReplay(game, replay, Arrays.asList(fake1, fake2));
 	
-		while (!playback.isReplayFinished()) {
-			playback.nextStep();
-		}
-		
-		return game.isGameOver();
+		AtomicBoolean gameOver = new AtomicBoolean();
+		game.getMailbox().executeAndWait(() -> {
+			while (!playback.isReplayFinished()) {
+				playback.nextStep();
+			}
+			gameOver.set(game.isGameOver());
+		});
+		return gameOver.get();
 	}
 
 }
@@ -3,10 +3,13 @@ package com.cardshifter.server.commands;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import net.zomis.cardshifter.ecs.usage.CardshifterIO;
 
 import com.beust.jcommander.Parameter;
+import com.cardshifter.api.ClientIO;
 import com.cardshifter.core.game.FakeClient;
 import com.cardshifter.core.game.TCGGame;
 import com.cardshifter.core.replays.ReplayPlaybackSystem;
@@ -49,19 +52,36 @@ public class ReplayCommand implements CommandHandle<ReplayParameters> {
 		}
 		
 		TCGGame game = (TCGGame) command.getServer().createGame(actualMod);
-		ReplayPlaybackSystem playback = new ReplayPlaybackSystem(game.getGameModel(), replay);
-		game.getGameModel().addSystem(playback);
+		startReplay(game, replay, Arrays.asList(command.getClient(), new FakeClient(command.getServer(), e -> {})));
+	}
 
-		
-		game.start(Arrays.asList(command.getClient(), new FakeClient(command.getServer(), e -> {})));
-		System.out.println("Game state is " + game.getState());
-		if (game.getState() == ECSGameState.NOT_STARTED) {
-			System.out.println("Loading configs from saved data");
-			playback.setPlayerConfigs(game.getGameModel());
-			game.checkStartGame();
-		}
-		
-		
+	/**
+	 * Start a game that plays a replay. Everything is done through the mailbox of the game, as other tasks of the game can run at the same time.
+	 * This does not wait for the game to start, tasks of the game that are added afterwards are run after it has started.
+	 * 
+	 * @param game A game that has not been started
+	 * @param replay The replay to play
+	 * @param players The clients to play the game
+	 * @return The system that performs the steps of the replay, which should also be called through the mailbox of the game
+	 */
+	static ReplayPlaybackSystem startReplay(TCGGame game, ReplayRecordSystem replay, List<ClientIO> players) {
+		AtomicReference<ReplayPlaybackSystem> result = new AtomicReference<>();
+		game.getMailbox().executeAndWait(() -> {
+			ReplayPlaybackSystem playback = new ReplayPlaybackSystem(game.getGameModel(), replay);
+			game.getGameModel().addSystem(playback);
+			result.set(playback);
+		});
+		ReplayPlaybackSystem playback = result.get();
+		game.start(players);
+		game.execute(() -> {
+			System.out.println("Game state is " + game.getState());
+			if (game.getState() == ECSGameState.NOT_STARTED) {
+				System.out.println("Loading configs from saved data");
+				playback.setPlayerConfigs(game.getGameModel());
+				game.checkStartGame();
+			}
+		});
+		return playback;
 	}
 
 }
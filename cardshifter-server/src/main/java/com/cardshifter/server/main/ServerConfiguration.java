@@ -16,8 +16,25 @@ public class ServerConfiguration {
         FAIL, WARN, IGNORE
     }
 
+    /**
+     * What to do with a message to a client whose outbound queue is full
+     */
+    public enum OverflowPolicy {
+        /**
+         * Drop chat and user status messages to make room, and disconnect the client if there are none to drop
+         */
+        DROP_UPDATES,
+        /**
+         * Disconnect the client
+         */
+        DISCONNECT
+    }
+
     private int portSocket = 4242;
     private int portWebsocket = 4243;
+    private boolean socketNio = true;
+    private int outboundQueueSize = 1024;
+    private OverflowPolicy outboundOverflow = OverflowPolicy.DROP_UPDATES;
 
     private String modsDirectory = "extra-mods";
     private WarningLevel missingSecurity = WarningLevel.WARN;
@@ -33,6 +50,9 @@ public class ServerConfiguration {
         ServerConfiguration config = new ServerConfiguration();
         config.portSocket = Integer.parseInt(properties.getProperty("port", "4242"));
         config.portWebsocket = Integer.parseInt(properties.getProperty("websocket-port", "4243"));
+        config.socketNio = Boolean.parseBoolean(properties.getProperty("socket-nio", "true"));
+        config.outboundQueueSize = Integer.parseInt(properties.getProperty("outbound-queue-size", "1024"));
+        config.outboundOverflow = OverflowPolicy.valueOf(properties.getProperty("outbound-overflow", OverflowPolicy.DROP_UPDATES.name()));
         config.modsDirectory = properties.getProperty("mods", "extra-mods");
         config.missingSecurity = WarningLevel.valueOf(properties.getProperty("missing-security", WarningLevel.WARN.name()));
         return config;
@@ -46,6 +66,37 @@ public class ServerConfiguration {
         return portWebsocket;
     }
 
+    /**
+     * @return True if socket clients are served on selector threads, false to use a thread for each client.
+     * On by default.
+     */
+    public boolean isSocketNio() {
+        return socketNio;
+    }
+
+    public void setSocketNio(boolean socketNio) {
+        this.socketNio = socketNio;
+    }
+
+    /**
+     * @return The largest number of messages that may be waiting to be written to a client
+     */
+    public int getOutboundQueueSize() {
+        return outboundQueueSize;
+    }
+
+    public void setOutboundQueueSize(int outboundQueueSize) {
+        this.outboundQueueSize = outboundQueueSize;
+    }
+
+    public OverflowPolicy getOutboundOverflow() {
+        return outboundOverflow;
+    }
+
+    public void setOutboundOverflow(OverflowPolicy outboundOverflow) {
+        this.outboundOverflow = outboundOverflow;
+    }
+
     public String getModsDirectory() {
         return modsDirectory;
     }
@@ -9,6 +9,7 @@ import com.cardshifter.core.messages.*;
 import org.apache.log4j.*;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 public class HandlerManager {
 
@@ -16,6 +17,7 @@ public class HandlerManager {
 
     private final IncomingHandler incomingHandler;
     private final CommandHandler commandHandler;
+    private final Set<Class<? extends Message>> gameMessages = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
     public HandlerManager(Server server) {
         incomingHandler = new IncomingHandler();
@@ -31,9 +33,10 @@ public class HandlerManager {
         addHandler("inviteResponse", InviteResponse.class, handlers::inviteResponse);
 
         // Directly game-related
-        addHandler("use", UseAbilityMessage.class, handlers::useAbility);
-        addHandler("requestTargets", RequestTargetsMessage.class, handlers::requestTargets);
-        addHandler("playerconfig", PlayerConfigMessage.class, handlers::incomingConfig);
+        addGameHandler("use", UseAbilityMessage.class, handlers::useAbility);
+        addGameHandler("requestTargets", RequestTargetsMessage.class, handlers::requestTargets);
+        addGameHandler("requestActions", RequestActionsMessage.class, handlers::requestActions);
+        addGameHandler("playerconfig", PlayerConfigMessage.class, handlers::incomingConfig);
     }
 
     public IncomingHandler getIncomingHandler() {
@@ -48,6 +51,23 @@ public class HandlerManager {
         this.addUnauthorizedHandler(command, handler, new AuthorizationDecorator<>(consumer));
     }
 
+    /**
+     * Add a handler that only passes the message on to the mailbox of its game, so it can be performed on any thread
+     * without waiting for anything.
+     */
+    public <E extends Message> void addGameHandler(String command, Class<E> handler, MessageHandler<E> consumer) {
+        this.gameMessages.add(handler);
+        this.addHandler(command, handler, consumer);
+    }
+
+    /**
+     * @param message An incoming message
+     * @return True if the message is handled by passing it on to the mailbox of its game, see {@link #addGameHandler}
+     */
+    public boolean isGameMessage(Message message) {
+        return gameMessages.contains(message.getClass());
+    }
+
     public <E extends Message> void addUnauthorizedHandler(String command, Class<E> handler, MessageHandler<E> consumer) {
         this.incomingHandler.addHandler(command, handler, consumer);
     }
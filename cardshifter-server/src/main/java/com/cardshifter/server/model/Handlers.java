@@ -3,6 +3,7 @@ package com.cardshifter.server.model;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -13,6 +14,7 @@ import com.cardshifter.ai.FakeAIClientTCG;
 import com.cardshifter.api.*;
 import com.cardshifter.api.outgoing.*;
 import com.cardshifter.core.username.*;
+import com.cardshifter.server.clients.ClientNioChannel;
 import com.cardshifter.server.clients.ClientSocketHandler;
 import com.cardshifter.server.clients.ClientWebSocket;
 import org.apache.log4j.LogManager;
@@ -22,6 +24,7 @@ import com.cardshifter.api.both.ChatMessage;
 import com.cardshifter.api.both.InviteResponse;
 import com.cardshifter.api.both.PlayerConfigMessage;
 import com.cardshifter.api.incoming.LoginMessage;
+import com.cardshifter.api.incoming.RequestActionsMessage;
 import com.cardshifter.api.incoming.RequestTargetsMessage;
 import com.cardshifter.api.incoming.ServerQueryMessage;
 import com.cardshifter.api.incoming.StartGameRequest;
@@ -29,6 +32,7 @@ import com.cardshifter.api.incoming.UseAbilityMessage;
 import com.cardshifter.api.outgoing.UserStatusMessage.Status;
 import com.cardshifter.api.outgoing.WelcomeMessage;
 import com.cardshifter.core.game.FakeClient;
+import com.cardshifter.core.game.ServerGame;
 import com.cardshifter.core.game.TCGGame;
 
 public class Handlers {
@@ -63,9 +67,11 @@ public class Handlers {
 				TCGGame game = (TCGGame) server.createGame(message.getMessage());
 				game.addPlayer(client);
 				game.addPlayer(new FakeClient(server, e -> {}));
-				if (!game.preStartForConfiguration()) {
-					client.sendToClient(ErrorMessage.client("There is no configuration required for mod " + message.getMessage()));
-				}
+				inGame(game, client, () -> {
+					if (!game.preStartForConfiguration()) {
+						client.sendToClient(ErrorMessage.client("There is no configuration required for mod " + message.getMessage()));
+					}
+				});
 				
 				break;
             case STATUS:
@@ -74,7 +80,7 @@ public class Handlers {
                 Predicate<ClientIO> aiFilter = cl -> cl instanceof FakeAIClientTCG;
                 int ais = (int) clients.stream().filter(aiFilter).count();
                 int users = (int) clients.stream()
-                    .filter(cl -> cl instanceof ClientWebSocket || cl instanceof ClientSocketHandler)
+                    .filter(cl -> cl instanceof ClientWebSocket || cl instanceof ClientSocketHandler || cl instanceof ClientNioChannel)
                     .count();
 
                 int games = server.getGames().size();
@@ -151,12 +157,17 @@ public class Handlers {
 
 	public void useAbility(UseAbilityMessage message, ClientIO client) {
 		TCGGame game = (TCGGame) server.getGames().get(message.getGameId());
-		game.handleMove(message, client);
+		inGame(game, client, () -> game.handleMove(message, client));
 	}
 
 	public void requestTargets(RequestTargetsMessage message, ClientIO client) {
 		TCGGame game = (TCGGame) server.getGames().get(message.getGameId());
-		game.informAboutTargets(message, client);
+		inGame(game, client, () -> game.informAboutTargets(message, client));
+	}
+
+	public void requestActions(RequestActionsMessage message, ClientIO client) {
+		TCGGame game = (TCGGame) server.getGames().get(message.getGameId());
+		inGame(game, client, () -> game.resendAvailableActions(client));
 	}
 
 	public void chat(ChatMessage message, ClientIO client) {
@@ -172,7 +183,27 @@ public class Handlers {
 	
 	public void incomingConfig(PlayerConfigMessage message, ClientIO client) {
 		TCGGame game = (TCGGame) server.getGames().get(message.getGameId());
-		game.incomingPlayerConfig(message, client);
+		inGame(game, client, () -> game.incomingPlayerConfig(message, client));
+	}
+	
+	/**
+	 * Run a task in the mailbox of a game, so that it is done in order with everything else that happens in the game
+	 * 
+	 * @param game The game
+	 * @param client The client that sent the message, which is told if anything goes wrong
+	 * @param task The task to run
+	 */
+	private void inGame(ServerGame game, ClientIO client, Runnable task) {
+		Objects.requireNonNull(game, "No such game");
+		game.execute(() -> {
+			try {
+				task.run();
+			}
+			catch (Exception e) {
+				logger.error("Unable to perform game task for " + client + " in game " + game.getId(), e);
+				client.sendToClient(ErrorMessage.server(e.getMessage()));
+			}
+		});
 	}
 	
 }
@@ -20,6 +20,7 @@ import com.cardshifter.api.incoming.LoginMessage;
 import com.cardshifter.core.game.ModCollection;
 import com.cardshifter.core.game.ServerGame;
 import com.cardshifter.core.game.TCGGame;
+import com.cardshifter.server.clients.OutboundQueue;
 import com.cardshifter.server.commands.AICommand;
 import com.cardshifter.server.commands.AICommand.AICommandParameters;
 import com.cardshifter.server.commands.CommandContext;
@@ -73,8 +74,9 @@ public class MainServer {
         mods.loadExternal(Paths.get(config.getModsDirectory()));
 		try {
 			logger.info("Starting Server...");
+			server.setOutboundLimits(config.getOutboundQueueSize(), config.getOutboundOverflow());
 			
-			server.addConnections(new ServerSock(server, config));
+			server.addConnections(config.isSocketNio() ? new ServerNio(server, config) : new ServerSock(server, config));
 			server.addConnections(new ServerWeb(server, config));
 			
 			logger.info("Starting Console...");
@@ -93,7 +95,7 @@ public class MainServer {
 			
 			mods.getAvailableMods().forEach(name ->
 				server.addGameFactory(name, (serv, id) ->
-					new TCGGame(aiExecutor, name, id, mods.getModFor(name))));
+					new TCGGame(aiExecutor, server.getAIComputePool(), name, id, mods.getModFor(name))));
 			
 			logger.info("Started");
 		}
@@ -122,6 +124,8 @@ public class MainServer {
 		commandHandler.addHandler("ai", () -> new AICommandParameters(), new AICommand());
 		commandHandler.addHandler("ent", () -> new EntityInspectParameters(), new EntityCommand());
 		commandHandler.addHandler("threads", cmd -> showAllStackTraces(server, System.out::println));
+		commandHandler.addHandler("aipool", this::aiPoolInfo);
+		commandHandler.addHandler("queues", this::queuesInfo);
 		commandHandler.addHandler("replay", () -> new ReplayParameters(), new ReplayCommand());
 		commandHandler.addHandler("allreplays", () -> new ReplayAllParameters(), new ReplayAllCommand());
 	}
@@ -145,6 +149,28 @@ public class MainServer {
 		}
 	}
 	
+	/**
+	 * Prints out the queue depth and other statistics of the pool that AIs decide on
+	 * 
+	 * @param command The command object
+	 */
+	private void aiPoolInfo(Command command) {
+		CommandContext context = new CommandContext(server, command, command.getSender());
+		context.sendChatResponse(server.getAIComputePool().toString());
+	}
+	
+	/**
+	 * Shows the outbound queue of each client, with how many messages are waiting and how many have been dropped
+	 * 
+	 * @param command The command object
+	 */
+	private void queuesInfo(Command command) {
+		CommandContext context = new CommandContext(server, command, command.getSender());
+		server.getClients().values().stream()
+			.filter(cl -> cl instanceof OutboundQueue.Owner)
+			.forEach(cl -> context.sendChatResponse(cl + ": " + ((OutboundQueue.Owner) cl).getOutboundQueue()));
+	}
+	
 	/**
 	 * Prints out the current games of the Server
 	 * 
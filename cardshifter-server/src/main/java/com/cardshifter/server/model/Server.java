@@ -2,6 +2,8 @@ package com.cardshifter.server.model;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -18,6 +20,9 @@ import com.cardshifter.api.outgoing.UserStatusMessage;
 import com.cardshifter.api.outgoing.UserStatusMessage.Status;
 import com.cardshifter.core.game.ServerGame;
 import com.cardshifter.core.messages.IncomingHandler;
+import com.cardshifter.modapi.ai.AIComputePool;
+import com.cardshifter.server.clients.OutboundQueue;
+import com.cardshifter.server.main.ServerConfiguration.OverflowPolicy;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
@@ -48,10 +53,21 @@ public class Server implements ClientServerInterface {
 	private final AtomicReference<ClientIO> playAny = new AtomicReference<>();
 
 	private final ScheduledExecutorService scheduler;
+	private final ExecutorService lobby;
+	private final ExecutorService writers;
+	private final AIComputePool aiComputePool;
 	private final ChatArea mainChat;
 
+	private volatile int outboundQueueSize = 1024;
+	private volatile OverflowPolicy outboundOverflow = OverflowPolicy.DROP_UPDATES;
+
 	public Server() {
-		this.scheduler = Executors.newScheduledThreadPool(2, new ThreadFactoryBuilder().setNameFormat("ai-thread-%d").build());
+		// AIs think on the compute pool, the scheduler only waits for their delays
+		this.scheduler = Executors.newScheduledThreadPool(1, new ThreadFactoryBuilder().setNameFormat("ai-delay-%d").build());
+		this.lobby = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("lobby-%d").build());
+		// a writer thread is only used while a client has messages waiting, a slow client only holds up its own writer
+		this.writers = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("client-writer-%d").build());
+		this.aiComputePool = new AIComputePool();
 		mainChat = this.newChatRoom("Main");
 	}
 	
@@ -244,9 +260,57 @@ public class Server implements ClientServerInterface {
 	public ScheduledExecutorService getScheduler() {
 		return scheduler;
 	}
+
+	/**
+	 * 
+	 * @return The executor that messages from connections that do not have a thread of their own are performed on,
+	 * in the order that they were received
+	 */
+	public Executor getLobbyExecutor() {
+		return lobby;
+	}
+
+	/**
+	 * 
+	 * @return The executor that writes to connections that block while writing
+	 */
+	public Executor getClientWriters() {
+		return writers;
+	}
+
+	/**
+	 * Set the limits of the outbound queues of clients that connect after this call
+	 * 
+	 * @param size The largest number of messages that may be waiting to be written to a client
+	 * @param overflow What to do with a message to a client whose queue is full
+	 */
+	public void setOutboundLimits(int size, OverflowPolicy overflow) {
+		this.outboundQueueSize = size;
+		this.outboundOverflow = overflow;
+	}
+
+	/**
+	 * Create the queue of messages to a client, which disconnects the client on the lobby executor if it can not keep up
+	 * 
+	 * @param client The client to write to
+	 * @param executor The executor to run the writer on
+	 * @param writer The writer of the connection of the client
+	 * @return A new queue with the current outbound limits
+	 */
+	public OutboundQueue newOutboundQueue(ClientIO client, Executor executor, OutboundQueue.Writer writer) {
+		return new OutboundQueue(client, executor, lobby, writer, outboundQueueSize, outboundOverflow);
+	}
+
+	/**
+	 * 
+	 * @return The pool that AIs decide their actions on
+	 */
+	public AIComputePool getAIComputePool() {
+		return aiComputePool;
+	}
 	
 	/**
-	 * Closes all clients, shuts down all handlers, shuts down the scheduler
+	 * Closes all clients, shuts down all handlers, shuts down the scheduler, the lobby executor, the client writers and the AI compute pool
 	 */
 	public void stop() {
 		// Use a copy to avoid ConcurrentModificationException
@@ -260,6 +324,9 @@ public class Server implements ClientServerInterface {
 			}
 		}
 		this.scheduler.shutdown();
+		this.lobby.shutdown();
+		this.writers.shutdown();
+		this.aiComputePool.shutdown();
 	}
 	
 	/**
@@ -275,6 +342,14 @@ public class Server implements ClientServerInterface {
 		getIncomingHandler().perform(message, client);
 	}
 
+	/**
+	 * @param message An incoming message
+	 * @return True if performing the message only passes it on to the mailbox of its game, so it does not need the lobby executor
+	 */
+	public boolean isGameMessage(Message message) {
+		return handlerManager.isGameMessage(message);
+	}
+
 	@Override
 	public int newClientId() {
 		return clientId.incrementAndGet();
@@ -0,0 +1,123 @@
+package com.cardshifter.server.model;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.net.StandardSocketOptions;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.cardshifter.server.clients.ClientNioChannel;
+import com.cardshifter.server.clients.SelectorLoop;
+import com.cardshifter.server.main.ServerConfiguration;
+
+/**
+ * Socket server that serves all connections on a few selector threads, instead of a thread for each connection like {@link ServerSock}.
+ * <p>
+ * Clients use the same protocol as with {@link ServerSock}. Each connection is a {@link ClientNioChannel},
+ * whose game messages go straight to the mailbox of their game, and other messages are performed on the lobby executor of the server.
+ * This is used unless {@link ServerConfiguration#isSocketNio()} is turned off.
+ */
+public class ServerNio implements ConnectionHandler {
+	private static final Logger logger = LogManager.getLogger(ServerNio.class);
+
+	private final Server server;
+	private final ServerSocketChannel serverChannel;
+	private final SelectorLoop[] loops;
+	private final AtomicInteger nextLoop = new AtomicInteger();
+
+	/**
+	 * Constructor.
+	 * @param server Server instance
+	 * @param config Uses the value of {@code config.getPortSocket} as port. If {@code port == 0} any available port is
+	 *                  used and the real port number is set in {@code config} before returning.
+	 * @throws IOException
+	 */
+	public ServerNio(Server server, ServerConfiguration config) throws IOException {
+		this(server, config, Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+	}
+
+	/**
+	 * @param server Server instance
+	 * @param config Uses the value of {@code config.getPortSocket} as port, see {@link #ServerNio(Server, ServerConfiguration)}
+	 * @param threads The number of selector threads to serve the connections on
+	 * @throws IOException
+	 */
+	public ServerNio(Server server, ServerConfiguration config, int threads) throws IOException {
+		this.server = server;
+		this.serverChannel = ServerSocketChannel.open();
+		serverChannel.bind(new InetSocketAddress(config.getPortSocket()));
+		serverChannel.configureBlocking(false);
+		config.setPortSocket(((InetSocketAddress) serverChannel.getLocalAddress()).getPort());
+
+		this.loops = new SelectorLoop[threads];
+		for (int i = 0; i < threads; i++) {
+			loops[i] = new SelectorLoop("nio-selector-" + i);
+		}
+	}
+
+	@Override
+	public void start() {
+		logger.info("Starting NIO socket server at port " + serverChannel.socket().getLocalPort() + " with " + loops.length + " selector threads...");
+		for (SelectorLoop loop : loops) {
+			loop.start();
+		}
+		loops[0].execute(() -> {
+			try {
+				loops[0].register(serverChannel, SelectionKey.OP_ACCEPT, new SelectorLoop.ChannelHandler() {
+					@Override
+					public void ready(SelectionKey key) throws IOException {
+						accept();
+					}
+
+					@Override
+					public void failed(IOException e) {
+						logger.error("Error accepting connections", e);
+					}
+				});
+			}
+			catch (IOException e) {
+				logger.error("Could not accept connections", e);
+			}
+		});
+		logger.info("NIO socket server started.");
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel;
+		while ((channel = serverChannel.accept()) != null) {
+			channel.configureBlocking(false);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			SelectorLoop loop = loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+			ClientNioChannel client = new ClientNioChannel(server, channel, loop);
+			logger.info("Incoming connection from " + client.getRemoteAddress());
+			loop.execute(() -> {
+				try {
+					client.register();
+				}
+				catch (IOException e) {
+					client.failed(e);
+				}
+			});
+			server.newClient(client);
+		}
+	}
+
+	@Override
+	public void shutdown() {
+		logger.info("Shutting down NIO socket server");
+		for (SelectorLoop loop : loops) {
+			loop.stop();
+		}
+		try {
+			serverChannel.close();
+		} catch (IOException e) {
+			logger.error("IOException when closing ServerSocketChannel", e);
+		}
+	}
+
+}
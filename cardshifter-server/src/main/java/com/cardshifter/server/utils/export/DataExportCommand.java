@@ -45,14 +45,16 @@ public class DataExportCommand implements CommandHandler.CommandHandle<DataExpor
         ObjectMapper mapper = createMapper();
 
         List<Entity> list = new ArrayList<>();
-        gatherInterestingEntities(list, game);
-
         File file = new File("game-" + game.getId() + ".json");
-        try {
-            mapper.writeValue(file, list);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        // the entities are read while writing them, so both are done between the other tasks of the game
+        game.getMailbox().executeAndWait(() -> {
+            gatherInterestingEntities(list, game);
+            try {
+                mapper.writeValue(file, list);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
         command.sendChatResponse("Exported " + list.size() + " cards to " + file.getName());
     }
 
@@ -0,0 +1,55 @@
+package com.cardshifter.server.clients;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class JsonFramesTest {
+
+	private final JsonFrames frames = new JsonFrames();
+
+	@Test
+	public void objectInOneRead() throws IOException {
+		ByteBuffer buffer = bytes("{\"command\":\"login\",\"username\":\"Tester\"}");
+		assertEquals(buffer.remaining(), frames.nextFrame(buffer));
+	}
+
+	@Test
+	public void objectInParts() throws IOException {
+		String json = "  {\"command\":\"login\",\"username\":\"a } \\\" { [\"}{\"command\":\"query\"}";
+		int first = json.indexOf("}{") + 1;
+		ByteBuffer buffer = ByteBuffer.allocate(json.length());
+		for (int i = 0; i < first - 1; i++) {
+			buffer.put((byte) json.charAt(i));
+			buffer.flip();
+			assertEquals(-1, frames.nextFrame(buffer));
+			buffer.compact();
+		}
+		buffer.put(json.substring(first - 1).getBytes(StandardCharsets.UTF_8));
+		buffer.flip();
+		// the whitespace in front of the first object has been skipped and compacted away
+		assertEquals(first - 2, frames.nextFrame(buffer));
+		buffer.position(first - 2);
+		assertEquals(buffer.remaining(), frames.nextFrame(buffer));
+	}
+
+	@Test
+	public void nestedObjectsAndArrays() throws IOException {
+		ByteBuffer buffer = bytes("{\"a\":[{\"b\":[1,2]},{}],\"c\":{}}\n{");
+		assertEquals(buffer.remaining() - 2, frames.nextFrame(buffer));
+	}
+
+	@Test(expected = IOException.class)
+	public void notAnObject() throws IOException {
+		frames.nextFrame(bytes("[1, 2]"));
+	}
+
+	private static ByteBuffer bytes(String json) {
+		return ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
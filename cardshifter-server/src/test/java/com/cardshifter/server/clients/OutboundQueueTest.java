@@ -0,0 +1,148 @@
+package com.cardshifter.server.clients;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.cardshifter.api.ClientIO;
+import com.cardshifter.api.both.ChatMessage;
+import com.cardshifter.api.messages.Message;
+import com.cardshifter.api.outgoing.ErrorMessage;
+import com.cardshifter.server.main.ServerConfiguration.OverflowPolicy;
+import com.cardshifter.server.model.Server;
+
+public class OutboundQueueTest {
+
+	private Server server;
+	private ClientIO client;
+	private final AtomicInteger closed = new AtomicInteger();
+	private final List<Runnable> tasks = new ArrayList<>();
+	private final List<List<Message>> written = new ArrayList<>();
+	private boolean writable = true;
+
+	@Before
+	public void before() {
+		server = new Server();
+		client = new ClientIO(server) {
+			@Override
+			protected void onSendToClient(Message data) {
+			}
+
+			@Override
+			public void close() {
+				closed.incrementAndGet();
+			}
+
+			@Override
+			public String getRemoteAddress() {
+				return "Test";
+			}
+		};
+	}
+
+	@After
+	public void after() {
+		server.stop();
+	}
+
+	private OutboundQueue queue(int capacity, OverflowPolicy policy) {
+		return new OutboundQueue(client, tasks::add, Runnable::run, messages -> {
+			written.add(new ArrayList<>(messages));
+			return writable;
+		}, capacity, policy);
+	}
+
+	private void runTasks() {
+		while (!tasks.isEmpty()) {
+			tasks.remove(0).run();
+		}
+	}
+
+	@Test
+	public void waitingMessagesAreWrittenTogether() {
+		OutboundQueue queue = queue(10, OverflowPolicy.DROP_UPDATES);
+		Message first = ErrorMessage.server("first");
+		Message second = ErrorMessage.server("second");
+		Message third = chat("third");
+		queue.offer(first);
+		queue.offer(second);
+		queue.offer(third);
+		assertEquals(1, tasks.size());
+		assertEquals(3, queue.getDepth());
+
+		runTasks();
+		assertEquals(Arrays.asList(Arrays.asList(first, second, third)), written);
+		assertEquals(0, queue.getDepth());
+		assertEquals(3, queue.getMaxDepth());
+		assertEquals(3, queue.getWritten());
+		assertEquals(1, queue.getFlushes());
+	}
+
+	@Test
+	public void dropUpdatesWhenFull() {
+		OutboundQueue queue = queue(2, OverflowPolicy.DROP_UPDATES);
+		Message chat = chat("chat");
+		Message first = ErrorMessage.server("first");
+		Message second = ErrorMessage.server("second");
+		assertTrue(queue.offer(chat));
+		assertTrue(queue.offer(first));
+		assertTrue(queue.offer(second));
+		assertFalse(queue.offer(chat("late")));
+		assertEquals(2, queue.getDropped());
+		assertEquals(2, queue.getDepth());
+
+		runTasks();
+		assertEquals(Arrays.asList(Arrays.asList(first, second)), written);
+		assertEquals(0, closed.get());
+	}
+
+	@Test
+	public void disconnectWhenNothingCanBeDropped() {
+		OutboundQueue queue = queue(1, OverflowPolicy.DROP_UPDATES);
+		assertTrue(queue.offer(ErrorMessage.server("first")));
+		assertFalse(queue.offer(ErrorMessage.server("second")));
+		assertEquals(1, closed.get());
+		assertEquals(0, queue.getDepth());
+		assertFalse(queue.offer(chat("after")));
+		assertEquals(1, closed.get());
+	}
+
+	@Test
+	public void disconnectPolicy() {
+		OutboundQueue queue = queue(1, OverflowPolicy.DISCONNECT);
+		assertTrue(queue.offer(chat("first")));
+		assertFalse(queue.offer(chat("second")));
+		assertEquals(1, closed.get());
+	}
+
+	@Test
+	public void waitForResume() {
+		OutboundQueue queue = queue(10, OverflowPolicy.DROP_UPDATES);
+		writable = false;
+		queue.offer(chat("first"));
+		runTasks();
+		queue.offer(chat("second"));
+		assertTrue(tasks.isEmpty());
+		assertEquals(1, written.size());
+
+		writable = true;
+		queue.resume();
+		runTasks();
+		assertEquals(2, written.size());
+		assertEquals(0, queue.getDepth());
+	}
+
+	private static ChatMessage chat(String message) {
+		return new ChatMessage(1, "Test", message);
+	}
+
+}
@@ -8,6 +8,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 
 import com.cardshifter.api.outgoing.*;
@@ -158,9 +159,11 @@ public class ServerConnectionTest {
 		assertEquals(2, game.getGameModel().getEntitiesWithComponent(PlayerComponent.class).size());
 		assertTrue(game.hasPlayer(server.getClients().get(userId)));
 		assertTrue(game.hasPlayer(server.getClients().get(2)));
-		game.incomingPlayerConfig(new PlayerConfigMessage(game.getId(), getTestMod(), new HashMap<>()), server.getClients().get(2));
-		game.incomingPlayerConfig(new PlayerConfigMessage(game.getId(), getTestMod(), new HashMap<>()), server.getClients().get(userId));
-        client1.awaitUntil(ResetAvailableActionsMessage.class);
+		game.getMailbox().executeAndWait(() -> {
+			game.incomingPlayerConfig(new PlayerConfigMessage(game.getId(), getTestMod(), new HashMap<>()), server.getClients().get(2));
+			game.incomingPlayerConfig(new PlayerConfigMessage(game.getId(), getTestMod(), new HashMap<>()), server.getClients().get(userId));
+		});
+        client1.awaitUntil(UsableActionsChangeMessage.class);
 		assertEquals(ECSGameState.RUNNING, game.getState());
 	}
 	
@@ -171,28 +174,33 @@ public class ServerConnectionTest {
 		TCGGame game = (TCGGame) server.getGames().get(1);
 		ClientIO io = server.getClients().get(userId);
 		assertEquals(2, game.getGameModel().getEntitiesWithComponent(PlayerComponent.class).size());
-		game.incomingPlayerConfig(new PlayerConfigMessage(game.getId(), getTestMod(), new HashMap<>()), io);
+		game.getMailbox().executeAndWait(() -> game.incomingPlayerConfig(new PlayerConfigMessage(game.getId(), getTestMod(), new HashMap<>()), io));
 		assertEquals(ECSGameState.RUNNING, game.getGameModel().getGameState());
 		Entity human = game.playerFor(io);
 		Entity ai = game.getGameModel().getEntitiesWithComponent(AIComponent.class).stream().findFirst().get();
 		ai.getComponent(AIComponent.class).setDelay(0);
 		
 		CardshifterAI humanActions = new ScoringAI(AIs.medium());
-        client1.awaitUntil(ResetAvailableActionsMessage.class);
-        client1.awaitUntil(ResetAvailableActionsMessage.class);
-        client1.awaitUntil(UsableActionMessage.class);
+        client1.awaitUntil(UsableActionsChangeMessage.class);
+        client1.awaitUntil(UsableActionsChangeMessage.class);
 		while (!game.isGameOver()) {
-			ECSAction action = humanActions.getAction(human);
-			if (action != null) {
-                System.out.println("Perform " + action);
-				int[] targets = new int[]{ };
-				if (!action.getTargetSets().isEmpty()) {
-					targets = action.getTargetSets().get(0).getChosenTargets().stream().mapToInt(e -> e.getId()).toArray();
+			AtomicReference<UseAbilityMessage> chosen = new AtomicReference<>();
+			game.getMailbox().executeAndWait(() -> {
+				ECSAction action = humanActions.getAction(human);
+				if (action != null) {
+					System.out.println("Perform " + action);
+					int[] targets = new int[]{ };
+					if (!action.getTargetSets().isEmpty()) {
+						targets = action.getTargetSets().get(0).getChosenTargets().stream().mapToInt(e -> e.getId()).toArray();
+					}
+					chosen.set(new UseAbilityMessage(game.getId(), action.getOwner().getId(), action.getName(), targets));
 				}
-				UseAbilityMessage message = new UseAbilityMessage(game.getId(), action.getOwner().getId(), action.getName(), targets);
+			});
+			UseAbilityMessage message = chosen.get();
+			if (message != null) {
 				System.out.println("Sending message: " + message);
 				client1.send(message);
-                client1.awaitUntil(ResetAvailableActionsMessage.class);
+                client1.awaitUntil(UsableActionsChangeMessage.class);
 			} else {
                 System.out.println("Nothing to perform, busy-loop");
             }
@@ -0,0 +1,117 @@
+package com.cardshifter.server.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+
+import net.zomis.cardshifter.ecs.usage.CardshifterIO;
+
+import org.apache.log4j.PropertyConfigurator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.cardshifter.api.CardshifterSerializationException;
+import com.cardshifter.api.incoming.LoginMessage;
+import com.cardshifter.api.incoming.TransformerMessage;
+import com.cardshifter.api.incoming.UseAbilityMessage;
+import com.cardshifter.api.messages.Message;
+import com.cardshifter.api.outgoing.ErrorMessage;
+import com.cardshifter.api.outgoing.WelcomeMessage;
+import com.cardshifter.api.serial.ByteFormat;
+import com.cardshifter.api.serial.ByteTransformer;
+import com.cardshifter.server.model.Server;
+import com.cardshifter.server.model.ServerNio;
+
+public class ServerNioTest {
+
+	private Server server;
+	private int port;
+
+	@Before
+	public void before() throws IOException {
+		PropertyConfigurator.configure(getClass().getResourceAsStream("log4j.properties"));
+		ServerConfiguration config = ServerConfiguration.defaults();
+		config.setPortSocket(0);
+		server = new Server();
+		server.addConnections(new ServerNio(server, config, 2));
+		port = config.getPortSocket();
+	}
+
+	@After
+	public void after() {
+		server.stop();
+	}
+
+	@Test(timeout = 10000)
+	public void jsonClients() throws IOException, InterruptedException {
+		TestClient first = new TestClient(port);
+		TestClient second = new TestClient(port);
+		first.send(new LoginMessage("Tester1"));
+		second.send(new LoginMessage("Tester2"));
+		int firstId = first.awaitUntil(WelcomeMessage.class).getUserId();
+		int secondId = second.awaitUntil(WelcomeMessage.class).getUserId();
+		assertTrue(firstId > 0);
+		assertTrue(secondId > 0);
+		assertNotEquals(firstId, secondId);
+		first.disconnect();
+		second.disconnect();
+	}
+
+	@Test(timeout = 10000)
+	public void gameMessagesDoNotWaitForTheLobby() throws IOException, InterruptedException {
+		TestClient client = new TestClient(port);
+		client.send(new LoginMessage("Tester1"));
+		client.awaitUntil(WelcomeMessage.class);
+
+		CountDownLatch lobbyBusy = new CountDownLatch(1);
+		server.getLobbyExecutor().execute(() -> {
+			try {
+				lobbyBusy.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		try {
+			client.send(new UseAbilityMessage(4711, 1, "Use", new int[0]));
+			ErrorMessage error = client.awaitUntil(ErrorMessage.class);
+			assertTrue(error.getMessage(), error.getMessage().contains("No such game"));
+		}
+		finally {
+			lobbyBusy.countDown();
+		}
+		client.disconnect();
+	}
+
+	@Test(timeout = 10000)
+	public void switchToCompactBytesInTheSameWrite() throws IOException, CardshifterSerializationException {
+		ByteTransformer transformer = CardshifterIO.createByteTransformer(ByteFormat.COMPACT);
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		CardshifterIO.mapper().writeValue(data, new TransformerMessage(TransformerMessage.TRANSFORM_BYTE_COMPACT));
+		data.write(transformer.transform(new LoginMessage("Compact")));
+
+		try (Socket socket = new Socket("127.0.0.1", port)) {
+			OutputStream out = socket.getOutputStream();
+			InputStream in = socket.getInputStream();
+			byte[] bytes = data.toByteArray();
+			// send the bytes in two parts, splitting the login message
+			out.write(bytes, 0, bytes.length - 3);
+			out.flush();
+			out.write(bytes, bytes.length - 3, 3);
+			out.flush();
+
+			Message message = transformer.readOnce(in);
+			assertEquals(WelcomeMessage.class, message.getClass());
+			assertTrue(((WelcomeMessage) message).getUserId() > 0);
+		}
+	}
+
+}
@@ -3,16 +3,25 @@ package com.cardshifter.server.messages;
 import static org.junit.Assert.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.cardshifter.api.LogInterface;
+import com.cardshifter.api.both.PlayerConfigMessage;
+import com.cardshifter.api.config.DeckConfig;
+import com.cardshifter.api.config.PlayerConfig;
 import com.cardshifter.api.incoming.ServerQueryMessage;
+import com.cardshifter.api.outgoing.CardInfoMessage;
+import com.cardshifter.api.outgoing.UsableActionsChangeMessage;
 import com.cardshifter.core.Log4jAdapter;
 import net.zomis.cardshifter.ecs.usage.CardshifterIO;
 import org.junit.Test;
 
 import com.cardshifter.api.incoming.LoginMessage;
 import com.cardshifter.api.messages.Message;
+import com.cardshifter.api.serial.ByteFormat;
 import com.cardshifter.api.serial.ByteTransformer;
 
 public class ByteSerializeTest {
@@ -47,4 +56,115 @@ public class ByteSerializeTest {
 		assertEquals(ServerQueryMessage.Request.USERS, ((ServerQueryMessage) message).getRequest());
 	}
 
+    @Test
+	public void testUsableActionsChange() throws Exception {
+		ByteTransformer transformer = createTransformer();
+		byte[] result = transformer.transform(new UsableActionsChangeMessage(false, new int[]{ 4, 7 }, new String[]{ "Play", "Attack" },
+				new boolean[]{ false, true }, new int[]{ 2 }, new String[]{ "End Turn" }));
+
+		Message message = transformer.readOnce(new ByteArrayInputStream(result));
+		assertTrue(message instanceof UsableActionsChangeMessage);
+		UsableActionsChangeMessage change = (UsableActionsChangeMessage) message;
+		assertFalse(change.isReset());
+		assertArrayEquals(new int[]{ 4, 7 }, change.getAddedIds());
+		assertArrayEquals(new String[]{ "Play", "Attack" }, change.getAddedActions());
+		assertTrue(change.getAddedTargetRequired()[1]);
+		assertFalse(change.getAddedTargetRequired()[0]);
+		assertArrayEquals(new int[]{ 2 }, change.getRemovedIds());
+		assertArrayEquals(new String[]{ "End Turn" }, change.getRemovedActions());
+	}
+
+    @Test
+	public void testReuseForNestedObjects() throws Exception {
+		ByteTransformer transformer = createTransformer();
+		for (int i = 1; i <= 3; i++) {
+			DeckConfig deck = new DeckConfig(10, 20, new HashMap<String, CardInfoMessage>(), 3);
+			deck.setChosen("card" + i, i);
+			Map<String, PlayerConfig> configs = new HashMap<String, PlayerConfig>();
+			configs.put("Deck", deck);
+			PlayerConfigMessage config = new PlayerConfigMessage(i, "Mod", configs);
+			byte[] result = transformer.transform(config);
+			assertArrayEquals(createTransformer().transform(config), result);
+
+			Message message = transformer.readOnce(new ByteArrayInputStream(result));
+			assertTrue(message instanceof PlayerConfigMessage);
+			PlayerConfigMessage read = (PlayerConfigMessage) message;
+			assertEquals(i, read.getGameId());
+			DeckConfig readDeck = (DeckConfig) read.getConfigs().get("Deck");
+			assertEquals(i, readDeck.getChosen("card" + i));
+			assertEquals(20, readDeck.getMaxSize());
+		}
+	}
+
+    @Test
+	public void testCompactDeckConfig() throws Exception {
+		Map<String, CardInfoMessage> cards = new HashMap<String, CardInfoMessage>();
+		for (int i = 0; i < 20; i++) {
+			Map<String, Object> properties = new HashMap<String, Object>();
+			properties.put("name", "Card \u00e5 " + i);
+			properties.put("ATTACK", i);
+			properties.put("HEALTH", -i);
+			properties.put("taunt", i % 2 == 0);
+			cards.put("card" + i, new CardInfoMessage(3, 100 + i, properties));
+		}
+		DeckConfig deck = new DeckConfig(10, 20, cards, 3);
+		deck.setChosen("card4", 2);
+		Map<String, PlayerConfig> configs = new HashMap<String, PlayerConfig>();
+		configs.put("Deck", deck);
+		PlayerConfigMessage config = new PlayerConfigMessage(7, "Mod", configs);
+
+		ByteTransformer compact = CardshifterIO.createByteTransformer(ByteFormat.COMPACT);
+		byte[] result = compact.transform(config);
+		assertTrue(result.length * 2 < createTransformer().transform(config).length);
+
+		PlayerConfigMessage read = (PlayerConfigMessage) compact.readOnce(new ByteArrayInputStream(result));
+		assertEquals(7, read.getGameId());
+		assertEquals("Mod", read.getModName());
+		DeckConfig readDeck = (DeckConfig) read.getConfigs().get("Deck");
+		assertEquals(2, readDeck.getChosen("card4"));
+		assertEquals(20, readDeck.getCardData().size());
+		for (int i = 0; i < 20; i++) {
+			CardInfoMessage card = readDeck.getCardData().get("card" + i);
+			assertEquals(100 + i, card.getId());
+			assertEquals(cards.get("card" + i).getProperties(), card.getProperties());
+		}
+	}
+
+    @Test
+	public void testCompactNumbers() throws Exception {
+		ByteTransformer compact = CardshifterIO.createByteTransformer(ByteFormat.COMPACT);
+		int[] numbers = { 0, 1, -1, 63, -64, 64, 300, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		byte[] result = compact.transform(new UsableActionsChangeMessage(true, numbers, new String[0],
+				new boolean[0], new int[0], new String[0]));
+
+		UsableActionsChangeMessage change = (UsableActionsChangeMessage) compact.readOnce(new ByteArrayInputStream(result));
+		assertTrue(change.isReset());
+		assertArrayEquals(numbers, change.getAddedIds());
+	}
+
+    @Test
+	public void testReusedBuffers() throws Exception {
+		for (ByteFormat format : new ByteFormat[] { ByteFormat.ORIGINAL, ByteFormat.COMPACT }) {
+			ByteTransformer transformer = CardshifterIO.createByteTransformer(format);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			StringBuilder name = new StringBuilder();
+			for (int i = 0; i < 300; i++) {
+				name.append((char) ('a' + i % 26));
+				transformer.send(new LoginMessage(name.toString()), out);
+			}
+			ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+			for (int i = 0; i < 300; i++) {
+				LoginMessage message = (LoginMessage) transformer.readOnce(in);
+				assertEquals(i + 1, message.getUsername().length());
+			}
+			assertEquals(0, in.available());
+
+			byte[] data = transformer.transform(new LoginMessage(name.toString()));
+			byte[] padded = new byte[data.length + 5];
+			System.arraycopy(data, 0, padded, 3, data.length);
+			LoginMessage message = (LoginMessage) transformer.readOnce(padded, 3, data.length);
+			assertEquals(name.toString(), message.getUsername());
+		}
+	}
+
 }
@@ -39,6 +39,7 @@ public class GameScreen implements Screen, TargetableCallback {
     private final Map<Integer, EntityView> entityViews = new HashMap<Integer, EntityView>();
     private final Map<String, Container<Actor>> holders = new HashMap<String, Container<Actor>>();
     private final List<EntityView> targetsSelected = new ArrayList<EntityView>();
+    private final Map<Integer, List<UsableActionMessage>> usableActions = new HashMap<Integer, List<UsableActionMessage>>();
     private final Screen parentScreen;
     private AvailableTargetsMessage targetsAvailable;
     private final TargetableCallback onTarget = new TargetableCallback() {
@@ -218,6 +219,7 @@ public class GameScreen implements Screen, TargetableCallback {
                 }
                 if (zone != null) {
                     entityViews.put(message.getId(), zone.addCard(message));
+                    showUsableActions(message.getId());
                 }
             }
         });
@@ -270,6 +272,51 @@ public class GameScreen implements Screen, TargetableCallback {
                 }
             }
         });
+        handlers.put(UsableActionsChangeMessage.class, new SpecificHandler<UsableActionsChangeMessage>() {
+            @Override
+            public void handle(UsableActionsChangeMessage message) {
+                Set<Integer> changed = new HashSet<Integer>();
+                for (EntityView view : entityViews.values()) {
+                    view.setTargetable(TargetStatus.NOT_TARGETABLE, null);
+                    if (message.isReset()) {
+                        view.clearUsableActions();
+                    }
+                }
+                if (message.isReset()) {
+                    usableActions.clear();
+                }
+                int[] removedIds = message.getRemovedIds();
+                String[] removedActions = message.getRemovedActions();
+                for (int i = 0; i < removedIds.length; i++) {
+                    List<UsableActionMessage> actions = usableActions.get(removedIds[i]);
+                    if (actions == null) {
+                        continue;
+                    }
+                    Iterator<UsableActionMessage> it = actions.iterator();
+                    while (it.hasNext()) {
+                        if (it.next().getAction().equals(removedActions[i])) {
+                            it.remove();
+                        }
+                    }
+                    if (actions.isEmpty()) {
+                        usableActions.remove(removedIds[i]);
+                    }
+                    changed.add(removedIds[i]);
+                }
+                for (UsableActionMessage action : message.createAddedMessages()) {
+                    List<UsableActionMessage> actions = usableActions.get(action.getId());
+                    if (actions == null) {
+                        actions = new ArrayList<UsableActionMessage>();
+                        usableActions.put(action.getId(), actions);
+                    }
+                    actions.add(action);
+                    changed.add(action.getId());
+                }
+                for (int id : changed) {
+                    showUsableActions(id);
+                }
+            }
+        });
         handlers.put(UpdateMessage.class, new SpecificHandler<UpdateMessage>() {
             @Override
             public void handle(UpdateMessage message) {
@@ -298,6 +345,7 @@ public class GameScreen implements Screen, TargetableCallback {
                         entityView.zoneMove(message, destinationZone, newCardView);
                     }
                     entityViews.put(id, newCardView);
+                    showUsableActions(id);
                 }
                 else {
                     if (entityView != null) {
@@ -360,6 +408,29 @@ when cards are created from nowhere, ZoneChange with source -1 is sent and then
         throw new RuntimeException("Unknown ZoneView type: " + message.getName());
     }
 
+    /**
+     * Show the actions of an entity that are usable, replacing the actions that were shown before
+     *
+     * @param id The id of the entity
+     */
+    private void showUsableActions(int id) {
+        EntityView view = entityViews.get(id);
+        if (view == null) {
+            return;
+        }
+        view.clearUsableActions();
+        List<UsableActionMessage> actions = usableActions.get(id);
+        if (actions == null) {
+            return;
+        }
+        for (UsableActionMessage action : actions) {
+            view.usableAction(action);
+        }
+        if (view instanceof CardViewSmall) {
+            ((CardViewSmall) view).setUsable(this);
+        }
+    }
+
     private ZoneView getZoneView(int id) {
         return this.zoneViews.get(id);
     }